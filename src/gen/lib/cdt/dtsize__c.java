@@ -57,6 +57,7 @@ import gen.annotation.Original;
 import gen.annotation.Reviewed;
 import h.ST_dt_s;
 import h.ST_dtlink_s;
+import smetana.core.ArrayDict;
 
 public class dtsize__c {
 
@@ -89,7 +90,9 @@ try {
 	UNFLATTEN(dt);
 
 	if(dt.data.size < 0) /* !(dt->data->type&(DT_SET|DT_BAG)) */
-	{	if((dt.data.type&(DT_OSET|DT_OBAG))!=0)
+	{	if(dt.meth.searchf == ArrayDict.searchf)
+			dt.data.size = ArrayDict.size(dt.data.here);
+		else if((dt.data.type&(DT_OSET|DT_OBAG))!=0)
 			dt.data.size = treecount(dt.data.here);
 		else if((dt.data.type&(DT_LIST|DT_STACK|DT_QUEUE))!=0)
 		{	size=0;
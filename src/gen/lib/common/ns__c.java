@@ -914,7 +914,7 @@ try {
 	    if (iter % 1000 == 0)
 		fputc('\n', stderr);
 	}*/
-	if (iter >= maxiter)
+	if (iter >= maxiter || Z.z().budget.tick())
 	    break;
     }
     switch (balance) {
@@ -118,6 +118,7 @@ import h.ST_pack_info;
 import smetana.core.CFunction;
 import smetana.core.CFunctionAbstract;
 import smetana.core.CString;
+import smetana.core.LayoutBudget;
 import smetana.core.Z;
 
 public class dotinit__c {
@@ -357,7 +358,9 @@ try {
     dot_init_node_edge(g);
     
     do {
+        Z.z().budget.startPhase(LayoutBudget.Phase.RANK);
         dot_rank(g, asp);
+        Z.z().budget.endPhase();
 	if (maxphase == 1) {
 	    attach_phase_attrs (g, 1);
 	    return;
@@ -367,12 +370,16 @@ UNSUPPORTED("1yu5j8tk43i6jlmu8wk9jks15"); // 	    agerr(AGWARN, "dot does not su
 UNSUPPORTED("5uwp9z6jkv5uc30iyfszyg6dw"); // 	    asp = NULL;
 UNSUPPORTED("28kbszyxsjoj03gb134ov4hag"); // 	    aspect.nextIter = 0;
 	}
+        Z.z().budget.startPhase(LayoutBudget.Phase.MINCROSS);
         dot_mincross(g, (asp != null));
+        Z.z().budget.endPhase();
 	if (maxphase == 2) {
 	    attach_phase_attrs (g, 2);
 	    return;
 	}
+        Z.z().budget.startPhase(LayoutBudget.Phase.POSITION);
         dot_position(g, asp);
+        Z.z().budget.endPhase();
 	if (maxphase == 3) {
 	    attach_phase_attrs (g, 2);  /* positions will be attached on output */
 	    return;
@@ -382,7 +389,9 @@ UNSUPPORTED("28kbszyxsjoj03gb134ov4hag"); // 	    aspect.nextIter = 0;
     if ((GD_flags(g) & NEW_RANK)!=0)
 	removeFill (g);
     dot_sameports(g);
+    Z.z().budget.startPhase(LayoutBudget.Phase.SPLINES);
     dot_splines(g);
+    Z.z().budget.endPhase();
     if (mapbool(agget(g, new CString("compound"))))
 	dot_compoundEdges(g);
 } finally {
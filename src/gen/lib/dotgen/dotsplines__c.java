@@ -558,6 +558,7 @@ UNSUPPORTED("46btiag50nczzur103eqhjcup"); // 	goto finish;
     
     for (i = 0; i < n_edges;) {
  	boolean havePorts;
+	Z.z().budget.tickOrFail();
 	ind = i;
 	le0 = getmainedge((e0 = edges.get_(i++)));
 	if (ED_tail_port(e0).defined || ED_head_port(e0).defined) {
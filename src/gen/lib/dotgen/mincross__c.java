@@ -571,7 +571,7 @@ try {
 	    }
 	}
 	/*} while (delta > ncross(g)*(1.0 - Convergence)); */
-    } while (delta >= 1);
+    } while (delta >= 1 && Z.z().budget.tick() == false);
 } finally {
 LEAVING("2i22bxgg5y7v5c5d40k5zppky","transpose");
 }
@@ -594,6 +594,8 @@ try {
     } else
 	cur_cross = best_cross = INT_MAX;
     for (pass = startpass; pass <= endpass; pass++) {
+	if (pass > startpass && Z.z().budget.isExhausted())
+	    break;
 	if (pass <= 1) {
 	    maxthispass = MIN(4, Z.z().MaxIter);
 	    if (EQ(g, dot_root(g)))
@@ -623,6 +625,8 @@ try {
 		break;
 	    if (cur_cross == 0)
 		break;
+	    if (Z.z().budget.tick())
+		break;
 	    mincross_step(g, iter);
 	    if ((cur_cross = ncross(g)) <= best_cross) {
 		save_best(g);
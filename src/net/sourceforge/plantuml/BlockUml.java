@@ -107,6 +107,7 @@ public class BlockUml {
 	}
 
 	private boolean preprocessorError;
+	private boolean externalInput;
 
 	public BlockUml(List<StringLocated> strings, Defines defines, ISkinSimple skinParam, PreprocessorModeSet mode) {
 		this.rawSource = new ArrayList<StringLocated>(strings);
@@ -125,6 +126,7 @@ public class BlockUml {
 			this.data = timLoader.getResultList();
 			this.debug = timLoader.getDebug();
 			this.preprocessorError = timLoader.isPreprocessorError();
+			this.externalInput = timLoader.hasExternalInput();
 		}
 	}
 
@@ -189,6 +191,14 @@ public class BlockUml {
 		return Version.etag() + internalEtag();
 	}
 
+	/**
+	 * True if the preprocessing read files or URLs, or used the date or the
+	 * environment: the same source may then give another diagram later.
+	 */
+	public boolean hasExternalInput() {
+		return externalInput;
+	}
+
 	public long lastModified() {
 		return (Version.compileTime() / 1000L / 60) * 1000L * 60 + Version.beta() * 1000L * 3600;
 	}
@@ -71,6 +71,23 @@ public class EmptyImageBuilder {
 		Log.info("Creating image " + width + "x" + height);
 		im = new BufferedImage(width, height, getType(background));
 		g2d = im.createGraphics();
+		fill(watermark, width, height, background);
+	}
+
+	/**
+	 * Creates only the rows <code>top</code> to <code>top + stripHeight</code>
+	 * of a <code>width</code> x <code>height</code> image. The Graphics2D is
+	 * translated, so drawings keep the coordinates of the whole image.
+	 */
+	public EmptyImageBuilder(String watermark, int width, int height, Color background, int top, int stripHeight) {
+		Log.debug("Creating strip " + width + "x" + stripHeight + " at " + top);
+		im = new BufferedImage(width, stripHeight, getType(background));
+		g2d = im.createGraphics();
+		g2d.translate(0, -top);
+		fill(watermark, width, height, background);
+	}
+
+	private void fill(String watermark, int width, int height, Color background) {
 		UAntiAliasing.ANTI_ALIASING_ON.apply(g2d);
 		if (background != null) {
 			g2d.setColor(background);
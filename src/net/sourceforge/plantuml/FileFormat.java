@@ -35,17 +35,15 @@
  */
 package net.sourceforge.plantuml;
 
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.geom.Dimension2D;
-import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 
 import net.sourceforge.plantuml.braille.BrailleCharFactory;
 import net.sourceforge.plantuml.braille.UGraphicBraille;
+import net.sourceforge.plantuml.graphic.FontMetricsCache;
 import net.sourceforge.plantuml.graphic.StringBounder;
 import net.sourceforge.plantuml.graphic.StringBounderRaw;
 import net.sourceforge.plantuml.png.MetadataTag;
@@ -181,10 +179,7 @@ public enum FileFormat {
 	}
 
 	static private Dimension2DDouble getJavaDimension(UFont font, String text) {
-		final Font javaFont = font.getUnderlayingFont();
-		final FontMetrics fm = gg.getFontMetrics(javaFont);
-		final Rectangle2D rect = fm.getStringBounds(text, gg);
-		return new Dimension2DDouble(rect.getWidth(), rect.getHeight());
+		return FontMetricsCache.getDimension(font.getUnderlayingFont(), text);
 	}
 
 	private StringBounder getBrailleStringBounder() {
@@ -51,6 +51,7 @@ import net.sourceforge.plantuml.command.regex.Matcher2;
 import net.sourceforge.plantuml.command.regex.MyPattern;
 import net.sourceforge.plantuml.command.regex.Pattern2;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
+import net.sourceforge.plantuml.picoweb.PicoWebServer;
 import net.sourceforge.plantuml.preproc.Defines;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.stats.StatsUtils;
@@ -78,9 +79,11 @@ public class Option {
 	private boolean splash = false;
 	private boolean textProgressBar = false;
 	private int nbThreads = 0;
+	private boolean dotPool = false;
 	private int ftpPort = -1;
 	private String picowebBindAddress = null;
 	private int picowebPort = -1;
+	private int picowebQueueSize = PicoWebServer.DEFAULT_QUEUE_SIZE;
 	private boolean hideMetadata = false;
 	private boolean checkMetadata = false;
 	private int stdrpt = 0;
@@ -208,6 +211,37 @@ public class Option {
 				} else if (nb.matches("\\d+")) {
 					this.nbThreads = Integer.parseInt(nb);
 				}
+			} else if (s.equalsIgnoreCase("-dotpool")) {
+				dotPool = true;
+			} else if (s.equalsIgnoreCase("-pngcompression")) {
+				i++;
+				if (i == arg.length) {
+					continue;
+				}
+				final String level = arg[i];
+				if (level.matches("\\d")) {
+					OptionFlags.getInstance().setPngCompressionLevel(Integer.parseInt(level));
+				}
+			} else if (s.equalsIgnoreCase("-pngthread") || s.equalsIgnoreCase("-pngthreads")) {
+				i++;
+				if (i == arg.length) {
+					continue;
+				}
+				final String nb = arg[i];
+				if ("auto".equalsIgnoreCase(nb)) {
+					OptionFlags.getInstance().setPngThreads(defaultNbThreads());
+				} else if (nb.matches("\\d+")) {
+					OptionFlags.getInstance().setPngThreads(Integer.parseInt(nb));
+				}
+			} else if (s.equalsIgnoreCase("-picowebqueue")) {
+				i++;
+				if (i == arg.length) {
+					continue;
+				}
+				final String nb = arg[i];
+				if (nb.matches("\\d+")) {
+					this.picowebQueueSize = Integer.parseInt(nb);
+				}
 			} else if (s.equalsIgnoreCase("-timeout")) {
 				i++;
 				if (i == arg.length) {
@@ -217,6 +251,15 @@ public class Option {
 				if (timeSeconds.matches("\\d+")) {
 					OptionFlags.getInstance().setTimeoutMs(Integer.parseInt(timeSeconds) * 1000L);
 				}
+			} else if (s.equalsIgnoreCase("-smetanamaxiter")) {
+				i++;
+				if (i == arg.length) {
+					continue;
+				}
+				final String nb = arg[i];
+				if (nb.matches("\\d+")) {
+					OptionFlags.getInstance().setSmetanaMaxIterations(Long.parseLong(nb));
+				}
 			} else if (s.equalsIgnoreCase("-failfast")) {
 				this.failfast = true;
 			} else if (s.equalsIgnoreCase("-failfast2")) {
@@ -270,6 +313,13 @@ public class Option {
 				}
 				OptionFlags.getInstance()
 						.setLogData(new SFile(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
+			} else if (s.equalsIgnoreCase("-layoutcachedir")) {
+				i++;
+				if (i == arg.length) {
+					continue;
+				}
+				OptionFlags.getInstance().setLayoutCacheDir(
+						new SFile(StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(arg[i])));
 			} else if (s.equalsIgnoreCase("-word")) {
 				OptionFlags.getInstance().setWord(true);
 				OptionFlags.getInstance().setQuiet(true);
@@ -379,6 +429,9 @@ public class Option {
 				result.add(s);
 			}
 		}
+		if (dotPool) {
+			OptionFlags.getInstance().setDotPoolSize(Math.max(1, nbThreads));
+		}
 	}
 
 	public Stdrpt getStdrpt() {
@@ -407,6 +460,10 @@ public class Option {
 		return picowebPort;
 	}
 
+	public int getPicowebQueueSize() {
+		return picowebQueueSize;
+	}
+
 	private void addInConfig(BufferedReader br) throws IOException {
 		if (br == null) {
 			return;
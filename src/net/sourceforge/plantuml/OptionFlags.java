@@ -43,6 +43,7 @@ import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.security.SecurityUtils;
+import smetana.core.LayoutBudget;
 
 public class OptionFlags {
 
@@ -127,7 +128,12 @@ public class OptionFlags {
 	private boolean clipboard;
 	private String fileSeparator = "_";
 	private long timeoutMs = 15 * 60 * 1000L; // 15 minutes
+	private int dotPoolSize = 0; // No pool by default
+	private int pngCompressionLevel = 6;
+	private int pngThreads = 1;
+	private long smetanaMaxIterations = 0; // No limit by default
 	private SFile logData;
+	private SFile layoutCacheDir;
 
 	public static OptionFlags getInstance() {
 		return singleton;
@@ -328,6 +334,54 @@ public class OptionFlags {
 		this.timeoutMs = timeoutMs;
 	}
 
+	public final SFile getLayoutCacheDir() {
+		return layoutCacheDir;
+	}
+
+	public final void setLayoutCacheDir(SFile layoutCacheDir) {
+		this.layoutCacheDir = layoutCacheDir;
+	}
+
+	public final int getDotPoolSize() {
+		return dotPoolSize;
+	}
+
+	public final void setDotPoolSize(int dotPoolSize) {
+		this.dotPoolSize = dotPoolSize;
+	}
+
+	public final int getPngCompressionLevel() {
+		return pngCompressionLevel;
+	}
+
+	public final void setPngCompressionLevel(int pngCompressionLevel) {
+		this.pngCompressionLevel = pngCompressionLevel;
+	}
+
+	public final int getPngThreads() {
+		return pngThreads;
+	}
+
+	public final void setPngThreads(int pngThreads) {
+		this.pngThreads = pngThreads;
+	}
+
+	public final long getSmetanaMaxIterations() {
+		return smetanaMaxIterations;
+	}
+
+	public final void setSmetanaMaxIterations(long smetanaMaxIterations) {
+		this.smetanaMaxIterations = smetanaMaxIterations;
+	}
+
+	/**
+	 * Budget of one Smetana layout: it uses the same timeout as external
+	 * Graphviz processes.
+	 */
+	public final LayoutBudget createSmetanaBudget() {
+		return new LayoutBudget(timeoutMs, smetanaMaxIterations);
+	}
+
 	public void setExtractStdLib(boolean extractStdLib) {
 		this.extractStdLib = extractStdLib;
 	}
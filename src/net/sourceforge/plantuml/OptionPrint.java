@@ -136,8 +136,13 @@ public class OptionPrint {
 		System.out.println("    -duration\t\tTo print the duration of complete diagrams processing");
 		System.out.println("    -nbthread N\t\tTo use (N) threads for processing");
 		System.out.println("    -nbthread auto\tTo use " + Option.defaultNbThreads() + " threads for processing");
+		System.out.println("    -layoutcachedir \"dir\"\tTo keep Graphviz layouts in this directory and reuse them");
+		System.out.println("    -dotpool\t\tTo reuse (-nbthread) running Graphviz processes instead of starting one per diagram");
+		System.out.println("    -pngcompression N\tTo set PNG compression from 0 (fastest) to 9 (smallest). Defaults to 6.");
+		System.out.println("    -pngthread N\tTo use (N) threads to compress large PNG images");
 		System.out
 				.println("    -timeout N\t\tProcessing timeout in (N) seconds. Defaults to 15 minutes (900 seconds).");
+		System.out.println("    -smetanamaxiter N\tTo stop Smetana layout optimizations after (N) iterations");
 		System.out.println("    -author[s]\t\tTo print information about PlantUML authors");
 		System.out.println("    -overwrite\t\tTo allow to overwrite read only files");
 		System.out.println("    -printfonts\t\tTo print fonts available on your system");
@@ -156,6 +161,7 @@ public class OptionPrint {
 		System.out.println("    -preproc\t\tTo output preprocessor text of diagrams");
 		System.out.println("    -cypher\t\tTo cypher texts of diagrams so that you can share them");
 		System.out.println("    -picoweb\t\tTo start internal HTTP Server. See https://plantuml.com/picoweb");
+		System.out.println("    -picowebqueue N\tTo let (N) connections wait for one of the -nbthread workers");
 		System.out.println();
 		System.out.println("If needed, you can setup the environment variable GRAPHVIZ_DOT.");
 		exit(0);
@@ -37,7 +37,9 @@ package net.sourceforge.plantuml;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.plantuml.acearth.PSystemXearthFactory;
 import net.sourceforge.plantuml.activitydiagram.ActivityDiagramFactory;
@@ -46,6 +48,7 @@ import net.sourceforge.plantuml.api.PSystemFactory;
 import net.sourceforge.plantuml.board.BoardDiagramFactory;
 import net.sourceforge.plantuml.bpm.BpmDiagramFactory;
 import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.command.PSystemCommandFactory;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.DiagramType;
@@ -103,6 +106,8 @@ public class PSystemBuilder {
 
 	public static final long startTime = System.currentTimeMillis();
 
+	private static final int SYNTAX_CHECK_MAX_LINES = 1000;
+
 	final public Diagram createPSystem(ISkinSimple skinParam, List<StringLocated> source,
 			List<StringLocated> rawSource) {
 
@@ -125,20 +130,36 @@ public class PSystemBuilder {
 			}
 
 			final DiagramType diagramType = umlSource.getDiagramType();
-			final List<PSystemError> errors = new ArrayList<PSystemError>();
 			final List<PSystemFactory> factories = getAllFactories(skinParam);
+			final Map<PSystemFactory, PSystemError> errorsByFactory = new HashMap<PSystemFactory, PSystemError>();
 			for (PSystemFactory systemFactory : factories) {
 				if (diagramType != systemFactory.getDiagramType()) {
 					continue;
 				}
+				if (systemFactory instanceof PSystemCommandFactory && ((PSystemCommandFactory) systemFactory)
+						.isSyntaxOk(umlSource, SYNTAX_CHECK_MAX_LINES) == false) {
+					// This factory would fail anyway: try the others before building its error
+					continue;
+				}
 				final Diagram sys = systemFactory.createSystem(umlSource);
 				if (isOk(sys)) {
 					result = sys;
 					return sys;
 				}
-				errors.add((PSystemError) sys);
+				errorsByFactory.put(systemFactory, (PSystemError) sys);
 			}
 
+			final List<PSystemError> errors = new ArrayList<PSystemError>();
+			for (PSystemFactory systemFactory : factories) {
+				if (diagramType != systemFactory.getDiagramType()) {
+					continue;
+				}
+				if (errorsByFactory.containsKey(systemFactory)) {
+					errors.add(errorsByFactory.get(systemFactory));
+				} else {
+					errors.add((PSystemError) systemFactory.createSystem(umlSource));
+				}
+			}
 			final PSystemError err = PSystemErrorUtils.merge(errors);
 			result = err;
 			return err;
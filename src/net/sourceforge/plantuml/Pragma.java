@@ -75,6 +75,11 @@ public class Pragma {
 		return "true".equalsIgnoreCase(teoz) || "on".equalsIgnoreCase(teoz);
 	}
 
+	public boolean useCdt() {
+		final String cdt = getValue("cdt");
+		return "true".equalsIgnoreCase(cdt) || "on".equalsIgnoreCase(cdt);
+	}
+
 	public boolean useTeozLayout() {
 		final String teoz = getValue("teoz");
 		return "true".equalsIgnoreCase(teoz) || "on".equalsIgnoreCase(teoz);
@@ -344,7 +344,8 @@ public class Run {
 	}
 
 	private static void goPicoweb(Option option) throws IOException {
-		PicoWebServer.startServer(option.getPicowebPort(), option.getPicowebBindAddress());
+		PicoWebServer.startServer(option.getPicowebPort(), option.getPicowebBindAddress(), option.getNbThreads(),
+				option.getPicowebQueueSize());
 	}
 
 	public static void printFonts() {
@@ -142,9 +142,9 @@ public class SkinParam implements ISkinParam {
 		return styleBuilder;
 	}
 
-	public void muteStyle(Style modifiedStyle) {
-		if (UseStyle.useBetaStyle()) {
-			styleBuilder = getCurrentStyleBuilder().muteStyle(modifiedStyle);
+	public void muteStyle(Collection<Style> modifiedStyles) {
+		if (UseStyle.useBetaStyle() && modifiedStyles.isEmpty() == false) {
+			styleBuilder = getCurrentStyleBuilder().muteStyle(modifiedStyles);
 		}
 	}
 
@@ -196,9 +196,7 @@ public class SkinParam implements ISkinParam {
 			}
 			if (UseStyle.useBetaStyle()) {
 				final FromSkinparamToStyle convertor = new FromSkinparamToStyle(key2, value, getCurrentStyleBuilder());
-				for (Style style : convertor.getStyles()) {
-					muteStyle(style);
-				}
+				muteStyle(convertor.getStyles());
 			}
 		}
 		if ("style".equalsIgnoreCase(key) && "strictuml".equalsIgnoreCase(value)) {
@@ -207,9 +205,7 @@ public class SkinParam implements ISkinParam {
 				final StyleBuilder styleBuilder = this.getCurrentStyleBuilder();
 				try {
 					final BlocLines lines = BlocLines.load(internalIs, null);
-					for (Style modifiedStyle : StyleLoader.getDeclaredStyles(lines, styleBuilder)) {
-						this.muteStyle(modifiedStyle);
-					}
+					this.muteStyle(StyleLoader.getDeclaredStyles(lines, styleBuilder));
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
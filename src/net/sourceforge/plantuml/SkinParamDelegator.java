@@ -346,8 +346,8 @@ public class SkinParamDelegator implements ISkinParam {
 		return skinParam.getCurrentStyleBuilder();
 	}
 
-	public void muteStyle(Style modifiedStyle) {
-		skinParam.muteStyle(modifiedStyle);
+	public void muteStyle(Collection<Style> modifiedStyles) {
+		skinParam.muteStyle(modifiedStyles);
 	}
 
 	public Collection<String> getAllSpriteNames() {
@@ -58,7 +58,7 @@ import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDele
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorRepeat;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorSwitch;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorWhile;
-import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorOneSwimlane;
+import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorSwimlanes;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.VCompactFactory;
 import net.sourceforge.plantuml.cucadiagram.Display;
 import net.sourceforge.plantuml.graphic.AbstractTextBlock;
@@ -268,6 +268,15 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 		drawTitlesBackground(ug);
 
 		final Dimension2D dimensionFull = full.calculateDimension(stringBounder);
+
+		// All swimlanes are drawn with a single traversal, then written in order
+		final List<UGraphicDeferred> deferred = new ArrayList<UGraphicDeferred>();
+		for (Swimlane swimlane : swimlanesSpecial()) {
+			deferred.add(new UGraphicDeferred(ug.apply(swimlane.getTranslate()).apply(titleHeightTranslate)));
+		}
+		full.drawU(new UGraphicInterceptorSwimlanes(swimlanesSpecial(), new ArrayList<UGraphic>(deferred),
+				swimlanes()));
+
 		int i = 0;
 		assert dividers.size() == swimlanes().size() + 1;
 		for (Swimlane swimlane : swimlanesSpecial()) {
@@ -284,8 +293,7 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 				background.draw(new URectangle(width, height).ignoreForCompressionOnX().ignoreForCompressionOnY());
 			}
 
-			full.drawU(new UGraphicInterceptorOneSwimlane(ug, swimlane, swimlanes()).apply(swimlane.getTranslate())
-					.apply(getTitleHeightTranslate(stringBounder)));
+			deferred.get(i).replay();
 
 			final double dividerWith = divider1.calculateDimension(stringBounder).getWidth();
 			divider1.drawU(ug.apply(UTranslate.dx(xpos - dividerWith)));
@@ -325,14 +333,19 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 
 	private void computeDrawingWidths(UGraphic ug, TextBlock full) {
 		final StringBounder stringBounder = ug.getStringBounder();
-		for (Swimlane swimlane : swimlanes()) {
+		final List<LimitFinder> limitFinders = new ArrayList<LimitFinder>();
+		final List<UGraphic> ugs = new ArrayList<UGraphic>();
+		for (int i = 0; i < swimlanes().size(); i++) {
 			final LimitFinder limitFinder = new LimitFinder(stringBounder, false);
-			final UGraphicInterceptorOneSwimlane interceptor = new UGraphicInterceptorOneSwimlane(
-					new UGraphicForSnake(limitFinder), swimlane, swimlanes());
-			full.drawU(interceptor);
-			interceptor.flushUg();
-			final MinMax minMax = limitFinder.getMinMax();
-			swimlane.setMinMax(minMax);
+			limitFinders.add(limitFinder);
+			ugs.add(new UGraphicForSnake(limitFinder));
+		}
+		final UGraphicInterceptorSwimlanes interceptor = new UGraphicInterceptorSwimlanes(swimlanes(), ugs,
+				swimlanes());
+		full.drawU(interceptor);
+		interceptor.flushUg();
+		for (int i = 0; i < swimlanes().size(); i++) {
+			swimlanes().get(i).setMinMax(limitFinders.get(i).getMinMax());
 		}
 	}
 
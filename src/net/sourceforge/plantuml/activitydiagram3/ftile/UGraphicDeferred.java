@@ -0,0 +1,142 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.activitydiagram3.ftile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.plantuml.Url;
+import net.sourceforge.plantuml.graphic.UGraphicDelegator;
+import net.sourceforge.plantuml.ugraphic.UChange;
+import net.sourceforge.plantuml.ugraphic.UGraphic;
+import net.sourceforge.plantuml.ugraphic.UGroupType;
+import net.sourceforge.plantuml.ugraphic.UShape;
+
+/**
+ * Keeps the orders sent to a UGraphic until {@link #replay()} is called.
+ * 
+ * Changes are applied at once, so the derived UGraphic answers queries as the
+ * target would, and each order is replayed on the UGraphic it was sent to.
+ */
+class UGraphicDeferred extends UGraphicDelegator {
+
+	private final List<Order> orders;
+
+	static abstract class Order {
+		protected final UGraphic ug;
+
+		Order(UGraphic ug) {
+			this.ug = ug;
+		}
+
+		abstract void execute();
+	}
+
+	UGraphicDeferred(UGraphic ug) {
+		this(ug, new ArrayList<Order>());
+	}
+
+	private UGraphicDeferred(UGraphic ug, List<Order> orders) {
+		super(ug);
+		this.orders = orders;
+	}
+
+	public UGraphic apply(UChange change) {
+		return new UGraphicDeferred(getUg().apply(change), orders);
+	}
+
+	@Override
+	public void draw(final UShape shape) {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.draw(shape);
+			}
+		});
+	}
+
+	@Override
+	public void startUrl(final Url url) {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.startUrl(url);
+			}
+		});
+	}
+
+	@Override
+	public void closeUrl() {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.closeUrl();
+			}
+		});
+	}
+
+	@Override
+	public void startGroup(final UGroupType type, final String ident) {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.startGroup(type, ident);
+			}
+		});
+	}
+
+	@Override
+	public void closeGroup() {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.closeGroup();
+			}
+		});
+	}
+
+	@Override
+	public void flushUg() {
+		orders.add(new Order(getUg()) {
+			void execute() {
+				ug.flushUg();
+			}
+		});
+	}
+
+	public void replay() {
+		for (Order order : orders) {
+			order.execute();
+		}
+		orders.clear();
+	}
+
+}
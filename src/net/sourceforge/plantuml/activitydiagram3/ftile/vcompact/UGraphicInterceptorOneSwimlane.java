@@ -72,14 +72,7 @@ public class UGraphicInterceptorOneSwimlane extends UGraphicDelegator {
 			}
 		} else if (shape instanceof Connection) {
 			final Connection connection = (Connection) shape;
-			final Ftile tile1 = connection.getFtile1();
-			final Ftile tile2 = connection.getFtile2();
-			final boolean contained1 = tile1 == null || tile1.getSwimlaneOut() == null
-					|| tile1.getSwimlaneOut() == swimlane;
-			final boolean contained2 = tile2 == null || tile2.getSwimlaneIn() == null
-					|| tile2.getSwimlaneIn() == swimlane;
-
-			if (contained1 && contained2) {
+			if (isContained(connection, swimlane)) {
 				connection.drawU(this);
 			}
 		} else {
@@ -89,6 +82,16 @@ public class UGraphicInterceptorOneSwimlane extends UGraphicDelegator {
 
 	}
 
+	static boolean isContained(Connection connection, Swimlane swimlane) {
+		final Ftile tile1 = connection.getFtile1();
+		final Ftile tile2 = connection.getFtile2();
+		final boolean contained1 = tile1 == null || tile1.getSwimlaneOut() == null
+				|| tile1.getSwimlaneOut() == swimlane;
+		final boolean contained2 = tile2 == null || tile2.getSwimlaneIn() == null
+				|| tile2.getSwimlaneIn() == swimlane;
+		return contained1 && contained2;
+	}
+
 	private void drawGoto() {
 		final UGraphic ugGoto = getUg().apply(HColorUtils.GREEN).apply(HColorUtils.GREEN.bg());
 		ugGoto.draw(new ULine(100, 100));
@@ -0,0 +1,151 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.activitydiagram3.ftile.vcompact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import net.sourceforge.plantuml.Url;
+import net.sourceforge.plantuml.activitydiagram3.ftile.Connection;
+import net.sourceforge.plantuml.activitydiagram3.ftile.Ftile;
+import net.sourceforge.plantuml.activitydiagram3.ftile.Swimlane;
+import net.sourceforge.plantuml.graphic.UGraphicDelegator;
+import net.sourceforge.plantuml.ugraphic.UChange;
+import net.sourceforge.plantuml.ugraphic.UGraphic;
+import net.sourceforge.plantuml.ugraphic.UGroupType;
+import net.sourceforge.plantuml.ugraphic.UShape;
+
+/**
+ * Draws several swimlanes with a single traversal.
+ * 
+ * Each swimlane has its own UGraphic, which receives exactly what a
+ * {@link UGraphicInterceptorOneSwimlane} would have sent to it. A tile shared
+ * by several swimlanes is drawn only once for all of them. As soon as a single
+ * swimlane is concerned, the traversal goes on with a
+ * UGraphicInterceptorOneSwimlane. Connections and notes, whose drawing depends
+ * on the swimlane, are always drawn once per swimlane.
+ */
+public class UGraphicInterceptorSwimlanes extends UGraphicDelegator {
+
+	private final List<Swimlane> swimlanes;
+	private final List<UGraphic> ugs;
+	private final List<Swimlane> orderedList;
+
+	public UGraphicInterceptorSwimlanes(List<Swimlane> swimlanes, List<UGraphic> ugs, List<Swimlane> orderedList) {
+		super(ugs.get(0));
+		this.swimlanes = swimlanes;
+		this.ugs = ugs;
+		this.orderedList = orderedList;
+	}
+
+	public void draw(UShape shape) {
+		if (shape instanceof Ftile) {
+			final Ftile tile = (Ftile) shape;
+			final Set<Swimlane> tileSwimlanes = tile.getSwimlanes();
+			final List<Swimlane> selected = new ArrayList<Swimlane>();
+			final List<UGraphic> selectedUgs = new ArrayList<UGraphic>();
+			for (int i = 0; i < swimlanes.size(); i++) {
+				if (tileSwimlanes.contains(swimlanes.get(i))) {
+					selected.add(swimlanes.get(i));
+					selectedUgs.add(ugs.get(i));
+				}
+			}
+			if (selected.size() > 1 && tile instanceof FtileWithNoteOpale == false) {
+				tile.drawU(new UGraphicInterceptorSwimlanes(selected, selectedUgs, orderedList));
+			} else {
+				for (int i = 0; i < selected.size(); i++) {
+					tile.drawU(new UGraphicInterceptorOneSwimlane(selectedUgs.get(i), selected.get(i), orderedList));
+				}
+			}
+		} else if (shape instanceof Connection) {
+			final Connection connection = (Connection) shape;
+			for (int i = 0; i < swimlanes.size(); i++) {
+				if (UGraphicInterceptorOneSwimlane.isContained(connection, swimlanes.get(i))) {
+					connection.drawU(new UGraphicInterceptorOneSwimlane(ugs.get(i), swimlanes.get(i), orderedList));
+				}
+			}
+		} else {
+			for (UGraphic ug : ugs) {
+				ug.draw(shape);
+			}
+		}
+	}
+
+	public UGraphic apply(UChange change) {
+		final List<UGraphic> result = new ArrayList<UGraphic>(ugs.size());
+		for (UGraphic ug : ugs) {
+			result.add(ug.apply(change));
+		}
+		return new UGraphicInterceptorSwimlanes(swimlanes, result, orderedList);
+	}
+
+	@Override
+	public void startUrl(Url url) {
+		for (UGraphic ug : ugs) {
+			ug.startUrl(url);
+		}
+	}
+
+	@Override
+	public void closeUrl() {
+		for (UGraphic ug : ugs) {
+			ug.closeUrl();
+		}
+	}
+
+	@Override
+	public void startGroup(UGroupType type, String ident) {
+		for (UGraphic ug : ugs) {
+			ug.startGroup(type, ident);
+		}
+	}
+
+	@Override
+	public void closeGroup() {
+		for (UGraphic ug : ugs) {
+			ug.closeGroup();
+		}
+	}
+
+	@Override
+	public void flushUg() {
+		for (UGraphic ug : ugs) {
+			ug.flushUg();
+		}
+	}
+
+}
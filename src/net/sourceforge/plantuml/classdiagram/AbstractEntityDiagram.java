@@ -47,8 +47,25 @@ import net.sourceforge.plantuml.cucadiagram.CucaDiagram;
 
 public abstract class AbstractEntityDiagram extends CucaDiagram {
 
+	private final ISkinSimple orig;
+
 	public AbstractEntityDiagram(UmlDiagramType type, ISkinSimple orig) {
 		super(type, orig);
+		this.orig = orig;
+	}
+
+	/**
+	 * The skin given by the factory, before any skinparam of the source.
+	 */
+	final protected ISkinSimple getOrigSkin() {
+		return orig;
+	}
+
+	/**
+	 * @return an empty diagram of the same type for the command newpage
+	 */
+	public AbstractEntityDiagram createNewpage() {
+		throw new UnsupportedOperationException();
 	}
 
 	final protected List<String> getDotStrings() {
@@ -63,6 +63,11 @@ public class ClassDiagram extends AbstractClassOrObjectDiagram {
 		super(UmlDiagramType.CLASS, skinParam);
 	}
 
+	@Override
+	public ClassDiagram createNewpage() {
+		return new ClassDiagram(getOrigSkin());
+	}
+
 	private Code getShortName1972(Code code) {
 		final String separator = getNamespaceSeparator();
 		if (separator == null) {
@@ -99,7 +99,7 @@ public class ClassDiagramFactory extends PSystemCommandFactory {
 		cmds.add(new CommandFootboxIgnored());
 
 		cmds.add(new CommandRankDir());
-		cmds.add(new CommandNewpage(this));
+		cmds.add(new CommandNewpage());
 
 		cmds.add(new CommandPage());
 		cmds.add(new CommandAddMethod());
@@ -60,12 +60,16 @@ public class AsciiEncoderBase64 implements URLEncoder {
 	}
 
 	public byte[] decode(String s) {
+		return decode(s, 0);
+	}
+
+	public byte[] decode(String s, int start) {
 		// if (s.length() % 4 != 0) {
 		// throw new IllegalArgumentException("Cannot decode " + s);
 		// }
-		final byte data[] = new byte[computeSize(s.length())];
+		final byte data[] = new byte[computeSize(s.length() - start)];
 		int pos = 0;
-		for (int i = 0; i < s.length(); i += 4) {
+		for (int i = start; i < s.length(); i += 4) {
 			decode3bytes(data, pos, scharAt(s, i), scharAt(s, i + 1), scharAt(s, i + 2), scharAt(s, i + 3));
 			pos += 3;
 		}
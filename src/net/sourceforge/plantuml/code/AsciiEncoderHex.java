@@ -53,9 +53,21 @@ public class AsciiEncoderHex implements URLEncoder {
 	}
 
 	public byte[] decode(String s) {
-		final byte result[] = new byte[s.length() / 2];
+		return decode(s, 0);
+	}
+
+	public byte[] decode(String s, int start) {
+		final byte result[] = new byte[(s.length() - start) / 2];
 		for (int i = 0; i < result.length; i++) {
-			result[i] = (byte) Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+			final int pos = start + i * 2;
+			final int high = Character.digit(s.charAt(pos), 16);
+			final int low = Character.digit(s.charAt(pos + 1), 16);
+			if (high == -1 || low == -1) {
+				// Same error or value as before
+				result[i] = (byte) Integer.parseInt(s.substring(pos, pos + 2), 16);
+			} else {
+				result[i] = (byte) (high * 16 + low);
+			}
 		}
 		return result;
 	}
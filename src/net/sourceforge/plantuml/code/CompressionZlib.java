@@ -35,16 +35,62 @@
  */
 package net.sourceforge.plantuml.code;
 
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
+import net.sourceforge.plantuml.security.SecurityUtils;
+
 public class CompressionZlib implements Compression {
 
 	private static boolean USE_ZOPFLI = false;
 	private static final int COMPRESSION_LEVEL = 9;
 
+	/**
+	 * Default limit of the size of decompressed data. It can be changed with
+	 * PLANTUML_DECOMPRESSION_LIMIT.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 100000;
+
+	private static final int MAX_KEPT_BUFFER = 1024 * 1024;
+
+	// Some zlib versions need an extra byte after nowrap data
+	private static final byte[] PADDING = new byte[256];
+
+	// Deflater and Inflater hold native memory: a few reset ones are kept for
+	// the next calls, whatever the thread, and the others are ended
+	private static final int MAX_POOLED = 16;
+	private static final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<Deflater>(MAX_POOLED);
+	private static final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<Inflater>(MAX_POOLED);
+
+	private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+		@Override
+		protected byte[] initialValue() {
+			return new byte[4096];
+		}
+	};
+
+	private final int maxSize;
+
+	public CompressionZlib() {
+		this(getDefaultMaxSize());
+	}
+
+	public CompressionZlib(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	private static int getDefaultMaxSize() {
+		final String env = SecurityUtils.getenv("PLANTUML_DECOMPRESSION_LIMIT");
+		if (env != null && env.matches("\\d+")) {
+			return Integer.parseInt(env);
+		}
+		return DEFAULT_MAX_SIZE;
+	}
+
 	public byte[] compress(byte[] in) {
 		if (USE_ZOPFLI) {
 			return new CompressionZopfliZlib().compress(in);
@@ -52,90 +98,78 @@ public class CompressionZlib implements Compression {
 		if (in.length == 0) {
 			return null;
 		}
-		int len = in.length * 2;
-		if (len < 1000) {
-			len = 1000;
+		Deflater deflater = deflaters.poll();
+		if (deflater == null) {
+			deflater = new Deflater(COMPRESSION_LEVEL, true);
 		}
-		byte[] result = null;
-//		while (result == null) {
-		result = tryCompress(in, len);
-//			len *= 2;
-//		}
-		return result;
-	}
-
-	private byte[] tryCompress(byte[] in, final int len) {
-		// Compress the bytes
-		final Deflater compresser = new Deflater(COMPRESSION_LEVEL, true);
-		compresser.setInput(in);
-		compresser.finish();
-
-		final byte[] output = new byte[len];
-		final int compressedDataLength = compresser.deflate(output);
-		if (compresser.finished() == false) {
-			return null;
-		}
-		return copyArray(output, compressedDataLength);
-	}
-
-	public ByteArray decompress(byte[] in) throws NoPlantumlCompressionException {
 		try {
-			final byte in2[] = new byte[in.length + 256];
-			System.arraycopy(in, 0, in2, 0, in.length);
-//		for (int i = 0; i < in.length; i++) {
-//			in2[i] = in[i];
-//		}
-
-			int len = 100000;
-			byte[] result = null;
-			result = tryDecompress(in2, len);
-			if (result == null) {
-				throw new NoPlantumlCompressionException("Too big?");
-
+			deflater.setInput(in);
+			deflater.finish();
+			byte[] buffer = buffers.get();
+			int length = 0;
+			while (deflater.finished() == false) {
+				if (length == buffer.length) {
+					buffer = grow(buffer, Integer.MAX_VALUE);
+				}
+				length += deflater.deflate(buffer, length, buffer.length - length);
+			}
+			return Arrays.copyOf(buffer, length);
+		} finally {
+			deflater.reset();
+			if (deflaters.offer(deflater) == false) {
+				deflater.end();
 			}
-//		int len = in.length * 5;
-//		byte[] result = null;
-//		while (result == null) {
-//			result = tryDecompress(in2, len);
-//			len *= 2;
-//		}
-			return ByteArray.from(result);
-		} catch (IOException e) {
-			// e.printStackTrace();
-			throw new NoPlantumlCompressionException(e);
 		}
-
 	}
 
-	private byte[] tryDecompress(byte[] in, final int len) throws IOException {
-		if (len > 200000) {
-			throw new IOException("OutOfMemory");
+	public ByteArray decompress(byte[] in) throws NoPlantumlCompressionException {
+		Inflater inflater = inflaters.poll();
+		if (inflater == null) {
+			inflater = new Inflater(true);
 		}
-		// Decompress the bytes
-		final byte[] tmp = new byte[len];
-		final Inflater decompresser = new Inflater(true);
-		decompresser.setInput(in);
+		inflater.setInput(in);
+		byte[] buffer = buffers.get();
+		int length = 0;
+		boolean padded = false;
 		try {
-			final int resultLength = decompresser.inflate(tmp);
-			if (decompresser.finished() == false) {
-				return null;
+			while (inflater.finished() == false) {
+				if (length == Math.min(buffer.length, maxSize)) {
+					if (length >= maxSize) {
+						throw new NoPlantumlCompressionException("Too big?");
+					}
+					buffer = grow(buffer, maxSize);
+				}
+				final int n = inflater.inflate(buffer, length, Math.min(buffer.length, maxSize) - length);
+				length += n;
+				if (n == 0 && inflater.needsDictionary()) {
+					throw new NoPlantumlCompressionException("Dictionary needed");
+				}
+				if (n == 0 && inflater.needsInput()) {
+					if (padded) {
+						throw new NoPlantumlCompressionException("Truncated data");
+					}
+					inflater.setInput(PADDING);
+					padded = true;
+				}
 			}
-			decompresser.end();
-
-			final byte[] result = copyArray(tmp, resultLength);
-			return result;
 		} catch (DataFormatException e) {
-			// e.printStackTrace();
-			throw new IOException(e.toString());
+			throw new NoPlantumlCompressionException(e);
+		} finally {
+			inflater.reset();
+			if (inflaters.offer(inflater) == false) {
+				inflater.end();
+			}
 		}
+		return ByteArray.from(Arrays.copyOf(buffer, length));
 	}
 
-	private byte[] copyArray(final byte[] data, final int len) {
-		final byte[] result = new byte[len];
-		System.arraycopy(data, 0, result, 0, len);
-//		for (int i = 0; i < result.length; i++) {
-//			result[i] = data[i];
-//		}
+	// The grown buffer is kept for the next calls of the thread, unless it is
+	// really large
+	private static byte[] grow(byte[] buffer, int max) {
+		final byte[] result = Arrays.copyOf(buffer, (int) Math.min(max, buffer.length * 2L));
+		if (result.length <= MAX_KEPT_BUFFER) {
+			buffers.set(result);
+		}
 		return result;
 	}
 
@@ -56,11 +56,11 @@ public class TranscoderImpl implements Transcoder {
 		this.format = format;
 	}
 
-	public static Transcoder utf8(URLEncoder urlEncoder, StringCompressor stringCompressor, Compression compression) {
+	public static TranscoderImpl utf8(URLEncoder urlEncoder, StringCompressor stringCompressor, Compression compression) {
 		return new TranscoderImpl(urlEncoder, stringCompressor, compression, Format.UTF8);
 	}
 
-	public static Transcoder upf9(URLEncoder urlEncoder, StringCompressor stringCompressor, Compression compression) {
+	public static TranscoderImpl upf9(URLEncoder urlEncoder, StringCompressor stringCompressor, Compression compression) {
 		return new TranscoderImpl(urlEncoder, stringCompressor, compression, Format.UPF9);
 	}
 
@@ -78,8 +78,16 @@ public class TranscoderImpl implements Transcoder {
 	}
 
 	public String decode(String code) throws NoPlantumlCompressionException {
+		return decode(code, 0);
+	}
+
+	/**
+	 * Decodes the end of <code>code</code>, after a header of <code>start</code>
+	 * characters.
+	 */
+	public String decode(String code, int start) throws NoPlantumlCompressionException {
 		try {
-			final byte compressedData[] = urlEncoder.decode(code);
+			final byte compressedData[] = urlEncoder.decode(code, start);
 			final ByteArray data = compression.decompress(compressedData);
 			final String string = format == Format.UTF8 ? data.toUFT8String() : data.toUPF9String();
 			return stringCompressor.decompress(string);
@@ -40,9 +40,9 @@ import java.io.IOException;
 public class TranscoderSmart implements Transcoder {
 
 	// Legacy encoder
-	private final Transcoder oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
+	private final TranscoderImpl oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
 			new CompressionHuffman());
-	private final Transcoder zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
+	private final TranscoderImpl zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
 			new CompressionZlib());
 
 	public String decode(String code) throws NoPlantumlCompressionException {
@@ -50,10 +50,10 @@ public class TranscoderSmart implements Transcoder {
 		// See https://github.com/plantuml/plantuml/issues/117
 
 		if (code.startsWith("~0")) {
-			return zlib.decode(code.substring(2));
+			return zlib.decode(code, 2);
 		}
 		if (code.startsWith("~1")) {
-			return oldOne.decode(code.substring(2));
+			return oldOne.decode(code, 2);
 		}
 
 		try {
@@ -40,20 +40,20 @@ import java.io.IOException;
 public class TranscoderSmart2 implements Transcoder {
 
 	// Legacy encoder
-	private final Transcoder oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
 			new CompressionHuffman());
-	private final Transcoder zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
 			new CompressionZlib());
-	private final Transcoder brotli = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl brotli = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor2(),
 			new CompressionBrotli());
 
-	private final Transcoder zlibBase64 = TranscoderImpl.utf8(new AsciiEncoderBase64(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl zlibBase64 = TranscoderImpl.utf8(new AsciiEncoderBase64(), new ArobaseStringCompressor2(),
 			new CompressionZlib());
-	private final Transcoder brotliBase64 = TranscoderImpl.utf8(new AsciiEncoderBase64(),
+	private final TranscoderImpl brotliBase64 = TranscoderImpl.utf8(new AsciiEncoderBase64(),
 			new ArobaseStringCompressor2(), new CompressionBrotli());
-	private final Transcoder base64only = TranscoderImpl.utf8(new AsciiEncoderBase64(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl base64only = TranscoderImpl.utf8(new AsciiEncoderBase64(), new ArobaseStringCompressor2(),
 			new CompressionNone());
-	private final Transcoder hexOnly = TranscoderImpl.utf8(new AsciiEncoderHex(), new ArobaseStringCompressor2(),
+	private final TranscoderImpl hexOnly = TranscoderImpl.utf8(new AsciiEncoderHex(), new ArobaseStringCompressor2(),
 			new CompressionNone());
 
 	public String decode(String code) throws NoPlantumlCompressionException {
@@ -62,35 +62,35 @@ public class TranscoderSmart2 implements Transcoder {
 
 		// Two char headers
 		if (code.startsWith("0A")) {
-			return zlibBase64.decode(code.substring(2));
+			return zlibBase64.decode(code, 2);
 		}
 		if (code.startsWith("0B")) {
-			return brotliBase64.decode(code.substring(2));
+			return brotliBase64.decode(code, 2);
 		}
 		if (code.startsWith("0C")) {
-			return base64only.decode(code.substring(2));
+			return base64only.decode(code, 2);
 		}
 		if (code.startsWith("0D")) {
-			return hexOnly.decode(code.substring(2));
+			return hexOnly.decode(code, 2);
 		}
 		// Text prefix
 		// Just a wild try: use them only for testing
 		if (code.startsWith("-deflate-")) {
-			return zlibBase64.decode(code.substring("-deflate-".length()));
+			return zlibBase64.decode(code, "-deflate-".length());
 		}
 		if (code.startsWith("-brotli-")) {
-			return brotliBase64.decode(code.substring("-brotli-".length()));
+			return brotliBase64.decode(code, "-brotli-".length());
 		}
 		if (code.startsWith("-base64-")) {
-			return base64only.decode(code.substring("-base64-".length()));
+			return base64only.decode(code, "-base64-".length());
 		}
 		if (code.startsWith("-hex-")) {
-			return hexOnly.decode(code.substring("-hex-".length()));
+			return hexOnly.decode(code, "-hex-".length());
 		}
 
 		// Legacy decoding : you should not use it any more.
 		if (code.startsWith("0")) {
-			return brotli.decode(code.substring(1));
+			return brotli.decode(code, 1);
 		}
 		try {
 			return zlib.decode(code);
@@ -40,11 +40,11 @@ import java.io.IOException;
 public class TranscoderSmartProtectedPure implements Transcoder {
 
 	// Legacy encoder
-	private final Transcoder oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
+	private final TranscoderImpl oldOne = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
 			new CompressionHuffman());
-	private final Transcoder zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
+	private final TranscoderImpl zlib = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
 			new CompressionZlibPure());
-	private final Transcoder hexOnly = TranscoderImpl.utf8(new AsciiEncoderHex(), new ArobaseStringCompressor(),
+	private final TranscoderImpl hexOnly = TranscoderImpl.utf8(new AsciiEncoderHex(), new ArobaseStringCompressor(),
 			new CompressionNone());
 
 	public String decode(String code) throws NoPlantumlCompressionException {
@@ -52,22 +52,23 @@ public class TranscoderSmartProtectedPure implements Transcoder {
 		// See https://github.com/plantuml/plantuml/issues/117
 
 		if (code.startsWith("~0")) {
-			return decodeZlib(code.substring(2));
+			return decodeZlib(code, 2);
 		}
 		if (code.startsWith("~1")) {
-			return decodeHuffman(code.substring(2));
+			return decodeHuffman(code, 2);
 		}
 		if (code.startsWith("~h")) {
-			return hexOnly.decode(code.substring(2));
+			return hexOnly.decode(code, 2);
 		}
 
-		return decodeZlib(code);
+		return decodeZlib(code, 0);
 	}
 
-	private String decodeZlib(String code) {
+	private String decodeZlib(String code, int start) {
 		try {
-			return zlib.decode(code);
+			return zlib.decode(code, start);
 		} catch (Exception ex) {
+			code = code.substring(start);
 			try {
 				oldOne.decode(code);
 				return textProtectedDeflate2(code);
@@ -77,11 +78,11 @@ public class TranscoderSmartProtectedPure implements Transcoder {
 		}
 	}
 
-	private String decodeHuffman(String code) {
+	private String decodeHuffman(String code, int start) {
 		try {
-			return oldOne.decode(code);
+			return oldOne.decode(code, start);
 		} catch (Exception ex) {
-			return textProtectedHuffman(code);
+			return textProtectedHuffman(code.substring(start));
 		}
 	}
 
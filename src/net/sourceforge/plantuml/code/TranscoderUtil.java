@@ -35,6 +35,10 @@
  */
 package net.sourceforge.plantuml.code;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public class TranscoderUtil {
 
 	public static Transcoder getDefaultTranscoder() {
@@ -49,4 +53,20 @@ public class TranscoderUtil {
 		return new TranscoderSmartProtectedPure();
 	}
 
+	/**
+	 * Decodes several codes with the same transcoder. A code that cannot be
+	 * decoded gives a <code>null</code> entry.
+	 */
+	public static List<String> decodeAll(Transcoder transcoder, Collection<String> codes) {
+		final List<String> result = new ArrayList<String>(codes.size());
+		for (String code : codes) {
+			try {
+				result.add(transcoder.decode(code));
+			} catch (NoPlantumlCompressionException e) {
+				result.add(null);
+			}
+		}
+		return result;
+	}
+
 }
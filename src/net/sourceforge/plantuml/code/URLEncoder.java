@@ -41,4 +41,10 @@ public interface URLEncoder {
 
 	byte[] decode(String s);
 
+	/**
+	 * Decodes the end of <code>s</code>, from index <code>start</code>, without
+	 * creating a substring.
+	 */
+	byte[] decode(String s, int start);
+
 }
\ No newline at end of file
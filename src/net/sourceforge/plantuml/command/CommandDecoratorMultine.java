@@ -83,6 +83,10 @@ public class CommandDecoratorMultine<D extends Diagram> implements Command<D> {
 		return cmd.getDescription();
 	}
 
+	final SingleLineCommand2<D> getCommand() {
+		return cmd;
+	}
+
 	public int getNbMaxLines() {
 		return nbMaxLines;
 	}
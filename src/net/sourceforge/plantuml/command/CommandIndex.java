@@ -0,0 +1,160 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.command.regex.IRegex;
+import net.sourceforge.plantuml.command.regex.MyPattern;
+import net.sourceforge.plantuml.command.regex.Pattern2;
+import net.sourceforge.plantuml.command.regex.RegexComposed;
+import net.sourceforge.plantuml.command.regex.RegexFirstChars;
+
+/**
+ * Dispatch index of the commands of a PSystemCommandFactory.
+ * 
+ * For each possible first character of a trimmed line, it keeps the commands
+ * whose first line pattern can start with this character, in their original
+ * order. Commands whose pattern cannot be analyzed are kept everywhere.
+ */
+final class CommandIndex {
+
+	private final List<Command<?>> all;
+	private final List<List<Command<?>>> byFirstChar = new ArrayList<List<Command<?>>>();
+	private final List<Command<?>> others = new ArrayList<Command<?>>();
+
+	CommandIndex(List<Command<?>> cmds) {
+		this.all = Collections.unmodifiableList(new ArrayList<Command<?>>(cmds));
+		for (int i = 0; i < 128; i++) {
+			byFirstChar.add(new ArrayList<Command<?>>());
+		}
+		for (Command<?> cmd : cmds) {
+			final Pattern2 pattern = getFirstLinePattern(cmd);
+			final RegexFirstChars firstChars = pattern == null ? null : RegexFirstChars.of(pattern);
+			for (int i = 0; i < 128; i++) {
+				if (firstChars == null || firstChars.contains((char) i)) {
+					byFirstChar.get(i).add(cmd);
+				}
+			}
+			if (firstChars == null || firstChars.contains((char) 128)) {
+				others.add(cmd);
+			}
+		}
+	}
+
+	List<Command<?>> getCandidates(StringLocated line) {
+		final String s = line.getTrimmed().getString();
+		if (s.length() == 0) {
+			return all;
+		}
+		final char first = s.charAt(0);
+		if (first < 128) {
+			return byFirstChar.get(first);
+		}
+		return others;
+	}
+
+	private static Pattern2 getFirstLinePattern(Command<?> cmd) {
+		if (cmd instanceof ProtectedCommand) {
+			return getFirstLinePattern(((ProtectedCommand<?>) cmd).getCommand());
+		}
+		if (cmd instanceof CommandDecoratorMultine) {
+			// The joined lines start with the first line
+			return getFirstLinePattern(((CommandDecoratorMultine<?>) cmd).getCommand());
+		}
+		if (cmd instanceof SingleLineCommand2) {
+			return compiled(((SingleLineCommand2<?>) cmd).getFirstLinePattern());
+		}
+		if (cmd instanceof CommandMultilines) {
+			return ((CommandMultilines<?>) cmd).getStartingPattern();
+		}
+		if (cmd instanceof CommandMultilines2) {
+			return compiled(((CommandMultilines2<?>) cmd).getFirstLinePattern());
+		}
+		if (cmd instanceof CommandMultilines3) {
+			return compiled(((CommandMultilines3<?>) cmd).getFirstLinePattern());
+		}
+		if (cmd instanceof CommandMultilinesBracket) {
+			return ((CommandMultilinesBracket<?>) cmd).getStartingPattern();
+		}
+		return null;
+	}
+
+	private static Pattern2 compiled(IRegex regex) {
+		if (regex == null) {
+			return null;
+		}
+		if (regex instanceof RegexComposed) {
+			return ((RegexComposed) regex).getPattern2();
+		}
+		return MyPattern.cmpile(regex.getPattern(), Pattern.CASE_INSENSITIVE);
+	}
+
+	/**
+	 * Tells if one of the lines added to a multilines block from index
+	 * <code>from</code> could complete it. When it cannot, isValid() on the
+	 * whole block would answer OK_PARTIAL.
+	 */
+	static boolean mayEndBlock(Command<?> cmd, List<StringLocated> lines, int from) {
+		for (int i = from; i < lines.size(); i++) {
+			if (mayEndBlock(cmd, lines.get(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean mayEndBlock(Command<?> cmd, StringLocated line) {
+		if (cmd instanceof ProtectedCommand) {
+			return mayEndBlock(((ProtectedCommand<?>) cmd).getCommand(), line);
+		}
+		if (cmd instanceof CommandMultilines) {
+			return ((CommandMultilines<?>) cmd).mayEndBlock(line);
+		}
+		if (cmd instanceof CommandMultilines2) {
+			return ((CommandMultilines2<?>) cmd).mayEndBlock(line);
+		}
+		if (cmd instanceof CommandMultilines3) {
+			return ((CommandMultilines3<?>) cmd).mayEndBlock(line);
+		}
+		return true;
+	}
+
+}
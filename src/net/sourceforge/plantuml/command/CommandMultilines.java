@@ -35,6 +35,7 @@
  */
 package net.sourceforge.plantuml.command;
 
+import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.command.regex.Matcher2;
 import net.sourceforge.plantuml.command.regex.MyPattern;
 import net.sourceforge.plantuml.command.regex.Pattern2;
@@ -78,6 +79,10 @@ public abstract class CommandMultilines<S extends Diagram> implements Command<S>
 		return CommandControl.OK;
 	}
 
+	final boolean mayEndBlock(StringLocated line) {
+		return MyPattern.cmpile(getPatternEnd()).matcher(line.getTrimmed().getString()).matches();
+	}
+
 	protected boolean isCommandForbidden() {
 		return false;
 	}
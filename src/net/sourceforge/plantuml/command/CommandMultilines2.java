@@ -102,6 +102,20 @@ public abstract class CommandMultilines2<S extends Diagram> implements Command<S
 		return CommandControl.OK;
 	}
 
+	final IRegex getFirstLinePattern() {
+		return starting;
+	}
+
+	final boolean mayEndBlock(StringLocated line) {
+		if (syntaxWithFinalBracket()) {
+			return true;
+		}
+		if (strategy.removes(line)) {
+			return false;
+		}
+		return MyPattern.cmpile(getPatternEnd()).matcher(line.getTrimmed().getString()).matches();
+	}
+
 	public final CommandExecutionResult execute(S system, BlocLines lines) {
 		lines = lines.cleanList(strategy);
 		if (syntaxWithFinalBracket()) {
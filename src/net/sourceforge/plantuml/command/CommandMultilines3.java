@@ -87,6 +87,17 @@ public abstract class CommandMultilines3<S extends Diagram> implements Command<S
 		return CommandControl.OK;
 	}
 
+	final IRegex getFirstLinePattern() {
+		return starting;
+	}
+
+	final boolean mayEndBlock(StringLocated line) {
+		if (strategy.removes(line)) {
+			return false;
+		}
+		return getPatternEnd2().match(line.getTrimmed());
+	}
+
 	public final CommandExecutionResult execute(S system, BlocLines lines) {
 		lines = lines.cleanList(strategy);
 		return executeNow(system, lines);
@@ -49,6 +49,10 @@ public enum MultilinesStrategy {
 		}
 	}
 
+	boolean removes(StringLocated s) {
+		return this == REMOVE_STARTING_QUOTE && hasStartingQuote(s);
+	}
+
 	private void filterQuote(List<StringLocated> lines) {
 		for (final Iterator<StringLocated> it = lines.iterator(); it.hasNext();) {
 			final StringLocated s = it.next();
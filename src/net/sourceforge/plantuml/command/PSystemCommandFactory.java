@@ -39,6 +39,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.plantuml.AbstractPSystem;
 import net.sourceforge.plantuml.ErrorUml;
@@ -61,7 +63,9 @@ import net.sourceforge.plantuml.version.IteratorCounter2;
 
 public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 
-	private List<Command> cmds;
+	private static final ConcurrentMap<List<Object>, CommandIndex> INDEXES = new ConcurrentHashMap<List<Object>, CommandIndex>();
+
+	private CommandIndex index;
 
 	protected PSystemCommandFactory() {
 		this(DiagramType.UML);
@@ -139,6 +143,55 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 
 	}
 
+	/**
+	 * Checks the syntax of the beginning of a source without executing anything.
+	 * 
+	 * Since the dispatch of lines to commands does not depend on the diagram
+	 * being built, a line recognized by no command means that createSystem() will
+	 * fail on this source.
+	 * 
+	 * @return false if one of the first <code>maxLines</code> lines is recognized
+	 *         by no command
+	 */
+	final public boolean isSyntaxOk(UmlSource source, int maxLines) {
+		final IteratorCounter2 it = source.iterator2();
+		if (it.hasNext() == false || StartUtils.isArobaseStartDiagram(it.next().getString()) == false) {
+			return true;
+		}
+		while (it.hasNext() && it.currentNum() < maxLines) {
+			if (StartUtils.isArobaseEndDiagram(it.peek().getString())) {
+				return true;
+			}
+			if (getCandidate(it) == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// The index is shared by all the instances of a factory class with the same
+	// diagram type, so commands must not keep a reference to the factory or to
+	// its skin: CommandNewpage gets them from the diagram it runs on.
+	private CommandIndex getIndex() {
+		if (index == null) {
+			final List<Object> key = Arrays.<Object>asList(getClass(), getDiagramType());
+			CommandIndex result = INDEXES.get(key);
+			if (result == null) {
+				final List<Command<?>> cmds = new ArrayList<Command<?>>();
+				for (Command cmd : createCommands()) {
+					cmds.add(cmd);
+				}
+				result = new CommandIndex(cmds);
+				final CommandIndex previous = INDEXES.putIfAbsent(key, result);
+				if (previous != null) {
+					result = previous;
+				}
+			}
+			index = result;
+		}
+		return index;
+	}
+
 	static class Step {
 		final Command command;
 		final BlocLines blocLines;
@@ -152,10 +205,7 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 
 	private Step getCandidate(final IteratorCounter2 it) {
 		final BlocLines single = BlocLines.single(it.peek());
-		if (cmds == null) {
-			cmds = createCommands();
-		}
-		for (Command cmd : cmds) {
+		for (Command cmd : getIndex().getCandidates(it.peek())) {
 			final CommandControl result = cmd.isValid(single);
 			if (result == CommandControl.OK) {
 				it.next();
@@ -176,16 +226,23 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 	}
 
 	private BlocLines isMultilineCommandOk(IteratorCounter2 it, Command cmd) {
-		BlocLines lines = new BlocLines();
+		final List<StringLocated> lines = new ArrayList<StringLocated>();
 		int nb = 0;
 		while (it.hasNext()) {
-			lines = addOneSingleLineManageEmbedded2(it, lines);
-			final CommandControl result = cmd.isValid(lines);
+			final int from = lines.size();
+			addOneSingleLineManageEmbedded2(it, lines);
+			final CommandControl result;
+			if (from > 0 && CommandIndex.mayEndBlock(cmd, lines, from) == false) {
+				// Avoid validating again the whole block
+				result = CommandControl.OK_PARTIAL;
+			} else {
+				result = cmd.isValid(BlocLines.from(new ArrayList<StringLocated>(lines)));
+			}
 			if (result == CommandControl.NOT_OK) {
 				return null;
 			}
 			if (result == CommandControl.OK) {
-				return lines;
+				return BlocLines.from(lines);
 			}
 			nb++;
 			if (cmd instanceof CommandDecoratorMultine && nb > ((CommandDecoratorMultine) cmd).getNbMaxLines()) {
@@ -195,19 +252,18 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 		return null;
 	}
 
-	private BlocLines addOneSingleLineManageEmbedded2(IteratorCounter2 it, BlocLines lines) {
+	private void addOneSingleLineManageEmbedded2(IteratorCounter2 it, List<StringLocated> lines) {
 		final StringLocated linetoBeAdded = it.next();
-		lines = lines.add(linetoBeAdded);
+		lines.add(linetoBeAdded);
 		if (linetoBeAdded.getTrimmed().getString().equals("{{")) {
 			while (it.hasNext()) {
 				final StringLocated s = it.next();
-				lines = lines.add(s);
+				lines.add(s);
 				if (s.getTrimmed().getString().equals("}}")) {
-					return lines;
+					return;
 				}
 			}
 		}
-		return lines;
 	}
 
 	// -----------------------------------
@@ -73,6 +73,10 @@ public class ProtectedCommand<S extends Diagram> implements Command<S> {
 		return cmd.isValid(lines);
 	}
 
+	final Command<S> getCommand() {
+		return cmd;
+	}
+
 	public String[] getDescription() {
 		return cmd.getDescription();
 	}
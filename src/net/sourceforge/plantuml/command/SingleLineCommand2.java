@@ -68,6 +68,10 @@ public abstract class SingleLineCommand2<S extends Diagram> implements Command<S
 		return new String[] { pattern.getClass().getName() };
 	}
 
+	final IRegex getFirstLinePattern() {
+		return doTrim ? pattern : null;
+	}
+
 	private String myTrim(StringLocated s) {
 		if (doTrim) {
 			return s.getTrimmed().getString();
@@ -37,6 +37,7 @@ package net.sourceforge.plantuml.command.regex;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -82,6 +83,25 @@ public class Matcher2 {
 		addTime(id, duration);
 	}
 
+	private static final AtomicLong patternCacheHits = new AtomicLong();
+	private static final AtomicLong patternCacheMisses = new AtomicLong();
+
+	static void countPatternCache(boolean hit) {
+		if (hit) {
+			patternCacheHits.incrementAndGet();
+		} else {
+			patternCacheMisses.incrementAndGet();
+		}
+	}
+
+	public static long getPatternCacheHits() {
+		return patternCacheHits.get();
+	}
+
+	public static long getPatternCacheMisses() {
+		return patternCacheMisses.get();
+	}
+
 	private static final Map<String, Long> durations = new HashMap<String, Long>();
 	private static long printed;
 
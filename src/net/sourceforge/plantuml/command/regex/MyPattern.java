@@ -35,29 +35,42 @@
  */
 package net.sourceforge.plantuml.command.regex;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 // Splitter.java to be finished
 public abstract class MyPattern {
 
+	// Compiled patterns by flags and source, shared by all threads
+	private static final int CACHE_MAX_SIZE = 4096;
+	private static final ConcurrentMap<String, Pattern2> cache = new ConcurrentHashMap<String, Pattern2>();
+
 	public static Pattern2 cmpile(String p) {
-		p = transformAndCheck(p);
-		return new Pattern2(Pattern.compile(p));
+		return cmpile(p, 0);
 	}
 
 	public static Pattern2 cmpileNockeck(String p) {
-		p = transform(p);
-		return new Pattern2(Pattern.compile(p));
+		return cmpile(p, 0);
 	}
 
 	public static Pattern2 cmpile(String p, int type) {
-		p = transformAndCheck(p);
-		return new Pattern2(Pattern.compile(p, type));
+		final String key = type + " " + p;
+		Pattern2 result = cache.get(key);
+		Matcher2.countPatternCache(result != null);
+		if (result == null) {
+			result = new Pattern2(Pattern.compile(transformAndCheck(p), type));
+			if (cache.size() >= CACHE_MAX_SIZE) {
+				// Patterns built from diagram text should not fill the memory
+				cache.clear();
+			}
+			cache.put(key, result);
+		}
+		return result;
 	}
 
 	public static Pattern2 cmpileNockeck(String p, int type) {
-		p = transform(p);
-		return new Pattern2(Pattern.compile(p, type));
+		return cmpile(p, type);
 	}
 
 	private static String transformAndCheck(String p) {
@@ -60,7 +60,7 @@ public abstract class RegexComposed implements IRegex {
 
 	private final AtomicReference<Pattern2> fullCached = new AtomicReference<Pattern2>();
 
-	private Pattern2 getPattern2() {
+	public final Pattern2 getPattern2() {
 		Pattern2 result = fullCached.get();
 		if (result == null) {
 			final String fullSlow = getFullSlow();
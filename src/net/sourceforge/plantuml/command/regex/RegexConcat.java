@@ -62,6 +62,8 @@ public final class RegexConcat extends RegexComposed implements IRegex {
 		}
 		Log.info("Regex total/invoked/compiled " + cache.size() + "/" + nbInvoked + "/" + nbCompiled);
 		Log.info("Matches created " + nbCreateMatches.get());
+		Log.info("Pattern cache hits/misses " + Matcher2.getPatternCacheHits() + "/"
+				+ Matcher2.getPatternCacheMisses());
 	}
 
 	public RegexConcat(IRegex... partials) {
@@ -0,0 +1,473 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.command.regex;
+
+/**
+ * The characters that can start a string matched by an anchored regex.
+ * 
+ * This is a conservative analysis of the Java regex syntax: any construct that
+ * is not understood (lookaround, back reference, unicode properties...) makes
+ * the whole regex "can start with anything", and letters are always accepted
+ * in both cases.
+ */
+public final class RegexFirstChars {
+
+	// Bits for chars 0..63 and 64..127
+	private long low;
+	private long high;
+	// Any char above 127
+	private boolean others;
+	private boolean nullable;
+
+	private RegexFirstChars() {
+	}
+
+	/**
+	 * The analysis runs on the compiled source, where the <code>%s</code>,
+	 * <code>%q</code> and <code>%g</code> shortcuts of MyPattern are already
+	 * expanded.
+	 * 
+	 * @return null when a match may start with any character, or when the pattern
+	 *         is not anchored with a leading ^
+	 */
+	public static RegexFirstChars of(Pattern2 pattern) {
+		try {
+			final Parser parser = new Parser(pattern.pattern());
+			final RegexFirstChars result = parser.parseTop();
+			if (result == null || result.nullable) {
+				return null;
+			}
+			result.addOtherCases();
+			return result;
+		} catch (UnsupportedOperationException e) {
+			return null;
+		} catch (IndexOutOfBoundsException e) {
+			return null;
+		}
+	}
+
+	public boolean contains(char c) {
+		if (c < 64) {
+			return (low & (1L << c)) != 0;
+		}
+		if (c < 128) {
+			return (high & (1L << (c - 64))) != 0;
+		}
+		return others;
+	}
+
+	private void add(char c) {
+		if (c < 64) {
+			low |= 1L << c;
+		} else if (c < 128) {
+			high |= 1L << (c - 64);
+		} else {
+			others = true;
+		}
+	}
+
+	private void addRange(char from, char to) {
+		for (int c = from; c <= to && c < 128; c++) {
+			add((char) c);
+		}
+		if (to >= 128) {
+			others = true;
+		}
+	}
+
+	private void addAll(RegexFirstChars other) {
+		low |= other.low;
+		high |= other.high;
+		others |= other.others;
+	}
+
+	private void complement() {
+		low = ~low;
+		high = ~high;
+		others = true;
+	}
+
+	private void addOtherCases() {
+		for (char c = 'a'; c <= 'z'; c++) {
+			final char upper = (char) (c - 'a' + 'A');
+			if (contains(c) || contains(upper)) {
+				add(c);
+				add(upper);
+				// Unicode case folding maps a few other chars to ASCII letters
+				others = true;
+			}
+		}
+	}
+
+	private static RegexFirstChars empty(boolean nullable) {
+		final RegexFirstChars result = new RegexFirstChars();
+		result.nullable = nullable;
+		return result;
+	}
+
+	private static RegexFirstChars any() {
+		final RegexFirstChars result = new RegexFirstChars();
+		result.complement();
+		return result;
+	}
+
+	private static RegexFirstChars single(char c) {
+		final RegexFirstChars result = new RegexFirstChars();
+		result.add(c);
+		return result;
+	}
+
+	private static RegexFirstChars escape(char e) {
+		final RegexFirstChars result = new RegexFirstChars();
+		switch (Character.toLowerCase(e)) {
+		case 's':
+			result.add(' ');
+			result.addRange('\t', '\r');
+			break;
+		case 'd':
+			result.addRange('0', '9');
+			break;
+		case 'w':
+			result.addRange('a', 'z');
+			result.addRange('A', 'Z');
+			result.addRange('0', '9');
+			result.add('_');
+			break;
+		default:
+			throw new IllegalArgumentException();
+		}
+		if (Character.isUpperCase(e)) {
+			result.complement();
+		}
+		return result;
+	}
+
+	static class Parser {
+
+		private final String p;
+		private int pos;
+
+		Parser(String p) {
+			this.p = p;
+		}
+
+		RegexFirstChars parseTop() {
+			// Only "^..." and "(?i)^..." are known to match at the start of the line
+			while (p.startsWith("(?", pos) && p.indexOf(')', pos) != -1
+					&& isFlags(p.substring(pos + 2, p.indexOf(')', pos)))) {
+				pos = p.indexOf(')', pos) + 1;
+			}
+			if (p.startsWith("^", pos) == false) {
+				return null;
+			}
+			final RegexFirstChars result = parseSequence();
+			if (pos != p.length()) {
+				// Top level alternative, or unbalanced parenthesis
+				return null;
+			}
+			return result;
+		}
+
+		private boolean isFlags(String s) {
+			for (int i = 0; i < s.length(); i++) {
+				final char c = s.charAt(i);
+				if (c != 'i' && c != 'u' && c != '-') {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private RegexFirstChars parseAlternation() {
+			final RegexFirstChars result = empty(false);
+			while (true) {
+				final RegexFirstChars seq = parseSequence();
+				result.addAll(seq);
+				result.nullable |= seq.nullable;
+				if (pos < p.length() && p.charAt(pos) == '|') {
+					pos++;
+				} else {
+					return result;
+				}
+			}
+		}
+
+		private RegexFirstChars parseSequence() {
+			final RegexFirstChars result = empty(true);
+			while (pos < p.length() && p.charAt(pos) != '|' && p.charAt(pos) != ')') {
+				final RegexFirstChars term = parseTerm();
+				if (result.nullable) {
+					result.addAll(term);
+					result.nullable = term.nullable;
+				}
+			}
+			return result;
+		}
+
+		private RegexFirstChars parseTerm() {
+			final RegexFirstChars atom = parseAtom();
+			if (pos < p.length()) {
+				final char q = p.charAt(pos);
+				if (q == '?' || q == '*') {
+					pos++;
+					atom.nullable = true;
+				} else if (q == '+') {
+					pos++;
+				} else if (q == '{') {
+					final int end = p.indexOf('}', pos);
+					if (end == -1) {
+						throw new UnsupportedOperationException();
+					}
+					final String min = p.substring(pos + 1, end).split(",", -1)[0];
+					if (min.matches("\\d+") == false) {
+						throw new UnsupportedOperationException();
+					}
+					if (Integer.parseInt(min) == 0) {
+						atom.nullable = true;
+					}
+					pos = end + 1;
+				} else {
+					return atom;
+				}
+				// Reluctant or possessive quantifier
+				if (pos < p.length() && (p.charAt(pos) == '?' || p.charAt(pos) == '+')) {
+					pos++;
+				}
+			}
+			return atom;
+		}
+
+		private RegexFirstChars parseAtom() {
+			final char c = p.charAt(pos++);
+			switch (c) {
+			case '(':
+				return parseGroup();
+			case '[':
+				return parseClass();
+			case '\\':
+				return parseEscape();
+			case '.':
+				return any();
+			case '^':
+			case '$':
+				return empty(true);
+			case '*':
+			case '+':
+			case '?':
+			case '{':
+				throw new UnsupportedOperationException();
+			default:
+				return single(c);
+			}
+		}
+
+		private RegexFirstChars parseGroup() {
+			if (p.startsWith("?", pos)) {
+				pos++;
+				if (p.startsWith(":", pos)) {
+					pos++;
+				} else if (p.startsWith("<", pos) && pos + 1 < p.length()
+						&& Character.isLetter(p.charAt(pos + 1))) {
+					// Named group
+					final int end = p.indexOf('>', pos);
+					if (end == -1) {
+						throw new UnsupportedOperationException();
+					}
+					pos = end + 1;
+				} else {
+					int end = pos;
+					while (end < p.length() && isFlags(p.substring(end, end + 1))) {
+						end++;
+					}
+					if (end == pos || end == p.length()) {
+						// Lookahead, lookbehind, atomic group...
+						throw new UnsupportedOperationException();
+					}
+					if (p.charAt(end) == ')') {
+						// Inline flags
+						pos = end + 1;
+						return empty(true);
+					}
+					if (p.charAt(end) != ':') {
+						throw new UnsupportedOperationException();
+					}
+					pos = end + 1;
+				}
+			}
+			final RegexFirstChars result = parseAlternation();
+			if (pos >= p.length() || p.charAt(pos) != ')') {
+				throw new UnsupportedOperationException();
+			}
+			pos++;
+			return result;
+		}
+
+		private RegexFirstChars parseEscape() {
+			final char e = p.charAt(pos++);
+			switch (e) {
+			case 's':
+			case 'S':
+			case 'd':
+			case 'D':
+			case 'w':
+			case 'W':
+				return escape(e);
+			case 'b':
+			case 'B':
+			case 'A':
+			case 'G':
+			case 'z':
+			case 'Z':
+				return empty(true);
+			case 'p':
+			case 'P':
+				skipPropertyName();
+				return any();
+			default:
+				return single(escapedChar(e));
+			}
+		}
+
+		// Unicode property or POSIX class: \pL or \p{Alpha}
+		private void skipPropertyName() {
+			if (p.startsWith("{", pos)) {
+				final int end = p.indexOf('}', pos);
+				if (end == -1) {
+					throw new UnsupportedOperationException();
+				}
+				pos = end + 1;
+			} else {
+				pos++;
+			}
+		}
+
+		private char escapedChar(char e) {
+			switch (e) {
+			case 't':
+				return '\t';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 'f':
+				return '\f';
+			case 'a':
+				return '\u0007';
+			case 'e':
+				return '\u001B';
+			case 'x':
+				if (pos + 2 <= p.length() && p.substring(pos, pos + 2).matches("[0-9a-fA-F]{2}")) {
+					pos += 2;
+					return (char) Integer.parseInt(p.substring(pos - 2, pos), 16);
+				}
+				throw new UnsupportedOperationException();
+			case 'u':
+				if (pos + 4 <= p.length() && p.substring(pos, pos + 4).matches("[0-9a-fA-F]{4}")) {
+					pos += 4;
+					return (char) Integer.parseInt(p.substring(pos - 4, pos), 16);
+				}
+				throw new UnsupportedOperationException();
+			}
+			if (Character.isLetterOrDigit(e)) {
+				// Back reference, unicode property, quote...
+				throw new UnsupportedOperationException();
+			}
+			return e;
+		}
+
+		private RegexFirstChars parseClass() {
+			final RegexFirstChars result = empty(false);
+			boolean withProperty = false;
+			final boolean negate = p.startsWith("^", pos);
+			if (negate) {
+				pos++;
+			}
+			if (p.startsWith("]", pos)) {
+				throw new UnsupportedOperationException();
+			}
+			while (true) {
+				if (pos >= p.length()) {
+					throw new UnsupportedOperationException();
+				}
+				final char c = p.charAt(pos++);
+				if (c == ']') {
+					break;
+				}
+				if (c == '[' || (c == '&' && p.startsWith("&", pos))) {
+					throw new UnsupportedOperationException();
+				}
+				final char from;
+				if (c == '\\') {
+					final char e = p.charAt(pos++);
+					if ("sSdDwW".indexOf(e) != -1) {
+						result.addAll(escape(e));
+						continue;
+					}
+					if (e == 'p' || e == 'P') {
+						skipPropertyName();
+						withProperty = true;
+						continue;
+					}
+					from = escapedChar(e);
+				} else {
+					from = c;
+				}
+				if (p.startsWith("-", pos) && pos + 1 < p.length() && p.charAt(pos + 1) != ']') {
+					pos++;
+					char to = p.charAt(pos++);
+					if (to == '\\') {
+						to = escapedChar(p.charAt(pos++));
+					} else if (to == '[') {
+						throw new UnsupportedOperationException();
+					}
+					result.addRange(from, to);
+				} else {
+					result.add(from);
+				}
+			}
+			if (withProperty) {
+				// Chars of the property are not known
+				return any();
+			}
+			if (negate) {
+				result.complement();
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -35,10 +35,13 @@
  */
 package net.sourceforge.plantuml.creole.command;
 
+import net.sourceforge.plantuml.command.regex.Pattern2;
 import net.sourceforge.plantuml.creole.legacy.StripeSimple;
 
 public interface Command {
 
+	public Pattern2 getPattern();
+
 	public int matchingSize(String line);
 
 	public String executeAndGetRemaining(String line, StripeSimple stripe);
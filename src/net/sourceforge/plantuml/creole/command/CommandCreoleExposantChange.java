@@ -63,6 +63,10 @@ public class CommandCreoleExposantChange implements Command {
 	// "(.+))$", style);
 	// }
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
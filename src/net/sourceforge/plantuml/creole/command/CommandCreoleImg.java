@@ -55,6 +55,10 @@ public class CommandCreoleImg implements Command {
 		return new CommandCreoleImg("^(?i)(" + Splitter.imgPatternNoSrcColon + ")");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
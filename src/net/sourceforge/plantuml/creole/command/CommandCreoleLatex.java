@@ -54,6 +54,10 @@ public class CommandCreoleLatex implements Command {
 		return new CommandCreoleLatex("^(?i)(" + Splitter.latexPattern + ")");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
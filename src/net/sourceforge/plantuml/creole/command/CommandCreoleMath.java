@@ -54,6 +54,10 @@ public class CommandCreoleMath implements Command {
 		return new CommandCreoleMath("^(?i)(" + Splitter.mathPattern + ")");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
@@ -55,6 +55,10 @@ public class CommandCreoleMonospaced implements Command {
 		this.monospacedFamily = monospacedFamily;
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
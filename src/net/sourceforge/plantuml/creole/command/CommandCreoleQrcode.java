@@ -54,6 +54,10 @@ public class CommandCreoleQrcode implements Command {
 		return new CommandCreoleQrcode("^(?i)(" + Splitter.qrcodePattern + ")");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
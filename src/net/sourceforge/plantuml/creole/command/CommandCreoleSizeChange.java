@@ -59,6 +59,10 @@ public class CommandCreoleSizeChange implements Command {
 
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
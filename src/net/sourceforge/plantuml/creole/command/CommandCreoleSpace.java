@@ -52,6 +52,10 @@ public class CommandCreoleSpace implements Command {
 		return new CommandCreoleSpace("^(?i)(\\<space:(\\d+)/?\\>)");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
@@ -58,6 +58,10 @@ public class CommandCreoleSprite implements Command {
 		return new CommandCreoleSprite(colorSet, "^(?i)(" + Splitter.spritePattern2 + ")");
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
@@ -93,6 +93,10 @@ public class CommandCreoleStyle implements Command {
 		return line.substring(m.group(1).length());
 	}
 
+	public Pattern2 getPattern() {
+		return p;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = p.matcher(line);
 		if (m.find() == false) {
@@ -78,6 +78,10 @@ public class CommandCreoleStyle2 implements Command {
 
 	}
 
+	public Pattern2 getPattern() {
+		return p;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = p.matcher(line);
 		if (m.find() == false) {
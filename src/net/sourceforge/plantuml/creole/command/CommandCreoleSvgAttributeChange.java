@@ -61,6 +61,10 @@ public class CommandCreoleSvgAttributeChange implements Command {
 		this.pattern = MyPattern.cmpile(p);
 	}
 
+	public Pattern2 getPattern() {
+		return pattern;
+	}
+
 	public int matchingSize(String line) {
 		final Matcher2 m = pattern.matcher(line);
 		if (m.find() == false) {
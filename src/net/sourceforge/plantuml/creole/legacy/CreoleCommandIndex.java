@@ -0,0 +1,123 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.creole.legacy;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.plantuml.command.regex.Pattern2;
+import net.sourceforge.plantuml.command.regex.RegexFirstChars;
+import net.sourceforge.plantuml.creole.command.Command;
+
+/**
+ * Tells which creole commands may match at a given position of a line, from
+ * the character found there.
+ * 
+ * All creole patterns are anchored, so most characters of a line cannot start
+ * any command and no regex has to be tried on them.
+ */
+final class CreoleCommandIndex {
+
+	// First characters of each pattern, shared by all stripes
+	private static final ConcurrentMap<String, boolean[]> firstChars = new ConcurrentHashMap<String, boolean[]>();
+
+	private final List<Command> commands;
+	private final boolean indexed;
+	// Bit i is set if the i-th command may match, for chars 0..127 then above
+	private final long candidates[] = new long[129];
+
+	CreoleCommandIndex(List<Command> commands) {
+		this.commands = commands;
+		this.indexed = commands.size() <= 64;
+		if (indexed == false) {
+			return;
+		}
+		for (int i = 0; i < commands.size(); i++) {
+			final boolean[] starts = getFirstChars(commands.get(i).getPattern());
+			for (int c = 0; c < candidates.length; c++) {
+				if (starts[c]) {
+					candidates[c] |= 1L << i;
+				}
+			}
+		}
+	}
+
+	private static boolean[] getFirstChars(Pattern2 pattern) {
+		boolean[] result = firstChars.get(pattern.pattern());
+		if (result == null) {
+			result = new boolean[129];
+			final RegexFirstChars chars = RegexFirstChars.of(pattern);
+			for (int c = 0; c < result.length; c++) {
+				result[c] = chars == null || chars.contains((char) c);
+			}
+			firstChars.put(pattern.pattern(), result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the first command matching the line at this position, or
+	 *         <code>null</code>
+	 */
+	Command searchCommand(String line, int pos) {
+		if (indexed == false) {
+			return searchCommand(commands, line.substring(pos));
+		}
+		final char c = line.charAt(pos);
+		long mask = candidates[c < 128 ? c : 128];
+		if (mask == 0) {
+			return null;
+		}
+		final String remaining = line.substring(pos);
+		for (int i = 0; mask != 0; i++, mask >>>= 1) {
+			if ((mask & 1) != 0 && commands.get(i).matchingSize(remaining) != 0) {
+				return commands.get(i);
+			}
+		}
+		return null;
+	}
+
+	private static Command searchCommand(List<Command> commands, String line) {
+		for (Command cmd : commands) {
+			if (cmd.matchingSize(line) != 0) {
+				return cmd;
+			}
+		}
+		return null;
+	}
+
+}
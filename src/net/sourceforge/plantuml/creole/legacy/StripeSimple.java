@@ -90,6 +90,7 @@ public class StripeSimple implements Stripe {
 
 	final private List<Atom> atoms = new ArrayList<Atom>();
 	final private List<Command> commands = new ArrayList<Command>();
+	private CreoleCommandIndex index;
 	private HorizontalAlignment align = HorizontalAlignment.LEFT;
 
 	public void setCellAlignment(HorizontalAlignment align) {
@@ -264,15 +265,20 @@ public class StripeSimple implements Stripe {
 
 	private void modifyStripe(String line) {
 		final StringBuilder pending = new StringBuilder();
+		if (index == null) {
+			index = new CreoleCommandIndex(commands);
+		}
 
-		while (line.length() > 0) {
-			final Command cmd = searchCommand(line);
+		int pos = 0;
+		while (pos < line.length()) {
+			final Command cmd = index.searchCommand(line, pos);
 			if (cmd == null) {
-				pending.append(line.charAt(0));
-				line = line.substring(1);
+				pending.append(line.charAt(pos));
+				pos++;
 			} else {
 				addPending(pending);
-				line = cmd.executeAndGetRemaining(line, this);
+				line = cmd.executeAndGetRemaining(line.substring(pos), this);
+				pos = 0;
 			}
 		}
 		addPending(pending);
@@ -286,14 +292,4 @@ public class StripeSimple implements Stripe {
 		pending.setLength(0);
 	}
 
-	private Command searchCommand(String line) {
-		for (Command cmd : commands) {
-			final int i = cmd.matchingSize(line);
-			if (i != 0) {
-				return cmd;
-			}
-		}
-		return null;
-	}
-
 }
@@ -67,14 +67,7 @@ public class GroupRoot implements IGroup {
 	}
 
 	public Collection<ILeaf> getLeafsDirect() {
-		final List<ILeaf> result = new ArrayList<ILeaf>();
-		for (ILeaf ent : entityFactory.leafs()) {
-			if (ent.getParentContainer() == this) {
-				result.add(ent);
-			}
-		}
-		return Collections.unmodifiableCollection(result);
-
+		return entityFactory.getLeafsDirect(this);
 	}
 
 	@Override
@@ -148,19 +141,13 @@ public class GroupRoot implements IGroup {
 	}
 
 	public Collection<IGroup> getChildren() {
+		if (entityFactory.namespaceSeparator.V1972() == false) {
+			return entityFactory.getChildren(this);
+		}
 		final List<IGroup> result = new ArrayList<IGroup>();
-		if (entityFactory.namespaceSeparator.V1972()) {
-			for (IGroup ent : entityFactory.groups()) {
-				if (ent.getIdent().size() == 1) {
-					result.add(ent);
-				}
-			}
-
-		} else {
-			for (IGroup ent : entityFactory.groups()) {
-				if (ent.getParentContainer() == this) {
-					result.add(ent);
-				}
+		for (IGroup ent : entityFactory.groups()) {
+			if (ent.getIdent().size() == 1) {
+				result.add(ent);
 			}
 		}
 		return Collections.unmodifiableCollection(result);
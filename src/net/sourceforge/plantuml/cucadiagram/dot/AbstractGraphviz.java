@@ -108,13 +108,24 @@ abstract class AbstractGraphviz implements Graphviz {
 			throw new IllegalStateException();
 		}
 		final String cmd[] = getCommandLine();
-		ProcessRunner p = null;
+		String error = null;
+		String out = null;
 		ProcessState state = null;
 		try {
 			Log.info("Starting Graphviz process " + Arrays.asList(cmd));
 			Log.info("DotString size: " + dotString.length());
-			p = new ProcessRunner(cmd);
-			state = p.run(dotString.getBytes(), os);
+			if (DotProcessPool.isEnabledFor(getType())) {
+				final StringBuilder poolError = new StringBuilder();
+				state = DotProcessPool.getInstance(cmd).run(dotString.getBytes(), os,
+						OptionFlags.getInstance().getTimeoutMs(), poolError);
+				error = poolError.toString();
+				out = "";
+			} else {
+				final ProcessRunner p = new ProcessRunner(cmd);
+				state = p.run(dotString.getBytes(), os);
+				error = p.getError();
+				out = p.getOut();
+			}
 			// if (state == ProcessState.TERMINATED_OK) {
 			// result = true;
 			// }
@@ -129,16 +140,16 @@ abstract class AbstractGraphviz implements Graphviz {
 		} finally {
 			Log.info("Ending Graphviz process");
 		}
-		if (OptionFlags.getInstance().isCheckDotError() && p != null && p.getError().length() > 0) {
-			Log.error("GraphViz error stream : " + p.getError());
+		if (OptionFlags.getInstance().isCheckDotError() && error != null && error.length() > 0) {
+			Log.error("GraphViz error stream : " + error);
 			if (OptionFlags.getInstance().isCheckDotError()) {
-				throw new IllegalStateException("Dot error " + p.getError());
+				throw new IllegalStateException("Dot error " + error);
 			}
 		}
-		if (OptionFlags.getInstance().isCheckDotError() && p != null && p.getOut().length() > 0) {
-			Log.error("GraphViz out stream : " + p.getOut());
+		if (OptionFlags.getInstance().isCheckDotError() && out != null && out.length() > 0) {
+			Log.error("GraphViz out stream : " + out);
 			if (OptionFlags.getInstance().isCheckDotError()) {
-				throw new IllegalStateException("Dot out " + p.getOut());
+				throw new IllegalStateException("Dot out " + out);
 			}
 		}
 		return state;
@@ -0,0 +1,161 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.cucadiagram.dot;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A long-lived Graphviz process that renders several graphs, one after the
+ * other. Each graph is written to stdin, and its SVG is read back from stdout up
+ * to the closing svg tag.
+ */
+public class DotProcess {
+
+	private static final byte[] END_OF_SVG = "</svg>".getBytes();
+
+	private final Process process;
+	private final OutputStream stdin;
+	private final InputStream stdout;
+	private final Thread errorThread;
+
+	// Filled by errorThread, replaced for each graph: guarded by this
+	private StringBuilder error = new StringBuilder();
+
+	private int nbJobs;
+	private volatile boolean broken;
+
+	public DotProcess(String[] cmd) throws IOException {
+		this.process = Runtime.getRuntime().exec(cmd);
+		this.stdin = process.getOutputStream();
+		this.stdout = new BufferedInputStream(process.getInputStream());
+		this.errorThread = new Thread("DotProcessError") {
+			@Override
+			public void run() {
+				drainError(process.getErrorStream());
+			}
+		};
+		errorThread.setDaemon(true);
+		errorThread.start();
+	}
+
+	private void drainError(InputStream is) {
+		try {
+			int read;
+			while ((read = is.read()) != -1) {
+				synchronized (this) {
+					error.append((char) read);
+				}
+			}
+		} catch (IOException e) {
+			// The process has been destroyed
+		}
+	}
+
+	public ProcessState run(byte[] in, OutputStream redirection) {
+		synchronized (this) {
+			error = new StringBuilder();
+		}
+		try {
+			stdin.write(in);
+			// Graphviz reads its input line by line
+			stdin.write('\n');
+			stdin.flush();
+			copyOneSvg(redirection);
+			nbJobs++;
+			return ProcessState.TERMINATED_OK();
+		} catch (IOException e) {
+			broken = true;
+			return ProcessState.IO_EXCEPTION2(e);
+		}
+	}
+
+	private void copyOneSvg(OutputStream redirection) throws IOException {
+		boolean started = false;
+		int matched = 0;
+		while (true) {
+			final int read = stdout.read();
+			if (read == -1) {
+				throw new EOFException("Graphviz process has ended");
+			}
+			// Skip the end of line left after the previous svg
+			if (started == false && Character.isWhitespace(read)) {
+				continue;
+			}
+			started = true;
+			redirection.write(read);
+			if (read == END_OF_SVG[matched]) {
+				matched++;
+				if (matched == END_OF_SVG.length) {
+					return;
+				}
+			} else {
+				matched = read == END_OF_SVG[0] ? 1 : 0;
+			}
+		}
+	}
+
+	public void destroy() {
+		broken = true;
+		process.destroy();
+	}
+
+	public final String getError() {
+		if (broken) {
+			// The process is dead: wait for the end of its stderr
+			try {
+				errorThread.join(1000L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		synchronized (this) {
+			return error.toString();
+		}
+	}
+
+	public final int getNbJobs() {
+		return nbJobs;
+	}
+
+	public final boolean isBroken() {
+		return broken;
+	}
+
+}
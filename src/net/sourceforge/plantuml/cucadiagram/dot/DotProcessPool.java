@@ -0,0 +1,184 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.cucadiagram.dot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.OptionFlags;
+
+/**
+ * Pool of long-lived Graphviz processes, so that we do not pay fork/exec and dot
+ * startup for each diagram.
+ * 
+ * At most <code>size</code> processes are running for a given command line.
+ * A process is recycled after {@link #MAX_JOBS_PER_PROCESS} graphs, or as soon
+ * as it crashes or times out.
+ */
+public class DotProcessPool {
+
+	public static final int MAX_JOBS_PER_PROCESS = 500;
+
+	private static final Map<String, DotProcessPool> pools = new HashMap<String, DotProcessPool>();
+
+	private static final ScheduledExecutorService watchdog = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r, "DotProcessPoolWatchdog");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private final String[] cmd;
+	private final Semaphore permits;
+	private final int maxJobs;
+	private final BlockingQueue<DotProcess> idle = new LinkedBlockingQueue<DotProcess>();
+
+	DotProcessPool(String[] cmd, int size, int maxJobs) {
+		this.cmd = cmd;
+		this.permits = new Semaphore(size, true);
+		this.maxJobs = maxJobs;
+	}
+
+	/**
+	 * Only svg output can be framed, so other formats still fork one process per
+	 * diagram.
+	 */
+	public static boolean isEnabledFor(List<String> type) {
+		return OptionFlags.getInstance().getDotPoolSize() > 0 && type.equals(Arrays.asList("svg"));
+	}
+
+	public static synchronized DotProcessPool getInstance(String[] cmd) {
+		final String key = Arrays.asList(cmd).toString();
+		DotProcessPool result = pools.get(key);
+		if (result == null) {
+			result = new DotProcessPool(cmd, OptionFlags.getInstance().getDotPoolSize(), MAX_JOBS_PER_PROCESS);
+			pools.put(key, result);
+		}
+		return result;
+	}
+
+	public static synchronized void shutdownAll() {
+		for (DotProcessPool pool : pools.values()) {
+			pool.shutdown();
+		}
+		pools.clear();
+	}
+
+	public ProcessState run(byte[] in, OutputStream redirection, long timeoutMs, StringBuilder error) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return ProcessState.TIMEOUT();
+		}
+		DotProcess process = null;
+		try {
+			process = idle.poll();
+			if (process == null) {
+				Log.info("Starting pooled Graphviz process " + Arrays.asList(cmd));
+				process = new DotProcess(cmd);
+			}
+			return runWithTimeout(process, in, redirection, timeoutMs, error);
+		} catch (IOException e) {
+			return ProcessState.IO_EXCEPTION1(e);
+		} finally {
+			if (process != null) {
+				release(process);
+			}
+			permits.release();
+		}
+	}
+
+	private ProcessState runWithTimeout(final DotProcess process, byte[] in, OutputStream redirection,
+			long timeoutMs, StringBuilder error) {
+		final AtomicBoolean timeout = new AtomicBoolean(false);
+		final ScheduledFuture<?> kill = watchdog.schedule(new Runnable() {
+			public void run() {
+				timeout.set(true);
+				process.destroy();
+			}
+		}, timeoutMs, TimeUnit.MILLISECONDS);
+		try {
+			final ProcessState state = process.run(in, redirection);
+			kill.cancel(false);
+			if (timeout.get()) {
+				return ProcessState.TIMEOUT();
+			}
+			return state;
+		} finally {
+			if (error != null) {
+				error.append(process.getError());
+			}
+		}
+	}
+
+	private void release(DotProcess process) {
+		if (process.isBroken() || process.getNbJobs() >= maxJobs) {
+			Log.info("Recycling pooled Graphviz process after " + process.getNbJobs() + " jobs");
+			process.destroy();
+		} else {
+			idle.offer(process);
+		}
+	}
+
+	public void shutdown() {
+		DotProcess process;
+		while ((process = idle.poll()) != null) {
+			process.destroy();
+		}
+	}
+
+	public int getNbIdle() {
+		return idle.size();
+	}
+
+}
@@ -45,6 +45,8 @@ public class GraphvizVersions {
 
 	private final Map<File, GraphvizVersion> map = new ConcurrentHashMap<File, GraphvizVersion>();
 
+	private final Map<File, String> versionStrings = new ConcurrentHashMap<File, String>();
+
 	private GraphvizVersions() {
 	}
 
@@ -65,6 +67,16 @@ public class GraphvizVersions {
 		return result;
 	}
 
+	public String getVersionString(File f) {
+		String result = versionStrings.get(f);
+		if (result != null) {
+			return result;
+		}
+		result = new GraphvizVersionFinder(f).dotVersion();
+		versionStrings.put(f, result);
+		return result;
+	}
+
 	static GraphvizVersion checkVersionSlow(String pathExecutable) {
 		final GraphvizVersionFinder finder = new GraphvizVersionFinder(new File(pathExecutable));
 		return finder.getVersion();
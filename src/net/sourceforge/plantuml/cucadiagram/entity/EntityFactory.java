@@ -73,6 +73,8 @@ import net.sourceforge.plantuml.ugraphic.color.HColor;
 
 public final class EntityFactory {
 
+	private final static boolean DEBUG = false;
+
 	private final Map<String, ILeaf> leafsByCode;
 	private final Map<String, IGroup> groupsByCode;
 
@@ -92,6 +94,12 @@ public final class EntityFactory {
 	// private final boolean mergeIntricated;
 	private Map<IGroup, ILeaf> emptyGroupsAsNode = new HashMap<IGroup, ILeaf>();
 
+	// Parent to children index, rebuilt lazily after any structural change
+	private Map<IGroup, List<ILeaf>> leafsByParent;
+	private Map<IGroup, List<IGroup>> groupsByParent;
+	private String indexSeparator;
+	private int structureVersion;
+
 	public ILeaf getLeafForEmptyGroup(IGroup g) {
 		return emptyGroupsAsNode.get(g);
 	}
@@ -253,6 +261,7 @@ public final class EntityFactory {
 	}
 
 	public void addLeaf(ILeaf entity) {
+		structureChanged();
 		if (namespaceSeparator.V1972() == false)
 			leafsByCode.put(entity.getCodeGetName(), entity);
 		leafs2.put(entity.getIdent(), entity);
@@ -261,6 +270,7 @@ public final class EntityFactory {
 	}
 
 	public void addGroup(IGroup group) {
+		structureChanged();
 		if (namespaceSeparator.V1972() == false)
 			groupsByCode.put(group.getCodeGetName(), group);
 		groups2.put(group.getIdent(), group);
@@ -277,6 +287,7 @@ public final class EntityFactory {
 	void removeGroup(String name) {
 		if (namespaceSeparator.V1972())
 			throw new UnsupportedOperationException();
+		structureChanged();
 		final IEntity removed = groupsByCode.remove(name);
 		if (removed == null) {
 			throw new IllegalArgumentException();
@@ -288,6 +299,7 @@ public final class EntityFactory {
 	}
 
 	void removeGroup(Ident ident) {
+		structureChanged();
 		final IEntity removed = groups2.remove(ident);
 		if (removed == null) {
 			throw new IllegalArgumentException();
@@ -303,6 +315,7 @@ public final class EntityFactory {
 	void removeLeaf(String name) {
 		if (namespaceSeparator.V1972())
 			throw new UnsupportedOperationException();
+		structureChanged();
 		final IEntity removed = leafsByCode.remove(name);
 		if (removed == null) {
 			throw new IllegalArgumentException();
@@ -314,6 +327,7 @@ public final class EntityFactory {
 	}
 
 	void removeLeaf(Ident ident) {
+		structureChanged();
 		final IEntity removed = leafs2.remove(ident);
 		if (removed == null) {
 			System.err.println("leafs2=" + leafs2.keySet());
@@ -322,6 +336,7 @@ public final class EntityFactory {
 	}
 
 	private void removeLeaf1972(ILeaf leaf) {
+		structureChanged();
 		final boolean removed = leafs2.values().remove(leaf);
 		if (removed == false) {
 			System.err.println("leafs2=" + leafs2.keySet());
@@ -445,7 +460,7 @@ public final class EntityFactory {
 		if (namespaceSeparator.V1972())
 			return leafs2();
 		final Collection<ILeaf> result = Collections.unmodifiableCollection(leafsByCode.values());
-		if (new ArrayList<ILeaf>(result).equals(new ArrayList<ILeaf>(leafs2())) == false) {
+		if (DEBUG && new ArrayList<ILeaf>(result).equals(new ArrayList<ILeaf>(leafs2())) == false) {
 			bigError();
 		}
 		return result;
@@ -455,7 +470,7 @@ public final class EntityFactory {
 		if (namespaceSeparator.V1972())
 			return groups2();
 		final Collection<IGroup> result = Collections.unmodifiableCollection(groupsByCode.values());
-		if (new ArrayList<IGroup>(result).equals(new ArrayList<IGroup>(groups2())) == false) {
+		if (DEBUG && new ArrayList<IGroup>(result).equals(new ArrayList<IGroup>(groups2())) == false) {
 			bigError();
 		}
 		return result;
@@ -471,6 +486,68 @@ public final class EntityFactory {
 		return Collections.unmodifiableCollection(result);
 	}
 
+	void structureChanged() {
+		structureVersion++;
+		leafsByParent = null;
+		groupsByParent = null;
+	}
+
+	public Collection<ILeaf> getLeafsDirect(IGroup parent) {
+		buildIndex();
+		final List<ILeaf> result = leafsByParent.get(parent);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableCollection(result);
+	}
+
+	public Collection<IGroup> getChildren(IGroup parent) {
+		buildIndex();
+		final List<IGroup> result = groupsByParent.get(parent);
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableCollection(result);
+	}
+
+	private void buildIndex() {
+		final String separator = namespaceSeparator.getNamespaceSeparator();
+		if (leafsByParent != null && (separator == null ? indexSeparator == null : separator.equals(indexSeparator))) {
+			return;
+		}
+		// getParentContainer() may create missing packages: build again if it did
+		int version;
+		do {
+			version = structureVersion;
+			final Map<IGroup, List<ILeaf>> leafsIndex = new HashMap<IGroup, List<ILeaf>>();
+			for (ILeaf ent : new ArrayList<ILeaf>(leafs())) {
+				if (ent.isGroup()) {
+					throw new IllegalStateException();
+				}
+				addChild(leafsIndex, ent.getParentContainer(), ent);
+			}
+			final Map<IGroup, List<IGroup>> groupsIndex = new HashMap<IGroup, List<IGroup>>();
+			for (IGroup g : new ArrayList<IGroup>(groups())) {
+				final IGroup parent = g.getParentContainer();
+				if (parent != g) {
+					addChild(groupsIndex, parent, g);
+				}
+			}
+			leafsByParent = leafsIndex;
+			groupsByParent = groupsIndex;
+		} while (version != structureVersion);
+		indexSeparator = separator;
+	}
+
+	private static <E> void addChild(Map<IGroup, List<E>> index, IGroup parent, E child) {
+		List<E> children = index.get(parent);
+		if (children == null) {
+			children = new ArrayList<E>();
+			index.put(parent, children);
+		}
+		children.add(child);
+	}
+
 	public void incRawLayout() {
 		rawLayout++;
 	}
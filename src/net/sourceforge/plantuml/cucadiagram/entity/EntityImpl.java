@@ -187,6 +187,7 @@ final public class EntityImpl implements ILeaf, IGroup {
 			throw new IllegalArgumentException();
 		}
 		this.parentContainer = container;
+		entityFactory.structureChanged();
 	}
 
 	public LeafType getLeafType() {
@@ -396,27 +397,12 @@ final public class EntityImpl implements ILeaf, IGroup {
 
 	public Collection<ILeaf> getLeafsDirect() {
 		checkGroup();
-		final List<ILeaf> result = new ArrayList<ILeaf>();
-		for (ILeaf ent : entityFactory.leafs()) {
-			if (ent.isGroup()) {
-				throw new IllegalStateException();
-			}
-			if (ent.getParentContainer() == this) {
-				result.add(ent);
-			}
-		}
-		return Collections.unmodifiableCollection(result);
+		return entityFactory.getLeafsDirect(this);
 	}
 
 	public Collection<IGroup> getChildren() {
 		checkGroup();
-		final Collection<IGroup> result = new ArrayList<IGroup>();
-		for (IGroup g : entityFactory.groups()) {
-			if (g != this && g.getParentContainer() == this) {
-				result.add(g);
-			}
-		}
-		return Collections.unmodifiableCollection(result);
+		return entityFactory.getChildren(this);
 	}
 
 	public void moveEntitiesTo(IGroup dest) {
@@ -431,6 +417,7 @@ final public class EntityImpl implements ILeaf, IGroup {
 		for (ILeaf ent : getLeafsDirect()) {
 			((EntityImpl) ent).parentContainer = dest;
 		}
+		entityFactory.structureChanged();
 		for (IGroup g : dest.getChildren()) {
 			// ((EntityImpl) g).parentContainer = dest;
 			throw new IllegalStateException();
@@ -442,6 +429,7 @@ final public class EntityImpl implements ILeaf, IGroup {
 			}
 			((EntityImpl) g).parentContainer = dest;
 		}
+		entityFactory.structureChanged();
 
 	}
 
@@ -493,6 +481,7 @@ final public class EntityImpl implements ILeaf, IGroup {
 				// System.err.println("-->groups2=" + entityFactory.groups2());
 			}
 		}
+		entityFactory.structureChanged();
 		// System.err.println("moveEntitiesTo1972::after::groups2=" +
 		// entityFactory.groups2());
 		// for (IGroup g : dest.getChildren()) {
@@ -589,6 +578,7 @@ final public class EntityImpl implements ILeaf, IGroup {
 		this.groupType = groupType;
 		this.leafType = null;
 		this.parentContainer = parentContainer;
+		entityFactory.structureChanged();
 	}
 
 	public USymbol getUSymbol() {
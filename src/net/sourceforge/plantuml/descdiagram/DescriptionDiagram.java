@@ -51,6 +51,11 @@ public class DescriptionDiagram extends AbstractEntityDiagram {
 		super(UmlDiagramType.DESCRIPTION, skinParam);
 	}
 
+	@Override
+	public DescriptionDiagram createNewpage() {
+		return new DescriptionDiagram(getOrigSkin());
+	}
+
 	@Override
 	public Ident cleanIdent(Ident ident) {
 		String codeString = ident.getName();
@@ -82,7 +82,7 @@ public class DescriptionDiagramFactory extends PSystemCommandFactory {
 		cmds.add(new CommandFootboxIgnored());
 		cmds.add(new CommandNamespaceSeparator());
 		cmds.add(new CommandRankDir());
-		cmds.add(new CommandNewpage(this));
+		cmds.add(new CommandNewpage());
 		addCommonCommands1(cmds);
 
 		cmds.add(new CommandPage());
@@ -37,22 +37,18 @@ package net.sourceforge.plantuml.descdiagram.command;
 
 import net.sourceforge.plantuml.LineLocation;
 import net.sourceforge.plantuml.NewpagedDiagram;
-import net.sourceforge.plantuml.UmlDiagram;
+import net.sourceforge.plantuml.classdiagram.AbstractEntityDiagram;
 import net.sourceforge.plantuml.command.CommandExecutionResult;
-import net.sourceforge.plantuml.command.PSystemCommandFactory;
 import net.sourceforge.plantuml.command.SingleLineCommand2;
 import net.sourceforge.plantuml.command.regex.IRegex;
 import net.sourceforge.plantuml.command.regex.RegexConcat;
 import net.sourceforge.plantuml.command.regex.RegexLeaf;
 import net.sourceforge.plantuml.command.regex.RegexResult;
 
-public class CommandNewpage extends SingleLineCommand2<UmlDiagram> {
+public class CommandNewpage extends SingleLineCommand2<AbstractEntityDiagram> {
 
-	private final PSystemCommandFactory factory;
-
-	public CommandNewpage(PSystemCommandFactory factory) {
+	public CommandNewpage() {
 		super(getRegexConcat());
-		this.factory = factory;
 	}
 
 	static IRegex getRegexConcat() {
@@ -61,9 +57,10 @@ public class CommandNewpage extends SingleLineCommand2<UmlDiagram> {
 	}
 
 	@Override
-	protected CommandExecutionResult executeArg(UmlDiagram diagram, LineLocation location, RegexResult arg) {
+	protected CommandExecutionResult executeArg(AbstractEntityDiagram diagram, LineLocation location,
+			RegexResult arg) {
 		final int dpi = diagram.getSkinParam().getDpi();
-		final UmlDiagram emptyDiagram = (UmlDiagram) factory.createEmptyDiagram();
+		final AbstractEntityDiagram emptyDiagram = diagram.createNewpage();
 		if (dpi != 96) {
 			emptyDiagram.setParam("dpi", "" + dpi);
 		}
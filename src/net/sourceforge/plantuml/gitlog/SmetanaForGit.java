@@ -57,6 +57,7 @@ import h.ST_Agraph_s;
 import h.ST_GVC_s;
 import net.sourceforge.plantuml.Dimension2DDouble;
 import net.sourceforge.plantuml.ISkinParam;
+import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.graphic.StringBounder;
 import net.sourceforge.plantuml.jsondiagram.Mirror;
 import net.sourceforge.plantuml.style.SName;
@@ -130,7 +131,7 @@ public class SmetanaForGit {
 		if (g != null) {
 			return;
 		}
-		Z.open();
+		Z.open(OptionFlags.getInstance().createSmetanaBudget());
 		try {
 			g = agopen(new CString("g"), Z.z().Agdirected, null);
 			agsafeset(g, new CString("ranksep"), new CString("0.35"), new CString(""));
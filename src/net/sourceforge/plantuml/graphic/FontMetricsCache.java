@@ -0,0 +1,206 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.graphic;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.FileFormat;
+
+/**
+ * Thread-safe cache of text dimensions and descents.
+ * 
+ * The same labels are measured several times (LimitFinder, layout, final
+ * drawing), so we keep the results here instead of going through the shared
+ * <code>FileFormat.gg</code> each time. Plain ASCII texts do not even need a
+ * cache entry: their width is the sum of per-character advances, computed in
+ * float exactly like <code>Font.getStringBounds</code> does for simple text.
+ */
+public class FontMetricsCache {
+
+	private static final int MAX_ENTRIES = 100000;
+
+	// FontRenderContext is immutable, so all threads can share the one of FileFormat.gg
+	private static final FontRenderContext frc = FileFormat.gg.getFontRenderContext();
+
+	private static final Map<Key, Dimension2DDouble> dimensions = new ConcurrentHashMap<Key, Dimension2DDouble>();
+	private static final Map<Key, Double> descents = new ConcurrentHashMap<Key, Double>();
+	private static final Map<Font, AsciiAdvances> asciiAdvances = new ConcurrentHashMap<Font, AsciiAdvances>();
+
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	private FontMetricsCache() {
+	}
+
+	public static FontRenderContext getFontRenderContext() {
+		return frc;
+	}
+
+	public static Dimension2DDouble getDimension(Font font, String text) {
+		if (isAscii(text)) {
+			final AsciiAdvances advances = getAsciiAdvances(font);
+			if (advances != null) {
+				hits.incrementAndGet();
+				return advances.getDimension(text);
+			}
+		}
+		final Key key = new Key(font, text);
+		Dimension2DDouble result = dimensions.get(key);
+		if (result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+		misses.incrementAndGet();
+		result = computeDimension(font, text);
+		if (dimensions.size() >= MAX_ENTRIES) {
+			dimensions.clear();
+		}
+		dimensions.put(key, result);
+		return result;
+	}
+
+	public static double getDescent(Font font, String text) {
+		final Key key = new Key(font, text);
+		Double result = descents.get(key);
+		if (result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+		misses.incrementAndGet();
+		result = (double) font.getLineMetrics(text, frc).getDescent();
+		if (descents.size() >= MAX_ENTRIES) {
+			descents.clear();
+		}
+		descents.put(key, result);
+		return result;
+	}
+
+	private static Dimension2DDouble computeDimension(Font font, String text) {
+		final Rectangle2D rect = font.getStringBounds(text, frc);
+		return new Dimension2DDouble(rect.getWidth(), rect.getHeight());
+	}
+
+	private static boolean isAscii(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c < ' ' || c >= AsciiAdvances.SIZE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static AsciiAdvances getAsciiAdvances(Font font) {
+		AsciiAdvances result = asciiAdvances.get(font);
+		if (result == null) {
+			result = new AsciiAdvances(font);
+			asciiAdvances.put(font, result);
+		}
+		return result.isValid() ? result : null;
+	}
+
+	public static long getHits() {
+		return hits.get();
+	}
+
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	static class AsciiAdvances {
+
+		static final int SIZE = 128;
+
+		private static final String CHECK = "The quick brown fox jumps over the lazy dog 0123456789 {}[]<>";
+
+		private final float advances[] = new float[SIZE];
+		private final float height;
+		private final boolean valid;
+
+		AsciiAdvances(Font font) {
+			for (char c = 0; c < SIZE; c++) {
+				advances[c] = (float) font.getStringBounds(String.valueOf(c), frc).getWidth();
+			}
+			this.height = (float) font.getStringBounds(CHECK, frc).getHeight();
+			// Fonts with kerning or ligatures, or another JDK, may not sum advances
+			this.valid = font.hasLayoutAttributes() == false
+					&& computeDimension(font, CHECK).getWidth() == getDimension(CHECK).getWidth();
+		}
+
+		boolean isValid() {
+			return valid;
+		}
+
+		Dimension2DDouble getDimension(String text) {
+			float width = 0;
+			for (int i = 0; i < text.length(); i++) {
+				width += advances[text.charAt(i)];
+			}
+			return new Dimension2DDouble(width, height);
+		}
+	}
+
+	static class Key {
+
+		private final Font font;
+		private final String text;
+		private final int hash;
+
+		Key(Font font, String text) {
+			this.font = font;
+			this.text = text;
+			this.hash = font.hashCode() * 31 + text.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			final Key other = (Key) obj;
+			return hash == other.hash && text.equals(other.text) && font.equals(other.font);
+		}
+	}
+
+}
@@ -53,6 +53,7 @@ import h.ST_Agnodeinfo_t;
 import h.ST_Agraph_s;
 import h.ST_GVC_s;
 import net.sourceforge.plantuml.ISkinParam;
+import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.UmlDiagramType;
 import net.sourceforge.plantuml.graphic.StringBounder;
 import net.sourceforge.plantuml.json.JsonValue;
@@ -187,7 +188,7 @@ public class SmetanaForJson {
 		if (g != null) {
 			return;
 		}
-		Z.open();
+		Z.open(OptionFlags.getInstance().createSmetanaBudget());
 		try {
 
 			g = agopen(new CString("g"), Z.z().Agdirected, null);
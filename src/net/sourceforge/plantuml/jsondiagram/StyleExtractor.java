@@ -42,7 +42,6 @@ import java.util.List;
 import net.sourceforge.plantuml.ISkinParam;
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.command.BlocLines;
-import net.sourceforge.plantuml.style.Style;
 import net.sourceforge.plantuml.style.StyleBuilder;
 import net.sourceforge.plantuml.style.StyleLoader;
 
@@ -72,9 +71,7 @@ public class StyleExtractor {
 		if (style.size() > 0) {
 			final StyleBuilder styleBuilder = skinParam.getCurrentStyleBuilder();
 			final BlocLines blocLines = BlocLines.from(style);
-			for (Style modifiedStyle : StyleLoader.getDeclaredStyles(blocLines.subExtract(1, 1), styleBuilder)) {
-				skinParam.muteStyle(modifiedStyle);
-			}
+			skinParam.muteStyle(StyleLoader.getDeclaredStyles(blocLines.subExtract(1, 1), styleBuilder));
 		}
 	}
 
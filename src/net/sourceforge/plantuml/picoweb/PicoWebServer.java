@@ -45,12 +45,22 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import net.sourceforge.plantuml.BlockUml;
 import net.sourceforge.plantuml.ErrorUml;
@@ -61,21 +71,43 @@ import net.sourceforge.plantuml.Option;
 import net.sourceforge.plantuml.SourceStringReader;
 import net.sourceforge.plantuml.StringLocated;
 import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.code.AsciiEncoder;
 import net.sourceforge.plantuml.code.Transcoder;
 import net.sourceforge.plantuml.code.TranscoderUtil;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.ImageData;
-import net.sourceforge.plantuml.error.PSystemError;
 import net.sourceforge.plantuml.error.PSystemErrorUtils;
 import net.sourceforge.plantuml.graphic.QuoteUtils;
 import net.sourceforge.plantuml.version.Version;
 
 public class PicoWebServer implements Runnable {
 
+	public static final int DEFAULT_QUEUE_SIZE = 50;
+
+	// An idle persistent connection is closed after this delay
+	private static final int KEEP_ALIVE_TIMEOUT_MS = 15000;
+
+	// Give the worker back to the pool from time to time, even for busy clients
+	private static final int KEEP_ALIVE_MAX_REQUESTS = 100;
+
+	// With a bounded pool, an idle persistent connection holds one of the few
+	// workers: it is closed sooner, and as soon as another connection waits
+	private static final int BOUNDED_KEEP_ALIVE_TIMEOUT_MS = 2000;
+	private static final int BOUNDED_KEEP_ALIVE_POLL_MS = 100;
+
+	private static final RenderCache renderCache = new RenderCache(RenderCache.DEFAULT_MAX_ENTRIES,
+			RenderCache.DEFAULT_MAX_BYTES);
+
 	private final Socket connect;
+	private final ThreadPoolExecutor pool;
 
 	public PicoWebServer(Socket c) {
+		this(c, null);
+	}
+
+	PicoWebServer(Socket c, ThreadPoolExecutor pool) {
 		this.connect = c;
+		this.pool = pool;
 	}
 
 	public static void main(String[] args) throws IOException {
@@ -83,17 +115,93 @@ public class PicoWebServer implements Runnable {
 	}
 
 	public static void startServer(final int port, final String bindAddress) throws IOException {
+		startServer(port, bindAddress, 0, DEFAULT_QUEUE_SIZE);
+	}
+
+	public static void startServer(final int port, final String bindAddress, int nbThreads, int queueSize)
+			throws IOException {
 		final InetAddress bindAddress1 = bindAddress == null ? null : InetAddress.getByName(bindAddress);
 		final ServerSocket serverConnect = new ServerSocket(port, 50, bindAddress1);
 		System.err.println("webPort=" + serverConnect.getLocalPort());
-		serverLoop(serverConnect);
+		serverLoop(serverConnect, nbThreads, queueSize);
 	}
 
 	public static void serverLoop(final ServerSocket serverConnect) throws IOException {
-		while (true) {
-			final PicoWebServer myServer = new PicoWebServer(serverConnect.accept());
-			final Thread thread = new Thread(myServer);
-			thread.start();
+		serverLoop(serverConnect, 0, DEFAULT_QUEUE_SIZE);
+	}
+
+	/**
+	 * Accepts connections forever.
+	 * 
+	 * @param nbThreads
+	 *            when strictly positive, connections are served by that many
+	 *            worker threads and at most <code>queueSize</code> connections
+	 *            are waiting for a worker. Extra connections get a 503 response.
+	 *            Idle persistent connections are then closed after a short
+	 *            delay, or as soon as another connection is waiting.
+	 *            Otherwise, each connection gets its own (virtual if available)
+	 *            thread.
+	 */
+	public static void serverLoop(final ServerSocket serverConnect, int nbThreads, int queueSize)
+			throws IOException {
+		final ExecutorService executor = createExecutor(nbThreads, queueSize);
+		final ThreadPoolExecutor pool = nbThreads > 0 ? (ThreadPoolExecutor) executor : null;
+		try {
+			while (true) {
+				final Socket socket = serverConnect.accept();
+				try {
+					executor.execute(new PicoWebServer(socket, pool));
+				} catch (RejectedExecutionException e) {
+					sendServiceUnavailable(socket);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	static ExecutorService createExecutor(int nbThreads, int queueSize) {
+		if (nbThreads > 0) {
+			return new ThreadPoolExecutor(nbThreads, nbThreads, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(Math.max(1, queueSize)), new ThreadPoolExecutor.AbortPolicy());
+		}
+		final ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+		if (virtual != null) {
+			return virtual;
+		}
+		return Executors.newCachedThreadPool();
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		// Only available on recent JVM, so we cannot call it directly
+		try {
+			final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (Throwable e) {
+			return null;
+		}
+	}
+
+	private static void sendServiceUnavailable(Socket socket) {
+		try {
+			final OutputStream out = socket.getOutputStream();
+			final byte[] message = "Server too busy".getBytes("UTF-8");
+			write(out, "HTTP/1.1 503 Service Unavailable");
+			write(out, "Content-type: text/plain");
+			write(out, "Content-length: " + message.length);
+			write(out, "Retry-After: 1");
+			write(out, "Connection: close");
+			write(out, "");
+			out.write(message);
+			out.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
@@ -104,26 +212,21 @@ public class PicoWebServer implements Runnable {
 		try {
 			in = new BufferedInputStream(connect.getInputStream());
 			out = new BufferedOutputStream(connect.getOutputStream());
+			connect.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
 
-			final ReceivedHTTPRequest request = ReceivedHTTPRequest.fromStream(in);
-			if (request.getMethod().equals("GET")) {
-				if (request.getPath().startsWith("/png/") && handleGET(request, out, FileFormat.PNG))
-					return;
-				if (request.getPath().startsWith("/plantuml/png/") && handleGET(request, out, FileFormat.PNG))
-					return;
-				if (request.getPath().startsWith("/svg/") && handleGET(request, out, FileFormat.SVG))
-					return;
-				if (request.getPath().startsWith("/plantuml/svg/") && handleGET(request, out, FileFormat.SVG))
+			int served = 0;
+			while (served == 0 || waitForNextRequest(in)) {
+				final ReceivedHTTPRequest request = ReceivedHTTPRequest.fromStream(in);
+				served++;
+				final boolean keepAlive = request.isKeepAlive() && served < KEEP_ALIVE_MAX_REQUESTS;
+				handleRequest(request, out, keepAlive);
+				if (keepAlive == false) {
 					return;
-			} else if (request.getMethod().equals("POST") && request.getPath().equals("/render")) {
-				handleRenderRequest(request, out);
-				return;
+				}
 			}
-			write(out, "HTTP/1.1 302 Found");
-			write(out, "Location: /plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
-			write(out, "");
-			out.flush();
 
+		} catch (SocketTimeoutException e) {
+			// Idle persistent connection: just close it
 		} catch (Throwable e) {
 			try {
 				sendError(e, out);
@@ -141,29 +244,121 @@ public class PicoWebServer implements Runnable {
 		}
 	}
 
-	private boolean handleGET(ReceivedHTTPRequest request, BufferedOutputStream out, final FileFormat format)
-			throws IOException {
+	private boolean waitForNextRequest(BufferedInputStream in) throws IOException {
+		if (pool == null) {
+			return isEndOfStream(in) == false;
+		}
+		final long limit = System.currentTimeMillis() + BOUNDED_KEEP_ALIVE_TIMEOUT_MS;
+		connect.setSoTimeout(BOUNDED_KEEP_ALIVE_POLL_MS);
+		try {
+			while (true) {
+				try {
+					return isEndOfStream(in) == false;
+				} catch (SocketTimeoutException e) {
+					if (pool.getQueue().isEmpty() == false || System.currentTimeMillis() >= limit) {
+						return false;
+					}
+				}
+			}
+		} finally {
+			connect.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
+		}
+	}
+
+	private static boolean isEndOfStream(BufferedInputStream in) throws IOException {
+		in.mark(1);
+		if (in.read() == -1) {
+			return true;
+		}
+		in.reset();
+		return false;
+	}
+
+	private void handleRequest(ReceivedHTTPRequest request, BufferedOutputStream out, boolean keepAlive)
+			throws Exception {
+		if (request.getMethod().equals("GET")) {
+			if (request.getPath().startsWith("/png/") && handleGET(request, out, FileFormat.PNG, keepAlive))
+				return;
+			if (request.getPath().startsWith("/plantuml/png/") && handleGET(request, out, FileFormat.PNG, keepAlive))
+				return;
+			if (request.getPath().startsWith("/svg/") && handleGET(request, out, FileFormat.SVG, keepAlive))
+				return;
+			if (request.getPath().startsWith("/plantuml/svg/") && handleGET(request, out, FileFormat.SVG, keepAlive))
+				return;
+		} else if (request.getMethod().equals("POST") && request.getPath().equals("/render")) {
+			handleRenderRequest(request, out, keepAlive);
+			return;
+		}
+		write(out, "HTTP/1.1 302 Found");
+		write(out, "Location: /plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
+		write(out, "Content-length: 0");
+		writeConnection(out, keepAlive);
+		write(out, "");
+		out.flush();
+	}
+
+	private boolean handleGET(ReceivedHTTPRequest request, BufferedOutputStream out, final FileFormat format,
+			boolean keepAlive) throws IOException {
 		final int x = request.getPath().lastIndexOf('/');
 		final String compressed = request.getPath().substring(x + 1);
+		final String key = RenderCache.key(format.name(), compressed);
+		final RenderedDiagram cached = renderCache.get(key);
+		if (cached != null) {
+			if (request.matchesIfNoneMatch(cached.getEtag())) {
+				sendNotModified(out, cached.getEtag(), keepAlive);
+			} else {
+				sendDiagram(out, cached, keepAlive);
+			}
+			return true;
+		}
+
 		final Transcoder transcoder = TranscoderUtil.getDefaultTranscoderProtected();
 		final String source = transcoder.decode(compressed);
 		final SourceStringReader ssr = new SourceStringReader(source);
 
 		final List<BlockUml> blocks = ssr.getBlocks();
 		if (blocks.size() > 0) {
+			final BlockUml block = blocks.get(0);
+			// Included files, URLs or %date may change while the source does not
+			final String etag = block.hasExternalInput() ? null : etag(format, block);
+			if (etag != null && request.matchesIfNoneMatch(etag)) {
+				sendNotModified(out, etag, keepAlive);
+				return true;
+			}
 			final FileFormatOption fileFormatOption = new FileFormatOption(format);
-			final Diagram system = blocks.get(0).getDiagram();
+			final Diagram system = block.getDiagram();
 			final ByteArrayOutputStream os = new ByteArrayOutputStream();
 			final ImageData imageData = system.exportDiagram(os, 0, fileFormatOption);
 			os.close();
-			sendDiagram(out, system, fileFormatOption, httpReturnCode(imageData.getStatus()), imageData,
-					os.toByteArray());
+			final RenderedDiagram rendered = RenderedDiagram.create(etag, system, fileFormatOption,
+					httpReturnCode(imageData.getStatus()), imageData, os.toByteArray());
+			if (rendered.isCacheable()) {
+				renderCache.put(key, rendered);
+			}
+			sendDiagram(out, rendered, keepAlive);
 			return true;
 		}
 		return false;
 	}
 
-	private void handleRenderRequest(ReceivedHTTPRequest request, BufferedOutputStream out) throws Exception {
+	/**
+	 * Like {@link BlockUml#etag()}, computed from the preprocessed source, so it
+	 * changes with PlantUML version.
+	 */
+	static String etag(FileFormat format, BlockUml block) {
+		try {
+			final MessageDigest msgDigest = MessageDigest.getInstance("MD5");
+			msgDigest.update(format.name().getBytes(UTF_8));
+			msgDigest.update((byte) '/');
+			msgDigest.update(block.etag().getBytes(UTF_8));
+			return Version.etag() + new AsciiEncoder().encode(msgDigest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void handleRenderRequest(ReceivedHTTPRequest request, BufferedOutputStream out, boolean keepAlive)
+			throws Exception {
 		if (request.getBody().length == 0) {
 			throw new BadRequest400("No request body");
 		}
@@ -195,38 +390,52 @@ public class PicoWebServer implements Runnable {
 			imageData = system.exportDiagram(os, 0, option.getFileFormatOption());
 		}
 
-		sendDiagram(out, system, option.getFileFormatOption(), "200", imageData, os.toByteArray());
+		sendDiagram(out, RenderedDiagram.create(null, system, option.getFileFormatOption(), "200", imageData,
+				os.toByteArray()), keepAlive);
 	}
 
-	private void sendDiagram(final BufferedOutputStream out, final Diagram system,
-			final FileFormatOption fileFormatOption, final String returnCode, final ImageData imageData,
-			final byte[] fileData) throws IOException {
+	private void sendDiagram(final BufferedOutputStream out, final RenderedDiagram rendered, boolean keepAlive)
+			throws IOException {
 
-		write(out, "HTTP/1.1 " + returnCode);
+		final byte[] fileData = rendered.getData();
+		write(out, "HTTP/1.1 " + rendered.getReturnCode());
 		write(out, "Cache-Control: no-cache");
+		if (rendered.getEtag() != null) {
+			write(out, "ETag: \"" + rendered.getEtag() + "\"");
+		}
 		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
 		write(out, "Date: " + new Date());
-		write(out, "Content-type: " + fileFormatOption.getFileFormat().getMimeType());
+		write(out, "Content-type: " + rendered.getMimeType());
 		write(out, "Content-length: " + fileData.length);
-		write(out, "X-PlantUML-Diagram-Width: " + imageData.getWidth());
-		write(out, "X-PlantUML-Diagram-Height: " + imageData.getHeight());
-		write(out, "X-PlantUML-Diagram-Description: " + system.getDescription().getDescription());
-		if (system instanceof PSystemError) {
-			final PSystemError error = (PSystemError) system;
-			for (ErrorUml err : error.getErrorsUml()) {
-				write(out, "X-PlantUML-Diagram-Error: " + err.getError());
-				write(out, "X-PlantUML-Diagram-Error-Line: " + (1 + err.getLineLocation().getPosition()));
-			}
+		write(out, "X-PlantUML-Diagram-Width: " + rendered.getWidth());
+		write(out, "X-PlantUML-Diagram-Height: " + rendered.getHeight());
+		write(out, "X-PlantUML-Diagram-Description: " + rendered.getDescription());
+		for (int i = 0; i < rendered.getErrors().size(); i++) {
+			write(out, "X-PlantUML-Diagram-Error: " + rendered.getErrors().get(i));
+			write(out, "X-PlantUML-Diagram-Error-Line: " + rendered.getErrorLines().get(i));
 		}
 		write(out, "X-Patreon: Support us on https://plantuml.com/patreon");
 		write(out, "X-Donate: https://plantuml.com/paypal");
 		write(out, "X-Quote: " + StringUtils.rot(QuoteUtils.getSomeQuote()));
+		writeConnection(out, keepAlive);
 		write(out, "");
 		out.flush();
 		out.write(fileData);
 		out.flush();
 	}
 
+	private void sendNotModified(final BufferedOutputStream out, String etag, boolean keepAlive)
+			throws IOException {
+		write(out, "HTTP/1.1 304 Not Modified");
+		write(out, "Cache-Control: no-cache");
+		write(out, "ETag: \"" + etag + "\"");
+		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
+		write(out, "Date: " + new Date());
+		writeConnection(out, keepAlive);
+		write(out, "");
+		out.flush();
+	}
+
 	private void sendError(Throwable e, BufferedOutputStream out) throws Exception {
 		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		final PrintWriter printWriter = new PrintWriter(baos);
@@ -253,7 +462,11 @@ public class PicoWebServer implements Runnable {
 		return "" + status + " ERROR";
 	}
 
-	private void write(OutputStream os, String s) throws IOException {
+	private static void writeConnection(OutputStream os, boolean keepAlive) throws IOException {
+		write(os, "Connection: " + (keepAlive ? "keep-alive" : "close"));
+	}
+
+	private static void write(OutputStream os, String s) throws IOException {
 		s = s + "\r\n";
 		os.write(s.getBytes("UTF-8"));
 	}
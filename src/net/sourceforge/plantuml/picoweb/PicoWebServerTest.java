@@ -32,6 +32,9 @@ public class PicoWebServerTest {
 		test_GET_svg();
 		test_POST_render();
 		test_unknown_path();
+		test_keep_alive();
+		test_etag();
+		test_no_etag();
 	}
 
 	//
@@ -225,10 +228,79 @@ public class PicoWebServerTest {
 		assert response.getHeaderField("Location").equals("/plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
 	}
 
+	private static void test_keep_alive() throws Exception {
+		final String path = "/svg/" + getDefaultTranscoder().encode("A -> B");
+		String responses = httpRaw("" +
+				"GET " + path + " HTTP/1.1\n" +
+				"\n" +
+				"GET /foo HTTP/1.1\n" +
+				"\n" +
+				"GET " + path + " HTTP/1.1\n" +
+				"Connection: close\n" +
+				"\n"
+		);
+		assert countOccurrences(responses, "HTTP/1.1 200 OK\n") == 2;
+		assert countOccurrences(responses, "HTTP/1.1 302 Found\n") == 1;
+		assert countOccurrences(responses, "Connection: keep-alive\n") == 2;
+		assert countOccurrences(responses, "Connection: close\n") == 1;
+
+		// HTTP/1.0 connections are closed after the first response
+		responses = httpRaw("" +
+				"GET " + path + " HTTP/1.0\n" +
+				"\n" +
+				"GET " + path + " HTTP/1.0\n" +
+				"\n"
+		);
+		assert countOccurrences(responses, "HTTP/1.1 200 OK\n") == 1;
+		assert countOccurrences(responses, "Connection: close\n") == 1;
+	}
+
+	private static void test_etag() throws Exception {
+		final String path = "/png/" + getDefaultTranscoder().encode("A -> B");
+		HttpURLConnection response = httpGet(path);
+		assert response.getResponseCode() == 200;
+		final String etag = response.getHeaderField("ETag");
+		assert etag != null && etag.startsWith("\"");
+		assert readStreamAsImage(response.getInputStream()) != null;
+
+		// Served from the cache
+		response = httpGet(path);
+		assert response.getResponseCode() == 200;
+		assert etag.equals(response.getHeaderField("ETag"));
+		assert readStreamAsImage(response.getInputStream()) != null;
+
+		response = urlConnection(path);
+		response.setRequestProperty("If-None-Match", etag);
+		assert response.getResponseCode() == 304;
+		assert etag.equals(response.getHeaderField("ETag"));
+
+		response = httpGet("/svg/" + getDefaultTranscoder().encode("A -> B"));
+		assert response.getResponseCode() == 200;
+		assert etag.equals(response.getHeaderField("ETag")) == false;
+	}
+
+	private static void test_no_etag() throws Exception {
+		HttpURLConnection response = httpGet("/svg/" + getDefaultTranscoder().encode("A -> B : %date()"));
+		assert response.getResponseCode() == 200;
+		assert response.getHeaderField("ETag") == null;
+
+		response = httpGet("/svg/" + getDefaultTranscoder().encode("foo"));
+		assert response.getResponseCode() == 400;
+		assert response.getHeaderField("ETag") == null;
+	}
+
 	//
 	// Test DSL
 	//
 
+	private static int countOccurrences(String s, String searched) {
+		int count = 0;
+		for (int i = s.indexOf(searched); i != -1; i = s.indexOf(searched, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+
 	private static HttpURLConnection httpGet(String path) throws Exception {
 		return urlConnection(path);
 	}
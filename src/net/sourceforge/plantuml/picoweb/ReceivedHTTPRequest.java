@@ -8,10 +8,20 @@ public class ReceivedHTTPRequest {
 
 	private static final String CONTENT_LENGTH_HEADER = "content-length: ";
 
+	private static final String CONNECTION_HEADER = "connection: ";
+
+	private static final String IF_NONE_MATCH_HEADER = "if-none-match: ";
+
 	private String method;
 
 	private String path;
 
+	private String protocol;
+
+	private String connection;
+
+	private String ifNoneMatch;
+
 	private byte[] body;
 
 	public String getMethod() {
@@ -26,6 +36,21 @@ public class ReceivedHTTPRequest {
 		return body;
 	}
 
+	public String getProtocol() {
+		return protocol;
+	}
+
+	/**
+	 * HTTP/1.1 connections are persistent unless the client asks otherwise, while
+	 * HTTP/1.0 clients have to explicitly request it.
+	 */
+	public boolean isKeepAlive() {
+		if ("HTTP/1.0".equals(protocol)) {
+			return "keep-alive".equalsIgnoreCase(connection);
+		}
+		return "close".equalsIgnoreCase(connection) == false;
+	}
+
 	public static ReceivedHTTPRequest fromStream(InputStream in) throws IOException {
 		final ReceivedHTTPRequest request = new ReceivedHTTPRequest();
 
@@ -38,6 +63,7 @@ public class ReceivedHTTPRequest {
 
 		request.method = tokenizer.nextToken().toUpperCase();
 		request.path = tokenizer.nextToken();
+		request.protocol = tokenizer.nextToken().toUpperCase();
 
 		// Headers
 		int contentLength = 0;
@@ -48,6 +74,10 @@ public class ReceivedHTTPRequest {
 				break;
 			} else if (line.toLowerCase().startsWith(CONTENT_LENGTH_HEADER)) {
 				contentLength = parseContentLengthHeader(line);
+			} else if (line.toLowerCase().startsWith(CONNECTION_HEADER)) {
+				request.connection = line.substring(CONNECTION_HEADER.length()).trim();
+			} else if (line.toLowerCase().startsWith(IF_NONE_MATCH_HEADER)) {
+				request.ifNoneMatch = line.substring(IF_NONE_MATCH_HEADER.length()).trim();
 			}
 		}
 
@@ -55,6 +85,26 @@ public class ReceivedHTTPRequest {
 		return request;
 	}
 
+	/**
+	 * Tells if the client already has the resource with this (unquoted) etag.
+	 */
+	public boolean matchesIfNoneMatch(String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			// If-None-Match uses the weak comparison
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals("\"" + etag + "\"")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private static int parseContentLengthHeader(String line) throws IOException {
 		int contentLength;
 
@@ -0,0 +1,64 @@
+package net.sourceforge.plantuml.picoweb;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of rendered diagrams, bounded both by number of entries and by
+ * total size of the rendered bytes.
+ */
+public class RenderCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private final int maxEntries;
+	private final long maxBytes;
+
+	// Access ordered, so that the first entry is the least recently used one
+	private final LinkedHashMap<String, RenderedDiagram> entries = new LinkedHashMap<String, RenderedDiagram>(16,
+			0.75f, true);
+
+	private long totalBytes;
+
+	public RenderCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	public static String key(String format, String encoded) {
+		return format + "/" + encoded;
+	}
+
+	public synchronized RenderedDiagram get(String key) {
+		return entries.get(key);
+	}
+
+	public synchronized void put(String key, RenderedDiagram rendered) {
+		final long size = rendered.getData().length;
+		if (maxEntries <= 0 || size > maxBytes) {
+			return;
+		}
+		final RenderedDiagram old = entries.put(key, rendered);
+		if (old != null) {
+			totalBytes -= old.getData().length;
+		}
+		totalBytes += size;
+		final Iterator<Map.Entry<String, RenderedDiagram>> it = entries.entrySet().iterator();
+		while (it.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes)) {
+			totalBytes -= it.next().getValue().getData().length;
+			it.remove();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+}
@@ -0,0 +1,105 @@
+package net.sourceforge.plantuml.picoweb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.plantuml.ErrorUml;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+import net.sourceforge.plantuml.error.PSystemError;
+
+/**
+ * Everything needed to send a rendered diagram back to the client, without
+ * keeping the Diagram itself alive.
+ */
+public class RenderedDiagram {
+
+	private final String etag;
+	private final String returnCode;
+	private final String mimeType;
+	private final int width;
+	private final int height;
+	private final String description;
+	private final List<String> errors;
+	private final List<Integer> errorLines;
+	private final byte[] data;
+
+	private RenderedDiagram(String etag, String returnCode, String mimeType, int width, int height,
+			String description, List<String> errors, List<Integer> errorLines, byte[] data) {
+		this.etag = etag;
+		this.returnCode = returnCode;
+		this.mimeType = mimeType;
+		this.width = width;
+		this.height = height;
+		this.description = description;
+		this.errors = errors;
+		this.errorLines = errorLines;
+		this.data = data;
+	}
+
+	public static RenderedDiagram create(String etag, Diagram system, FileFormatOption fileFormatOption,
+			String returnCode, ImageData imageData, byte[] data) {
+		final List<String> errors = new ArrayList<String>();
+		final List<Integer> errorLines = new ArrayList<Integer>();
+		if (system instanceof PSystemError) {
+			final PSystemError error = (PSystemError) system;
+			for (ErrorUml err : error.getErrorsUml()) {
+				errors.add(err.getError());
+				errorLines.add(1 + err.getLineLocation().getPosition());
+			}
+		}
+		// Error images may come from a transient failure
+		final boolean cacheable = etag != null && returnCode.startsWith("200");
+		return new RenderedDiagram(cacheable ? etag : null, returnCode,
+				fileFormatOption.getFileFormat().getMimeType(), imageData.getWidth(), imageData.getHeight(),
+				system.getDescription().getDescription(), Collections.unmodifiableList(errors),
+				Collections.unmodifiableList(errorLines), data);
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * Only diagrams rendered without error from a source that does not read
+	 * external content get an ETag and may be cached.
+	 */
+	public boolean isCacheable() {
+		return etag != null;
+	}
+
+	public String getReturnCode() {
+		return returnCode;
+	}
+
+	public String getMimeType() {
+		return mimeType;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public List<Integer> getErrorLines() {
+		return errorLines;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+}
@@ -0,0 +1,186 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Low level writing of PNG chunks, shared by PngEncoder and PngStripWriter.
+ * 
+ * The text chunks are the ones PngIOMetadata writes through ImageIO.
+ */
+final class PngChunkWriter {
+
+	private static final String copyleft = "Generated by http://plantuml.com";
+
+	private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+
+	private static final int IDAT_SIZE = 32768;
+
+	private final OutputStream os;
+
+	PngChunkWriter(OutputStream os) {
+		this.os = os;
+	}
+
+	void writeHeader(int width, int height, int bitDepth, int colorType) throws IOException {
+		os.write(SIGNATURE);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream data = new DataOutputStream(baos);
+		data.writeInt(width);
+		data.writeInt(height);
+		data.writeByte(bitDepth);
+		data.writeByte(colorType);
+		data.writeByte(0);
+		data.writeByte(0);
+		data.writeByte(0);
+		writeChunk("IHDR", baos.toByteArray());
+	}
+
+	void writeMetadata(String metadata, int dpi, String debugData) throws IOException {
+		if (dpi != 96) {
+			writeDpi(dpi);
+		}
+		if (debugData != null) {
+			writeText("debug", debugData);
+		}
+		writeText("copyleft", copyleft);
+		writeiText("plantuml", metadata);
+	}
+
+	/**
+	 * The returned stream cuts what it receives into IDAT chunks. It must be
+	 * flushed once everything has been written.
+	 */
+	OutputStream idatOutputStream() {
+		return new IdatOutputStream();
+	}
+
+	void writeEnd() throws IOException {
+		writeChunk("IEND", new byte[0]);
+		os.flush();
+	}
+
+	private void writeDpi(int dpi) throws IOException {
+		// Same value as the one computed by ImageIO from PngIOMetadata settings
+		final float pixelSize = (float) (dpi / 0.0254 / 1000);
+		final int pixelsPerMeter = (int) (1000.0F / pixelSize + 0.5F);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream data = new DataOutputStream(baos);
+		data.writeInt(pixelsPerMeter);
+		data.writeInt(pixelsPerMeter);
+		data.writeByte(1);
+		writeChunk("pHYs", baos.toByteArray());
+	}
+
+	private void writeText(String key, String value) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		baos.write(key.getBytes("ISO-8859-1"));
+		baos.write(0);
+		baos.write(value.getBytes("ISO-8859-1"));
+		writeChunk("tEXt", baos.toByteArray());
+	}
+
+	private void writeiText(String key, String value) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		baos.write(key.getBytes("ISO-8859-1"));
+		// Compressed, with no language tag and no translated keyword
+		baos.write(new byte[] { 0, 1, 0, 0, 0 });
+		final Deflater deflater = new Deflater();
+		final DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater);
+		dos.write(value.getBytes("UTF-8"));
+		dos.finish();
+		deflater.end();
+		writeChunk("iTXt", baos.toByteArray());
+	}
+
+	void writeChunk(String type, byte[] data) throws IOException {
+		writeChunk(type, data, data.length);
+	}
+
+	private void writeChunk(String type, byte[] data, int len) throws IOException {
+		final byte[] typeBytes = type.getBytes("ISO-8859-1");
+		final CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data, 0, len);
+		final DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(len);
+		out.write(typeBytes);
+		out.write(data, 0, len);
+		out.writeInt((int) crc.getValue());
+	}
+
+	class IdatOutputStream extends OutputStream {
+
+		private final byte[] buffer = new byte[IDAT_SIZE];
+		private int size;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				final int n = Math.min(len, buffer.length - size);
+				System.arraycopy(b, off, buffer, size, n);
+				size += n;
+				off += n;
+				len -= n;
+				if (size == buffer.length) {
+					flush();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (size > 0) {
+				writeChunk("IDAT", buffer, size);
+				size = 0;
+			}
+		}
+
+	}
+
+}
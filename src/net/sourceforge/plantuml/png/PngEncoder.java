@@ -0,0 +1,378 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Adler32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * PNG encoder for the images drawn by PlantUML.
+ * 
+ * Images with no more than 256 colors, which is the usual case for diagrams,
+ * are written as indexed PNG. Other images are written as RGB, or RGBA when
+ * they are not opaque.
+ * 
+ * With several threads, large images are cut into groups of rows that are
+ * deflated independently, and the pieces are joined into a single zlib stream.
+ */
+public class PngEncoder {
+
+	private static final int PARALLEL_CHUNK_BYTES = 256 * 1024;
+
+	private static ExecutorService executor;
+	private static int executorSize;
+
+	private final int level;
+	private final int nbThreads;
+
+	/**
+	 * @param level
+	 *            the deflate level, from 0 (fastest) to 9 (smallest)
+	 * @param nbThreads
+	 *            the number of threads used to deflate large images
+	 */
+	public PngEncoder(int level, int nbThreads) {
+		if (level < 0 || level > 9) {
+			throw new IllegalArgumentException("level=" + level);
+		}
+		this.level = level;
+		this.nbThreads = nbThreads;
+	}
+
+	/**
+	 * Only 32 bits RGB and ARGB images are handled, other ones have to be written
+	 * through ImageIO.
+	 */
+	public static boolean canEncode(RenderedImage image) {
+		if (image instanceof BufferedImage) {
+			final int type = ((BufferedImage) image).getType();
+			return type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB;
+		}
+		return false;
+	}
+
+	public void write(BufferedImage image, OutputStream os, String metadata, int dpi, String debugData)
+			throws IOException {
+		if (canEncode(image) == false) {
+			throw new IllegalArgumentException();
+		}
+		final PngPalette palette = PngPalette.create(image);
+		final boolean alpha = palette == null && isOpaque(image) == false;
+		final RowEncoder rows = new RowEncoder(image, palette, alpha);
+
+		final PngChunkWriter writer = new PngChunkWriter(os);
+		if (palette != null) {
+			writer.writeHeader(image.getWidth(), image.getHeight(), palette.getBitDepth(), 3);
+		} else {
+			writer.writeHeader(image.getWidth(), image.getHeight(), 8, alpha ? 6 : 2);
+		}
+		if (metadata != null) {
+			writer.writeMetadata(metadata, dpi, debugData);
+		}
+		if (palette != null) {
+			writer.writeChunk("PLTE", palette.getPLTE());
+			final byte[] trns = palette.getTRNS();
+			if (trns != null) {
+				writer.writeChunk("tRNS", trns);
+			}
+		}
+		final OutputStream idat = writer.idatOutputStream();
+		final long rawSize = (long) image.getHeight() * (rows.rowBytes + 1);
+		if (nbThreads > 1 && rawSize > 2 * PARALLEL_CHUNK_BYTES) {
+			writeParallel(rows, idat);
+		} else {
+			final Deflater deflater = new Deflater(level);
+			try {
+				final DeflaterOutputStream dos = new DeflaterOutputStream(idat, deflater, 32768);
+				rows.encode(0, image.getHeight(), dos);
+				dos.finish();
+			} finally {
+				deflater.end();
+			}
+		}
+		idat.flush();
+		writer.writeEnd();
+	}
+
+	private void writeParallel(final RowEncoder rows, OutputStream idat) throws IOException {
+		final int height = rows.image.getHeight();
+		final int rowsPerChunk = Math.max(1, PARALLEL_CHUNK_BYTES / (rows.rowBytes + 1));
+		final List<Future<Piece>> pieces = new ArrayList<Future<Piece>>();
+		final ExecutorService service = getExecutor(nbThreads);
+		for (int from = 0; from < height; from += rowsPerChunk) {
+			final int start = from;
+			final int end = Math.min(height, from + rowsPerChunk);
+			pieces.add(service.submit(new Callable<Piece>() {
+				public Piece call() throws IOException {
+					return deflatePiece(new RowEncoder(rows), start, end, end == height);
+				}
+			}));
+		}
+		// zlib header for the default deflate level
+		idat.write(new byte[] { 0x78, (byte) 0x9C });
+		long adler = 1;
+		try {
+			for (Future<Piece> future : pieces) {
+				final Piece piece = future.get();
+				idat.write(piece.data);
+				adler = combineAdler32(adler, piece.adler32, piece.length);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e.toString());
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause().toString());
+		}
+		idat.write(new byte[] { (byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler });
+	}
+
+	private Piece deflatePiece(RowEncoder rows, int from, int to, boolean last) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final Deflater deflater = new Deflater(level, true);
+		try {
+			final DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater, 32768, true);
+			final Adler32 adler = new Adler32();
+			final CheckedOutputStream cos = new CheckedOutputStream(dos, adler);
+			rows.encode(from, to, cos);
+			if (last) {
+				dos.finish();
+			} else {
+				// Ends the piece on a byte boundary, without a final block
+				dos.flush();
+			}
+			return new Piece(baos.toByteArray(), adler.getValue(), (long) (to - from) * (rows.rowBytes + 1));
+		} finally {
+			deflater.end();
+		}
+	}
+
+	static class Piece {
+		private final byte[] data;
+		private final long adler32;
+		private final long length;
+
+		Piece(byte[] data, long adler32, long length) {
+			this.data = data;
+			this.adler32 = adler32;
+			this.length = length;
+		}
+	}
+
+	// Adler-32 of two concatenated blocks, as adler32_combine() from zlib
+	static long combineAdler32(long adler1, long adler2, long length2) {
+		final long base = 65521;
+		final long rem = length2 % base;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (rem * sum1) % base;
+		sum1 += (adler2 & 0xFFFF) + base - 1;
+		sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + base - rem;
+		if (sum1 >= base) {
+			sum1 -= base;
+		}
+		if (sum1 >= base) {
+			sum1 -= base;
+		}
+		if (sum2 >= base << 1) {
+			sum2 -= base << 1;
+		}
+		if (sum2 >= base) {
+			sum2 -= base;
+		}
+		return sum1 | (sum2 << 16);
+	}
+
+	private static synchronized ExecutorService getExecutor(int nbThreads) {
+		if (executor == null || executorSize != nbThreads) {
+			if (executor != null) {
+				executor.shutdown();
+			}
+			executor = Executors.newFixedThreadPool(nbThreads, new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r, "PngEncoder");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executorSize = nbThreads;
+		}
+		return executor;
+	}
+
+	private static boolean isOpaque(BufferedImage image) {
+		if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+			return true;
+		}
+		final int[] row = new int[image.getWidth()];
+		for (int y = 0; y < image.getHeight(); y++) {
+			readRow(image, y, row);
+			for (int argb : row) {
+				if (argb >>> 24 != 0xFF) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the non premultiplied ARGB values of a row of a 32 bits image.
+	 */
+	static void readRow(BufferedImage image, int y, int[] dest) {
+		final int width = image.getWidth();
+		final Raster raster = image.getRaster();
+		if (raster.getDataBuffer() instanceof DataBufferInt
+				&& raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+			final DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+			final SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) raster.getSampleModel();
+			final int offset = buffer.getOffset() + model.getOffset(-raster.getSampleModelTranslateX(),
+					y - raster.getSampleModelTranslateY());
+			System.arraycopy(buffer.getData(), offset, dest, 0, width);
+			if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+				for (int x = 0; x < width; x++) {
+					dest[x] |= 0xFF000000;
+				}
+			}
+		} else {
+			image.getRGB(0, y, width, 1, dest, 0, width);
+		}
+	}
+
+	// Turns the pixels of the image into PNG rows
+	static class RowEncoder {
+
+		private final BufferedImage image;
+		private final PngPalette palette;
+		private final boolean alpha;
+		private final int rowBytes;
+		private final int[] pixels;
+		private final PngRowFilter filter;
+		private byte[] previous;
+		private byte[] current;
+
+		RowEncoder(BufferedImage image, PngPalette palette, boolean alpha) {
+			this.image = image;
+			this.palette = palette;
+			this.alpha = alpha;
+			final int width = image.getWidth();
+			if (palette == null) {
+				this.rowBytes = width * (alpha ? 4 : 3);
+			} else {
+				this.rowBytes = (width * palette.getBitDepth() + 7) / 8;
+			}
+			this.pixels = new int[width];
+			this.filter = new PngRowFilter(rowBytes, alpha ? 4 : 3, palette == null);
+			this.previous = new byte[rowBytes];
+			this.current = new byte[rowBytes];
+		}
+
+		RowEncoder(RowEncoder other) {
+			this(other.image, other.palette, other.alpha);
+		}
+
+		void encode(int from, int to, OutputStream os) throws IOException {
+			if (from > 0 && palette == null) {
+				convert(from - 1, previous);
+			}
+			for (int y = from; y < to; y++) {
+				convert(y, current);
+				os.write(filter.filter(current, previous));
+				final byte[] tmp = previous;
+				previous = current;
+				current = tmp;
+			}
+		}
+
+		private void convert(int y, byte[] dest) {
+			readRow(image, y, pixels);
+			if (palette == null) {
+				int j = 0;
+				for (int argb : pixels) {
+					dest[j++] = (byte) (argb >> 16);
+					dest[j++] = (byte) (argb >> 8);
+					dest[j++] = (byte) argb;
+					if (alpha) {
+						dest[j++] = (byte) (argb >>> 24);
+					}
+				}
+				return;
+			}
+			final int depth = palette.getBitDepth();
+			if (depth == 8) {
+				for (int x = 0; x < pixels.length; x++) {
+					dest[x] = (byte) palette.indexOf(pixels[x]);
+				}
+				return;
+			}
+			final int perByte = 8 / depth;
+			int lastArgb = pixels[0];
+			int lastIndex = palette.indexOf(lastArgb);
+			for (int i = 0; i < rowBytes; i++) {
+				int value = 0;
+				for (int k = 0; k < perByte; k++) {
+					final int x = i * perByte + k;
+					if (x < pixels.length) {
+						if (pixels[x] != lastArgb) {
+							lastArgb = pixels[x];
+							lastIndex = palette.indexOf(lastArgb);
+						}
+						value |= lastIndex << (8 - depth * (k + 1));
+					}
+				}
+				dest[i] = (byte) value;
+			}
+		}
+
+	}
+
+}
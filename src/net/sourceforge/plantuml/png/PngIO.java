@@ -35,11 +35,13 @@
  */
 package net.sourceforge.plantuml.png;
 
+import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
 
 import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.security.ImageIO;
 import net.sourceforge.plantuml.security.SFile;
 
@@ -79,7 +81,11 @@ public class PngIO {
 
 	public static void write(RenderedImage image, OutputStream os, String metadata, int dpi, String debugData)
 			throws IOException {
-		if (metadata == null) {
+		if (PngEncoder.canEncode(image)) {
+			final OptionFlags flags = OptionFlags.getInstance();
+			new PngEncoder(flags.getPngCompressionLevel(), flags.getPngThreads()).write((BufferedImage) image, os,
+					metadata, dpi, debugData);
+		} else if (metadata == null) {
 			ImageIO.write(image, "png", os);
 		} else {
 			PngIOMetadata.writeWithMetadata(image, os, metadata, dpi, debugData);
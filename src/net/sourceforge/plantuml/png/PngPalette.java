@@ -0,0 +1,176 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The colors of an image that has no more than 256 of them, so that it can be
+ * written as an indexed PNG.
+ */
+final class PngPalette {
+
+	private static final int MAX_COLORS = 256;
+
+	// Open addressing table from ARGB values to indexes
+	private final int[] keys = new int[MAX_COLORS * 4];
+	private final int[] indexes = new int[MAX_COLORS * 4];
+	private int[] colors = new int[MAX_COLORS];
+	private int size;
+
+	private PngPalette() {
+		Arrays.fill(indexes, -1);
+	}
+
+	/**
+	 * Returns <code>null</code> if the image has more than 256 colors.
+	 */
+	static PngPalette create(BufferedImage image) {
+		final PngPalette result = new PngPalette();
+		final int width = image.getWidth();
+		final int[] row = new int[width];
+		int last = 0;
+		boolean first = true;
+		for (int y = 0; y < image.getHeight(); y++) {
+			PngEncoder.readRow(image, y, row);
+			for (int x = 0; x < width; x++) {
+				final int argb = row[x];
+				if (first || argb != last) {
+					if (result.add(argb) == false) {
+						return null;
+					}
+					last = argb;
+					first = false;
+				}
+			}
+		}
+		result.sortTranslucentFirst();
+		return result;
+	}
+
+	private boolean add(int argb) {
+		int i = slot(argb);
+		if (indexes[i] != -1) {
+			return true;
+		}
+		if (size == MAX_COLORS) {
+			return false;
+		}
+		keys[i] = argb;
+		indexes[i] = size;
+		colors[size++] = argb;
+		return true;
+	}
+
+	private int slot(int argb) {
+		int i = (argb * 0x9E3779B9 >>> 22) & (keys.length - 1);
+		while (indexes[i] != -1 && keys[i] != argb) {
+			i = (i + 1) & (keys.length - 1);
+		}
+		return i;
+	}
+
+	// So that the tRNS chunk only lists the colors that are not opaque
+	private void sortTranslucentFirst() {
+		final int[] sorted = new int[size];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (colors[i] >>> 24 != 0xFF) {
+				sorted[n++] = colors[i];
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			if (colors[i] >>> 24 == 0xFF) {
+				sorted[n++] = colors[i];
+			}
+		}
+		colors = sorted;
+		for (int i = 0; i < size; i++) {
+			indexes[slot(colors[i])] = i;
+		}
+	}
+
+	int indexOf(int argb) {
+		return indexes[slot(argb)];
+	}
+
+	int size() {
+		return size;
+	}
+
+	int getBitDepth() {
+		if (size <= 2) {
+			return 1;
+		}
+		if (size <= 4) {
+			return 2;
+		}
+		if (size <= 16) {
+			return 4;
+		}
+		return 8;
+	}
+
+	byte[] getPLTE() {
+		final byte[] result = new byte[size * 3];
+		for (int i = 0; i < size; i++) {
+			result[3 * i] = (byte) (colors[i] >> 16);
+			result[3 * i + 1] = (byte) (colors[i] >> 8);
+			result[3 * i + 2] = (byte) colors[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns <code>null</code> if all colors are opaque.
+	 */
+	byte[] getTRNS() {
+		int n = 0;
+		while (n < size && colors[n] >>> 24 != 0xFF) {
+			n++;
+		}
+		if (n == 0) {
+			return null;
+		}
+		final byte[] result = new byte[n];
+		for (int i = 0; i < n; i++) {
+			result[i] = (byte) (colors[i] >>> 24);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,144 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+/**
+ * Filters the rows of a PNG image.
+ * 
+ * Diagrams are mostly made of flat areas and of repeated glyphs: without
+ * filtering, deflate finds these repetitions inside each row. So the adaptive
+ * mode only filters a row when one filter turns it into a few long runs of
+ * equal bytes, as for a vertical gradient. Palette images always use the None
+ * filter.
+ */
+final class PngRowFilter {
+
+	private final int bpp;
+	private final boolean adaptive;
+	private final byte[][] filtered = new byte[5][];
+
+	PngRowFilter(int rowBytes, int bpp, boolean adaptive) {
+		this.bpp = bpp;
+		this.adaptive = adaptive;
+		for (int i = 0; i < filtered.length; i++) {
+			filtered[i] = new byte[rowBytes + 1];
+			filtered[i][0] = (byte) i;
+		}
+	}
+
+	/**
+	 * Returns the filter type byte followed by the filtered row. The returned
+	 * array is reused by the next call.
+	 */
+	byte[] filter(byte[] current, byte[] previous) {
+		final int len = current.length;
+		int type = 0;
+		if (adaptive) {
+			int changes = 0;
+			for (int i = 1; i < len; i++) {
+				if (current[i] != current[i - 1]) {
+					changes++;
+				}
+			}
+			// A filter must divide the number of changes by 32 to be used
+			int best = changes / 32 + 1;
+			for (int k = 1; k < 5; k++) {
+				final int n = countChanges(k, current, previous, best);
+				if (n < best) {
+					best = n;
+					type = k;
+				}
+			}
+		}
+		final byte[] result = filtered[type];
+		if (type == 0) {
+			System.arraycopy(current, 0, result, 1, len);
+		} else {
+			for (int i = 0; i < len; i++) {
+				result[i + 1] = (byte) filterByte(type, current, previous, i);
+			}
+		}
+		return result;
+	}
+
+	// Stops counting once max is reached
+	private int countChanges(int type, byte[] current, byte[] previous, int max) {
+		int changes = 0;
+		int last = filterByte(type, current, previous, 0);
+		for (int i = 1; i < current.length && changes < max; i++) {
+			final int value = filterByte(type, current, previous, i);
+			if (value != last) {
+				changes++;
+				last = value;
+			}
+		}
+		return changes;
+	}
+
+	private int filterByte(int type, byte[] current, byte[] previous, int i) {
+		final int raw = current[i] & 0xFF;
+		final int left = i < bpp ? 0 : current[i - bpp] & 0xFF;
+		final int above = previous[i] & 0xFF;
+		switch (type) {
+		case 1:
+			return (raw - left) & 0xFF;
+		case 2:
+			return (raw - above) & 0xFF;
+		case 3:
+			return (raw - ((left + above) >> 1)) & 0xFF;
+		case 4:
+			final int aboveLeft = i < bpp ? 0 : previous[i - bpp] & 0xFF;
+			return (raw - paethPredictor(left, above, aboveLeft)) & 0xFF;
+		default:
+			return raw;
+		}
+	}
+
+	private static int paethPredictor(int a, int b, int c) {
+		final int p = a + b - c;
+		final int pa = Math.abs(p - a);
+		final int pb = Math.abs(p - b);
+		final int pc = Math.abs(p - c);
+		if (pa <= pb && pa <= pc) {
+			return a;
+		}
+		if (pb <= pc) {
+			return b;
+		}
+		return c;
+	}
+
+}
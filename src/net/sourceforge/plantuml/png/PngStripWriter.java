@@ -0,0 +1,136 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import net.sourceforge.plantuml.OptionFlags;
+
+/**
+ * Writes a PNG image whose rows are given strip after strip, so that the whole
+ * image never has to be held in memory.
+ * 
+ * The chunks are those written by PngIO, with 8 bits RGB or RGBA samples: the
+ * colors of the whole image are not known in advance, so no palette is used.
+ */
+public class PngStripWriter {
+
+	private final PngChunkWriter writer;
+	private final int width;
+	private final int height;
+	private final int bpp;
+	private final Deflater deflater = new Deflater(OptionFlags.getInstance().getPngCompressionLevel());
+	private final OutputStream idat;
+	private final DeflaterOutputStream zlib;
+	private final PngRowFilter filter;
+
+	private final int[] pixels;
+	private byte[] previous;
+	private byte[] current;
+	private int nbRows;
+
+	public PngStripWriter(OutputStream os, int width, int height, boolean alpha, String metadata, int dpi)
+			throws IOException {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.writer = new PngChunkWriter(os);
+		this.width = width;
+		this.height = height;
+		this.bpp = alpha ? 4 : 3;
+		this.pixels = new int[width];
+		this.previous = new byte[width * bpp];
+		this.current = new byte[width * bpp];
+		this.filter = new PngRowFilter(width * bpp, bpp, true);
+
+		writer.writeHeader(width, height, 8, alpha ? 6 : 2);
+		if (metadata != null) {
+			writer.writeMetadata(metadata, dpi, null);
+		}
+		this.idat = writer.idatOutputStream();
+		this.zlib = new DeflaterOutputStream(idat, deflater, 32768);
+	}
+
+	/**
+	 * Appends the rows of a strip, from its top. The strip must be as wide as
+	 * the image.
+	 */
+	public void write(BufferedImage strip) throws IOException {
+		if (strip.getWidth() != width || nbRows + strip.getHeight() > height) {
+			throw new IllegalArgumentException();
+		}
+		for (int y = 0; y < strip.getHeight(); y++) {
+			if (PngEncoder.canEncode(strip)) {
+				PngEncoder.readRow(strip, y, pixels);
+			} else {
+				strip.getRGB(0, y, width, 1, pixels, 0, width);
+			}
+			int j = 0;
+			for (int x = 0; x < width; x++) {
+				final int argb = pixels[x];
+				current[j++] = (byte) (argb >> 16);
+				current[j++] = (byte) (argb >> 8);
+				current[j++] = (byte) argb;
+				if (bpp == 4) {
+					current[j++] = (byte) (argb >>> 24);
+				}
+			}
+			zlib.write(filter.filter(current, previous));
+			final byte[] tmp = previous;
+			previous = current;
+			current = tmp;
+			nbRows++;
+		}
+	}
+
+	/**
+	 * Ends the image. The underlying stream is not closed.
+	 */
+	public void close() throws IOException {
+		if (nbRows != height) {
+			throw new IllegalStateException("Only " + nbRows + " rows of " + height);
+		}
+		zlib.finish();
+		idat.flush();
+		deflater.end();
+		writer.writeEnd();
+	}
+
+}
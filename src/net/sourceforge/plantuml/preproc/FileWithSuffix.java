@@ -43,6 +43,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -50,6 +51,7 @@ import java.util.zip.ZipInputStream;
 import net.sourceforge.plantuml.AFile;
 import net.sourceforge.plantuml.AFileRegular;
 import net.sourceforge.plantuml.AParentFolder;
+import net.sourceforge.plantuml.LineLocation;
 import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.security.SFile;
 
@@ -96,6 +98,25 @@ public class FileWithSuffix {
 		return new InputStreamReader(is, charset);
 	}
 
+	public ReadLine getReadLine(String charset, String description, LineLocation parent) throws IOException {
+		final List<String> lines = IncludeCache.getInstance().getLines(this, charset);
+		if (lines == null) {
+			return null;
+		}
+		return new ReadLineCached(lines, description, parent);
+	}
+
+	SFile getUnderlyingFile() {
+		if (file == null) {
+			return null;
+		}
+		return file.getUnderlyingFile();
+	}
+
+	String getCacheKey(String charset) {
+		return getUnderlyingFile().getAbsolutePath() + "!" + entry + "!" + charset;
+	}
+
 	private InputStream getDataFromZip(InputStream is, String name) throws IOException {
 		final ZipInputStream zis = new ZipInputStream(is);
 		ZipEntry ze = zis.getNextEntry();
@@ -0,0 +1,168 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.preproc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.security.SFile;
+
+/**
+ * Process-wide cache of the lines of included local files.
+ * 
+ * A file shared by many diagrams (styles, macros...) is read once and then
+ * served from memory, for every thread. An entry is used only while the size
+ * and the modification time of the file are unchanged. Entries are evicted in
+ * LRU order when the total size goes above the limit.
+ */
+public class IncludeCache {
+
+	public static final long DEFAULT_MAX_CHARS = 16L * 1024 * 1024;
+
+	private static final IncludeCache singleton = new IncludeCache(DEFAULT_MAX_CHARS);
+
+	private final long maxChars;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+	private long totalChars;
+
+	static class Entry {
+
+		private final long length;
+		private final long lastModified;
+		private final List<String> lines;
+		private final long chars;
+
+		Entry(long length, long lastModified, List<String> lines) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.lines = Collections.unmodifiableList(lines);
+			long sum = 0;
+			for (String s : lines) {
+				sum += s.length() + 1;
+			}
+			this.chars = sum;
+		}
+
+		boolean isValid(long length, long lastModified) {
+			return this.length == length && this.lastModified == lastModified;
+		}
+	}
+
+	IncludeCache(long maxChars) {
+		this.maxChars = maxChars;
+	}
+
+	public static IncludeCache getInstance() {
+		return singleton;
+	}
+
+	/**
+	 * Returns the lines of a file, as read by {@link ReadLineReader}, or
+	 * <code>null</code> if the file cannot be read.
+	 */
+	public List<String> getLines(FileWithSuffix file, String charset) throws IOException {
+		final SFile underlying = file.getUnderlyingFile();
+		if (underlying == null) {
+			return readLines(file, charset);
+		}
+		final String key = file.getCacheKey(charset);
+		final long length = underlying.length();
+		final long lastModified = underlying.lastModified();
+		final Entry cached = get(key);
+		if (cached != null && cached.isValid(length, lastModified)) {
+			return cached.lines;
+		}
+		final List<String> result = readLines(file, charset);
+		if (result == null || lastModified == 0) {
+			return result;
+		}
+		final Entry entry = new Entry(length, lastModified, result);
+		put(key, entry);
+		return entry.lines;
+	}
+
+	private static List<String> readLines(FileWithSuffix file, String charset) throws IOException {
+		final Reader reader = file.getReader(charset);
+		if (reader == null) {
+			return null;
+		}
+		final ReadLine readLine = ReadLineReader.create(reader, file.getDescription());
+		try {
+			final List<String> result = new ArrayList<String>();
+			StringLocated s;
+			while ((s = readLine.readLine()) != null) {
+				result.add(s.getString());
+			}
+			return result;
+		} finally {
+			readLine.close();
+		}
+	}
+
+	private synchronized Entry get(String key) {
+		return entries.get(key);
+	}
+
+	private synchronized void put(String key, Entry entry) {
+		if (entry.chars > maxChars) {
+			return;
+		}
+		final Entry old = entries.put(key, entry);
+		if (old != null) {
+			totalChars -= old.chars;
+		}
+		totalChars += entry.chars;
+		final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+		while (totalChars > maxChars && it.hasNext()) {
+			totalChars -= it.next().getValue().chars;
+			it.remove();
+		}
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+}
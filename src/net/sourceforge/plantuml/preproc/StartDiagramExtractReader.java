@@ -38,7 +38,6 @@ package net.sourceforge.plantuml.preproc;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 
 import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.StringLocated;
@@ -103,11 +102,11 @@ public class StartDiagramExtractReader implements ReadLine {
 
 	private static ReadLine getReadLine(FileWithSuffix f2, StringLocated s, String charset) {
 		try {
-			final Reader tmp1 = f2.getReader(charset);
+			final ReadLine tmp1 = f2.getReadLine(charset, f2.getDescription(), null);
 			if (tmp1 == null) {
 				return new ReadLineSimple(s, "Cannot open " + f2.getDescription());
 			}
-			return new UncommentReadLine(ReadLineReader.create(tmp1, f2.getDescription()));
+			return new UncommentReadLine(tmp1);
 		} catch (IOException e) {
 			return new ReadLineSimple(s, e.toString());
 		}
@@ -27,11 +27,12 @@ import net.sourceforge.plantuml.security.SFile;
 public class Stdlib {
 
 	private static final Map<String, Stdlib> all = new ConcurrentHashMap<String, Stdlib>();
-	private static final String SEPARATOR = "\uF8FF";
-	private static final Pattern sizePattern = Pattern.compile("\\[(\\d+)x(\\d+)/16\\]");
+	static final String SEPARATOR = "\uF8FF";
+	static final Pattern sizePattern = Pattern.compile("\\[(\\d+)x(\\d+)/16\\]");
 
 	private final Map<String, SoftReference<String>> cache = new ConcurrentHashMap<String, SoftReference<String>>();
 	private final String name;
+	private final StdlibArchive archive;
 	private final Map<String, String> info = new HashMap<String, String>();
 
 	public static InputStream getResourceAsStream(String fullname) {
@@ -59,13 +60,21 @@ public class Stdlib {
 	public static Stdlib retrieve(final String name) throws IOException {
 		Stdlib result = all.get(name);
 		if (result == null) {
+			// StdlibConverter removes the pairs it converts: a pair is newer than the
+			// archive
 			final DataInputStream dataStream = getDataStream(name);
-			if (dataStream == null) {
-				return null;
+			if (dataStream != null) {
+				Log.info("Stdlib " + name + " is read from its legacy pair: run StdlibConverter (ant stdlib-index)");
+				final String info = dataStream.readUTF();
+				dataStream.close();
+				result = new Stdlib(name, null, info);
+			} else {
+				final StdlibArchive archive = StdlibArchive.open(name);
+				if (archive == null) {
+					return null;
+				}
+				result = new Stdlib(name, archive, archive.getInfo());
 			}
-			final String info = dataStream.readUTF();
-			dataStream.close();
-			result = new Stdlib(name, info);
 			all.put(name, result);
 		}
 		return result;
@@ -81,6 +90,27 @@ public class Stdlib {
 			}
 		}
 		Log.info("No cache for " + file);
+		final String result = archive == null ? loadLegacyRessource(file) : loadArchiveRessource(file);
+		if (result != null) {
+			cache.put(file.toLowerCase(), new SoftReference<String>(result));
+		}
+		return result;
+	}
+
+	private String loadArchiveRessource(String file) throws IOException {
+		final DataInputStream dataStream = archive.openFile(file);
+		if (dataStream == null) {
+			Log.info("Not found " + file);
+			return null;
+		}
+		try {
+			return readFile(dataStream, dataStream, true);
+		} finally {
+			dataStream.close();
+		}
+	}
+
+	private String loadLegacyRessource(String file) throws IOException {
 		final DataInputStream dataStream = getDataStream();
 		if (dataStream == null) {
 			return null;
@@ -92,60 +122,59 @@ public class Stdlib {
 			return null;
 		}
 		try {
-			StringBuilder found = null;
 			while (true) {
 				final String filename = dataStream.readUTF();
 				if (filename.equals(SEPARATOR)) {
 					Log.info("Not found " + filename);
 					return null;
 				}
-				if (filename.equalsIgnoreCase(file)) {
-					found = new StringBuilder();
-				}
-				while (true) {
-					final String s = dataStream.readUTF();
-					if (s.equals(SEPARATOR)) {
-						if (found != null) {
-							final String result = found.toString();
-							cache.put(file.toLowerCase(), new SoftReference<String>(result));
-							return result;
-						}
-						break;
-					}
-					if (found != null) {
-						found.append(s);
-						found.append("\n");
-					}
-					if (isSpriteLine(s)) {
-						final Matcher m = sizePattern.matcher(s);
-						final boolean ok = m.find();
-						if (ok == false) {
-							throw new IOException(s);
-						}
-						final int width = Integer.parseInt(m.group(1));
-						final int height = Integer.parseInt(m.group(2));
-						if (found == null) {
-							skipSprite(width, height, spriteStream);
-						} else {
-							final String sprite = readSprite(width, height, spriteStream);
-							found.append(sprite);
-							found.append("}\n");
-						}
-					}
+				final boolean found = filename.equalsIgnoreCase(file);
+				final String result = readFile(dataStream, spriteStream, found);
+				if (found) {
+					return result;
 				}
 			}
 		} finally {
 			dataStream.close();
 			spriteStream.close();
 		}
+	}
 
+	private String readFile(DataInputStream dataStream, InputStream spriteStream, boolean keep) throws IOException {
+		final StringBuilder found = keep ? new StringBuilder() : null;
+		while (true) {
+			final String s = dataStream.readUTF();
+			if (s.equals(SEPARATOR)) {
+				return found == null ? null : found.toString();
+			}
+			if (found != null) {
+				found.append(s);
+				found.append("\n");
+			}
+			if (isSpriteLine(s)) {
+				final Matcher m = sizePattern.matcher(s);
+				final boolean ok = m.find();
+				if (ok == false) {
+					throw new IOException(s);
+				}
+				final int width = Integer.parseInt(m.group(1));
+				final int height = Integer.parseInt(m.group(2));
+				if (found == null) {
+					skipSprite(width, height, spriteStream);
+				} else {
+					final String sprite = readSprite(width, height, spriteStream);
+					found.append(sprite);
+					found.append("}\n");
+				}
+			}
+		}
 	}
 
-	private Stdlib(String name, String info) throws IOException {
+	private Stdlib(String name, StdlibArchive archive, String info) throws IOException {
 		this.name = name;
+		this.archive = archive;
 		fillMap(info);
 	}
-
 	private void skipSprite(int width, int height, InputStream inputStream) throws IOException {
 		final int nbLines = (height + 1) / 2;
 		inputStream.skip(nbLines * width);
@@ -181,7 +210,7 @@ public class Stdlib {
 		return Integer.toHexString(b).toUpperCase();
 	}
 
-	private boolean isSpriteLine(String s) {
+	static boolean isSpriteLine(String s) {
 		return s.trim().startsWith("sprite") && s.trim().endsWith("{");
 	}
 
@@ -238,6 +267,16 @@ public class Stdlib {
 	}
 
 	private void extractMeFull() throws IOException {
+		if (archive != null) {
+			for (String filename : archive.getFilenames()) {
+				final SFile f = new SFile("stdlib/" + name + "/" + filename + ".puml");
+				f.getParentFile().mkdirs();
+				final PrintWriter fos = f.createPrintWriter();
+				fos.print(loadArchiveRessource(filename));
+				fos.close();
+			}
+			return;
+		}
 		final DataInputStream dataStream = getDataStream();
 		if (dataStream == null) {
 			return;
@@ -282,6 +321,12 @@ public class Stdlib {
 
 	public List<String> extractAllSprites() throws IOException {
 		final List<String> result = new ArrayList<String>();
+		if (archive != null) {
+			for (String filename : archive.getFilenames()) {
+				addSprites(result, loadArchiveRessource(filename));
+			}
+			return Collections.unmodifiableList(result);
+		}
 		final DataInputStream dataStream = getDataStream();
 		if (dataStream == null) {
 			return Collections.unmodifiableList(result);
@@ -320,6 +365,25 @@ public class Stdlib {
 		}
 	}
 
+	private void addSprites(List<String> result, String data) {
+		StringBuilder sprite = null;
+		for (String s : data.split("\n")) {
+			if (sprite == null) {
+				if (isSpriteLine(s) && s.contains("_LARGE") == false) {
+					sprite = new StringBuilder(s);
+					sprite.append("\n");
+				}
+			} else if (s.equals("}")) {
+				sprite.append(s);
+				result.add(sprite.toString());
+				sprite = null;
+			} else {
+				sprite.append(s);
+				sprite.append("\n");
+			}
+		}
+	}
+
 	public static void addInfoVersion(List<String> strings, boolean details) {
 		try {
 			for (String name : getAll()) {
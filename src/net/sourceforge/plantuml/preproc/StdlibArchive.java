@@ -0,0 +1,271 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.preproc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Indexed stdlib archive (<code>-idx.repx</code>).
+ * 
+ * Each file is deflated on its own, in the layout of the legacy
+ * <code>-abx.repx</code> / <code>-dex.repx</code> pair: <code>writeUTF</code>
+ * lines ended by the separator, the bytes of each sprite following its sprite
+ * line. A deflated directory gives the position and the sizes of each file, so
+ * reading a file only inflates that file instead of the whole library. When
+ * the archive is a plain file, it is memory-mapped; inside a jar, its
+ * compressed content is kept in memory.
+ */
+class StdlibArchive {
+
+	public static final String EXTENSION = "-idx.repx";
+
+	private static final int MAGIC = 0x50555833;
+
+	private final URL url;
+	private final String info;
+	private final List<String> filenames = new ArrayList<String>();
+	private final Map<String, int[]> directory = new HashMap<String, int[]>();
+	private final int dataStart;
+	private final ByteBuffer mapped;
+	private SoftReference<byte[]> content = new SoftReference<byte[]>(null);
+
+	private StdlibArchive(URL url, DataInputStream dis) throws IOException {
+		this.url = url;
+		if (dis.readInt() != MAGIC) {
+			throw new IOException("Not a stdlib archive " + url);
+		}
+		final int directorySize = dis.readInt();
+		final byte compressedDirectory[] = new byte[directorySize];
+		dis.readFully(compressedDirectory);
+		this.dataStart = 8 + directorySize;
+		final DataInputStream dir = new DataInputStream(
+				new InflaterInputStream(new ByteArrayInputStream(compressedDirectory)));
+		this.info = dir.readUTF();
+		final int nb = dir.readInt();
+		int offset = 0;
+		for (int i = 0; i < nb; i++) {
+			final String filename = dir.readUTF();
+			final int entry[] = new int[] { offset, dir.readInt(), dir.readInt() };
+			offset += entry[1];
+			filenames.add(filename);
+			directory.put(filename.toLowerCase(), entry);
+		}
+		dir.close();
+		this.mapped = map(url);
+	}
+
+	static StdlibArchive open(String name) throws IOException {
+		final URL url = StdlibArchive.class.getResource("/stdlib/" + name + EXTENSION);
+		if (url == null) {
+			return null;
+		}
+		return open(url);
+	}
+
+	static StdlibArchive open(URL url) throws IOException {
+		final DataInputStream dis = new DataInputStream(url.openStream());
+		try {
+			return new StdlibArchive(url, dis);
+		} finally {
+			dis.close();
+		}
+	}
+
+	private static ByteBuffer map(URL url) {
+		if ("file".equals(url.getProtocol()) == false) {
+			return null;
+		}
+		try {
+			final RandomAccessFile raf = new RandomAccessFile(new File(url.toURI()), "r");
+			try {
+				return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+			} finally {
+				raf.close();
+			}
+		} catch (IOException e) {
+			return null;
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	public String getInfo() {
+		return info;
+	}
+
+	public List<String> getFilenames() {
+		return Collections.unmodifiableList(filenames);
+	}
+
+	public DataInputStream openFile(String filename) throws IOException {
+		final int entry[] = directory.get(filename.toLowerCase());
+		if (entry == null) {
+			return null;
+		}
+		final byte result[] = new byte[entry[2]];
+		final Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(readBytes(dataStart + entry[0], entry[1]));
+			int done = 0;
+			while (done < result.length) {
+				final int n = inflater.inflate(result, done, result.length - done);
+				if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					throw new EOFException("Truncated entry " + filename + " in " + url);
+				}
+				done += n;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e.toString());
+		} finally {
+			inflater.end();
+		}
+		return new DataInputStream(new ByteArrayInputStream(result));
+	}
+
+	private byte[] readBytes(int position, int length) throws IOException {
+		final byte result[] = new byte[length];
+		if (mapped != null) {
+			final ByteBuffer buffer = mapped.duplicate();
+			buffer.position(position);
+			buffer.get(result);
+		} else {
+			System.arraycopy(getContent(), position, result, 0, length);
+		}
+		return result;
+	}
+
+	private synchronized byte[] getContent() throws IOException {
+		byte result[] = content.get();
+		if (result == null) {
+			final InputStream is = url.openStream();
+			try {
+				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				final byte buffer[] = new byte[8192];
+				int n;
+				while ((n = is.read(buffer)) != -1) {
+					baos.write(buffer, 0, n);
+				}
+				result = baos.toByteArray();
+			} finally {
+				is.close();
+			}
+			content = new SoftReference<byte[]>(result);
+		}
+		return result;
+	}
+
+	static class Writer {
+
+		private final String info;
+		private final List<String> filenames = new ArrayList<String>();
+		private final List<byte[]> compressed = new ArrayList<byte[]>();
+		private final List<Integer> rawSizes = new ArrayList<Integer>();
+
+		Writer(String info) {
+			this.info = info;
+		}
+
+		/**
+		 * @param raw
+		 *            the file in the legacy layout: <code>writeUTF</code> lines
+		 *            ended by the separator, the bytes of each sprite following
+		 *            its sprite line.
+		 */
+		void add(String filename, byte raw[]) throws IOException {
+			filenames.add(filename);
+			compressed.add(deflate(raw));
+			rawSizes.add(raw.length);
+		}
+
+		private static byte[] deflate(byte data[]) throws IOException {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+			final DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater);
+			dos.write(data);
+			dos.close();
+			deflater.end();
+			return baos.toByteArray();
+		}
+
+		void write(OutputStream os) throws IOException {
+			final ByteArrayOutputStream dir = new ByteArrayOutputStream();
+			final DataOutputStream dos = new DataOutputStream(dir);
+			dos.writeUTF(info);
+			dos.writeInt(filenames.size());
+			for (int i = 0; i < filenames.size(); i++) {
+				dos.writeUTF(filenames.get(i));
+				dos.writeInt(compressed.get(i).length);
+				dos.writeInt(rawSizes.get(i));
+			}
+			dos.close();
+			final byte compressedDirectory[] = deflate(dir.toByteArray());
+
+			final DataOutputStream out = new DataOutputStream(os);
+			out.writeInt(MAGIC);
+			out.writeInt(compressedDirectory.length);
+			out.write(compressedDirectory);
+			for (byte[] d : compressed) {
+				out.write(d);
+			}
+			out.flush();
+		}
+	}
+
+}
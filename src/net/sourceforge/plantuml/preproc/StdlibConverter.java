@@ -0,0 +1,141 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.preproc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+
+import net.sourceforge.plantuml.brotli.BrotliInputStream;
+
+/**
+ * Build-time tool converting the legacy <code>-abx.repx</code> /
+ * <code>-dex.repx</code> pairs of a stdlib folder into indexed
+ * <code>-idx.repx</code> archives. Libraries delivered as a pair replace their
+ * archive, and the pair is removed once converted. Libraries without a pair are
+ * left untouched.
+ * 
+ * <pre>
+ * java -cp plantuml.jar net.sourceforge.plantuml.preproc.StdlibConverter stdlib
+ * </pre>
+ */
+public class StdlibConverter {
+
+	public static void main(String[] args) throws IOException {
+		final File dir = new File(args.length == 0 ? "stdlib" : args[0]);
+		final BufferedReader br = new BufferedReader(new FileReader(new File(dir, "home.repx")));
+		try {
+			String name;
+			while ((name = br.readLine()) != null) {
+				if (name.length() > 0 && new File(dir, name + "-abx.repx").exists()) {
+					convert(dir, name);
+				}
+			}
+		} finally {
+			br.close();
+		}
+	}
+
+	public static void convert(File dir, String name) throws IOException {
+		final DataInputStream dataStream = new DataInputStream(
+				new BrotliInputStream(new BufferedInputStream(new FileInputStream(new File(dir, name + "-abx.repx")))));
+		final InputStream spriteStream = new BrotliInputStream(
+				new BufferedInputStream(new FileInputStream(new File(dir, name + "-dex.repx"))));
+		try {
+			final StdlibArchive.Writer writer = new StdlibArchive.Writer(dataStream.readUTF());
+			while (true) {
+				final String filename = dataStream.readUTF();
+				if (filename.equals(Stdlib.SEPARATOR)) {
+					break;
+				}
+				writer.add(filename, readFile(dataStream, spriteStream));
+			}
+			final OutputStream os = new FileOutputStream(new File(dir, name + StdlibArchive.EXTENSION));
+			try {
+				writer.write(os);
+			} finally {
+				os.close();
+			}
+		} finally {
+			dataStream.close();
+			spriteStream.close();
+		}
+		// Stdlib reads a pair instead of the archive: do not leave it behind
+		new File(dir, name + "-abx.repx").delete();
+		new File(dir, name + "-dex.repx").delete();
+	}
+
+	private static byte[] readFile(DataInputStream dataStream, InputStream spriteStream) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(baos);
+		while (true) {
+			final String s = dataStream.readUTF();
+			dos.writeUTF(s);
+			if (s.equals(Stdlib.SEPARATOR)) {
+				dos.close();
+				return baos.toByteArray();
+			}
+			if (Stdlib.isSpriteLine(s)) {
+				final Matcher m = Stdlib.sizePattern.matcher(s);
+				if (m.find() == false) {
+					throw new IOException(s);
+				}
+				final int width = Integer.parseInt(m.group(1));
+				final int height = Integer.parseInt(m.group(2));
+				final int nbBytes = (height + 1) / 2 * width;
+				for (int i = 0; i < nbBytes; i++) {
+					final int read = spriteStream.read();
+					if (read == -1) {
+						throw new EOFException("Sprite data too short for " + s);
+					}
+					dos.write(read);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.project;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+import net.sourceforge.plantuml.project.time.Day;
+
+/**
+ * Snapshot of a LoadPlanable as a weekly pattern plus the days that do not
+ * follow it.
+ * 
+ * Days are identified by their absolute day number. The load of several
+ * consecutive days is computed with the sums of the weekly pattern and the
+ * prefix sums of the differences found on special days, so it does not depend
+ * on the length of the period.
+ */
+public final class LoadCalendar {
+
+	private final int[] week = new int[7];
+	private final long[] weekSums = new long[15];
+	private final int[] days;
+	private final long[] deltas;
+
+	private LoadCalendar(int[] days) {
+		this.days = days;
+		this.deltas = new long[days.length + 1];
+	}
+
+	/**
+	 * The plan must give the same load to all days having the same day of week,
+	 * except for the special days.
+	 */
+	public static LoadCalendar create(LoadPlanable plan, Collection<Day> specialDays) {
+		final TreeSet<Integer> sorted = new TreeSet<Integer>();
+		for (Day day : specialDays) {
+			sorted.add(day.getAbsoluteDayNum());
+		}
+		final int[] days = new int[sorted.size()];
+		int i = 0;
+		for (Integer day : sorted) {
+			days[i++] = day;
+		}
+		final LoadCalendar result = new LoadCalendar(days);
+		for (int r = 0; r < 7; r++) {
+			int day = r;
+			while (Arrays.binarySearch(days, day) >= 0) {
+				day += 7;
+			}
+			result.week[r] = plan.getLoadAt(toDay(day));
+		}
+		for (int j = 0; j < 14; j++) {
+			result.weekSums[j + 1] = result.weekSums[j] + result.week[j % 7];
+		}
+		for (int j = 0; j < days.length; j++) {
+			final int delta = plan.getLoadAt(toDay(days[j])) - result.week[mod7(days[j])];
+			result.deltas[j + 1] = result.deltas[j] + delta;
+		}
+		return result;
+	}
+
+	private static Day toDay(int day) {
+		return Day.create(Day.MILLISECONDS_PER_DAY * day);
+	}
+
+	private static int mod7(int day) {
+		return ((day % 7) + 7) % 7;
+	}
+
+	private int firstIndexFrom(int day) {
+		final int idx = Arrays.binarySearch(days, day);
+		return idx >= 0 ? idx : -idx - 1;
+	}
+
+	public int getLoadAt(int day) {
+		return (int) getLoad(day, day);
+	}
+
+	/**
+	 * Total load from day <code>from</code> to day <code>to</code>, both
+	 * included.
+	 */
+	public long getLoad(int from, int to) {
+		if (to < from) {
+			return 0;
+		}
+		final int nb = to - from + 1;
+		final int r = mod7(from);
+		final long periodic = (nb / 7) * weekSums[7] + weekSums[r + nb % 7] - weekSums[r];
+		return periodic + deltas[firstIndexFrom(to + 1)] - deltas[firstIndexFrom(from)];
+	}
+
+	/**
+	 * First day <code>end</code> such that the load from <code>from</code> to
+	 * <code>end</code> reaches <code>load</code>, searching over
+	 * <code>maxDays</code> days.
+	 * 
+	 * @return <code>from + maxDays</code> if the load is not reached
+	 */
+	public int getEnd(int from, long load, int maxDays) {
+		int lo = from;
+		int hi = from + maxDays - 1;
+		if (getLoad(from, hi) < load) {
+			return from + maxDays;
+		}
+		while (lo < hi) {
+			final int mid = lo + (hi - lo) / 2;
+			if (getLoad(from, mid) >= load) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Last day <code>start</code> such that the load from <code>start</code> to
+	 * <code>to</code> reaches <code>load</code>, searching down to day
+	 * <code>min</code>.
+	 * 
+	 * @return <code>min - 1</code> if the load is not reached
+	 */
+	public int getStart(int to, long load, int min) {
+		int lo = min;
+		int hi = to;
+		if (getLoad(min, to) < load) {
+			return min - 1;
+		}
+		while (lo < hi) {
+			final int mid = hi - (hi - lo) / 2;
+			if (getLoad(mid, to) >= load) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+}
@@ -50,6 +50,7 @@ public class OpenClose implements Histogram, LoadPlanable {
 	private final Collection<Day> closedDays = new HashSet<Day>();
 	private final Collection<Day> openedDays = new HashSet<Day>();
 	private Day calendar;
+	private int version;
 
 	public int daysInWeek() {
 		return 7 - closedDayOfWeek.size();
@@ -95,14 +96,34 @@ public class OpenClose implements Histogram, LoadPlanable {
 
 	public void close(DayOfWeek day) {
 		closedDayOfWeek.add(day);
+		version++;
 	}
 
 	public void close(Day day) {
 		closedDays.add(day);
+		version++;
 	}
 
 	public void open(Day day) {
 		openedDays.add(day);
+		version++;
+	}
+
+	/**
+	 * Days whose load may differ from the other days of the same day of week.
+	 */
+	public Collection<Day> getSpecialDays() {
+		final Collection<Day> result = new HashSet<Day>(closedDays);
+		result.addAll(openedDays);
+		return result;
+	}
+
+	/**
+	 * Changes each time a day or a day of week is opened or closed, or when the
+	 * calendar is set.
+	 */
+	public int getVersion() {
+		return version;
 	}
 
 	public final Day getCalendar() {
@@ -111,6 +132,7 @@ public class OpenClose implements Histogram, LoadPlanable {
 
 	public final void setCalendar(Day calendar) {
 		this.calendar = calendar;
+		version++;
 	}
 
 	public long getNext(long moment) {
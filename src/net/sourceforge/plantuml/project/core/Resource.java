@@ -79,6 +79,10 @@ public class Resource {
 		this.draw = draw;
 	}
 
+	OpenClose getOpenClose() {
+		return openClose;
+	}
+
 	public boolean isClosedAt(Day day) {
 		return openClose.isClosed(day);
 	}
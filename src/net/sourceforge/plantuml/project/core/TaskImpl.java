@@ -48,6 +48,7 @@ import java.util.TreeSet;
 import net.sourceforge.plantuml.Url;
 import net.sourceforge.plantuml.cucadiagram.Display;
 import net.sourceforge.plantuml.project.Load;
+import net.sourceforge.plantuml.project.LoadCalendar;
 import net.sourceforge.plantuml.project.LoadPlanable;
 import net.sourceforge.plantuml.project.OpenClose;
 import net.sourceforge.plantuml.project.PlanUtils;
@@ -64,9 +65,12 @@ public class TaskImpl extends AbstractTask implements Task, LoadPlanable {
 	private final Set<DayOfWeek> pausedDayOfWeek = new HashSet<DayOfWeek>();
 	private final Solver solver;
 	private final Map<Resource, Integer> resources = new LinkedHashMap<Resource, Integer>();
-	private final LoadPlanable defaultPlan;
+	private final OpenClose defaultPlan;
 	private boolean diamond;
 
+	private LoadCalendar loadCalendar;
+	private int loadCalendarVersion;
+
 	private int completion = 100;
 	private Display note;
 
@@ -126,10 +130,38 @@ public class TaskImpl extends AbstractTask implements Task, LoadPlanable {
 
 	public void addPause(Day pause) {
 		this.pausedDay.add(pause);
+		this.loadCalendar = null;
 	}
 
 	public void addPause(DayOfWeek pause) {
 		this.pausedDayOfWeek.add(pause);
+		this.loadCalendar = null;
+	}
+
+	/**
+	 * The result of getLoadAt() for all days, rebuilt when a pause, a resource or
+	 * an open/close day is added.
+	 */
+	public LoadCalendar getLoadCalendar() {
+		final int version = getLoadCalendarVersion();
+		if (loadCalendar == null || loadCalendarVersion != version) {
+			final Set<Day> specialDays = new HashSet<Day>(pausedDay);
+			specialDays.addAll(defaultPlan.getSpecialDays());
+			for (Resource res : resources.keySet()) {
+				specialDays.addAll(res.getOpenClose().getSpecialDays());
+			}
+			loadCalendar = LoadCalendar.create(this, specialDays);
+			loadCalendarVersion = version;
+		}
+		return loadCalendar;
+	}
+
+	private int getLoadCalendarVersion() {
+		int result = defaultPlan.getVersion();
+		for (Resource res : resources.keySet()) {
+			result += res.getOpenClose().getVersion();
+		}
+		return result;
 	}
 
 	private LoadPlanable getRessourcePlan() {
@@ -184,11 +216,16 @@ public class TaskImpl extends AbstractTask implements Task, LoadPlanable {
 	}
 
 	public Day getStart() {
-		Day result = (Day) solver.getData(TaskAttribute.START);
-		while (getLoadAt(result) == 0) {
-			result = result.increment();
+		final Day result = (Day) solver.getData(TaskAttribute.START);
+		final int from = result.getAbsoluteDayNum();
+		final int firstWorkingDay = getLoadCalendar().getEnd(from, 1, SolverImpl.MAX_DAYS);
+		if (firstWorkingDay == from) {
+			return result;
 		}
-		return result;
+		if (firstWorkingDay - from >= SolverImpl.MAX_DAYS) {
+			throw new IllegalStateException();
+		}
+		return result.addDays(firstWorkingDay - from);
 	}
 
 	public Day getEnd() {
@@ -217,6 +254,7 @@ public class TaskImpl extends AbstractTask implements Task, LoadPlanable {
 
 	public void addResource(Resource resource, int percentage) {
 		this.resources.put(resource, percentage);
+		this.loadCalendar = null;
 	}
 
 	public void setDiamond(boolean diamond) {
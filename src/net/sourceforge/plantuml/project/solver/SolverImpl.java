@@ -36,51 +36,63 @@
 package net.sourceforge.plantuml.project.solver;
 
 import net.sourceforge.plantuml.project.Load;
-import net.sourceforge.plantuml.project.LoadPlanable;
 import net.sourceforge.plantuml.project.core.TaskAttribute;
+import net.sourceforge.plantuml.project.core.TaskImpl;
 import net.sourceforge.plantuml.project.time.Day;
 
 public class SolverImpl extends AbstractSolver implements Solver {
 
-	private final LoadPlanable loadPlanable;
+	/**
+	 * Longest period searched for the load of a task.
+	 */
+	public static final int MAX_DAYS = 100000;
 
-	public SolverImpl(LoadPlanable loadPlanable) {
-		this.loadPlanable = loadPlanable;
+	private final TaskImpl task;
+
+	public SolverImpl(TaskImpl task) {
+		this.task = task;
 	}
 
 	@Override
 	protected Day computeEnd() {
-		Day current = (Day) values.get(TaskAttribute.START);
-		int fullLoad = ((Load) values.get(TaskAttribute.LOAD)).getFullLoad();
-		int cpt = 0;
-		while (fullLoad > 0) {
-			fullLoad -= loadPlanable.getLoadAt(current);
-			current = current.increment();
-			cpt++;
-			if (cpt > 100000) {
-				throw new IllegalStateException();
-			}
+		final Day start = (Day) values.get(TaskAttribute.START);
+		final int fullLoad = ((Load) values.get(TaskAttribute.LOAD)).getFullLoad();
+		if (fullLoad <= 0) {
+			return start.decrement();
+		}
+		final int from = start.getAbsoluteDayNum();
+		final int end = task.getLoadCalendar().getEnd(from, fullLoad, MAX_DAYS);
+		if (end - from >= MAX_DAYS) {
+			throw new IllegalStateException();
 		}
-		return current.decrement();
+		return start.addDays(end - from);
 	}
 
 	@Override
 	protected Day computeStart() {
-		Day current = (Day) values.get(TaskAttribute.END);
-		int fullLoad = ((Load) values.get(TaskAttribute.LOAD)).getFullLoad();
-		int cpt = 0;
-		while (fullLoad > 0) {
-			fullLoad -= loadPlanable.getLoadAt(current);
-			current = current.decrement();
-			if (current.getMillis() <= 0) {
-				return current;
-			}
-			cpt++;
-			if (cpt > 100000) {
+		final Day end = (Day) values.get(TaskAttribute.END);
+		final int fullLoad = ((Load) values.get(TaskAttribute.LOAD)).getFullLoad();
+		if (fullLoad <= 0) {
+			return end.increment();
+		}
+		final int to = end.getAbsoluteDayNum();
+		if (to <= 0) {
+			return end.decrement();
+		}
+		// Tasks never start before the first day of the time line (day 0), and
+		// reaching day 1 already gives day 0
+		final int min = Math.max(2, to - MAX_DAYS);
+		final int start = task.getLoadCalendar().getStart(to, fullLoad, min);
+		if (start < min) {
+			if (to - MAX_DAYS >= 2) {
 				throw new IllegalStateException();
 			}
+			return end.addDays(-to);
+		}
+		if (to - start >= MAX_DAYS) {
+			throw new IllegalStateException();
 		}
-		return current.increment();
+		return end.addDays(start - to);
 	}
 
 }
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 
 abstract class AbstractReal implements Real {
 
@@ -51,6 +53,20 @@ abstract class AbstractReal implements Real {
 
 	abstract double getCurrentValueInternal();
 
+	/**
+	 * Adds the RealImpl this value is computed from.
+	 * 
+	 * @return false if some of them are unknown
+	 */
+	abstract boolean collectVariables(Set<RealImpl> result);
+
+	static boolean collectVariables(Real real, Set<RealImpl> result) {
+		if (real instanceof AbstractReal) {
+			return ((AbstractReal) real).collectVariables(result);
+		}
+		return false;
+	}
+
 	final public double getCurrentValue() {
 		final double result = getCurrentValueInternal();
 		line.register(result);
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 class PositiveForce {
 
 	private final Real fixedPoint;
@@ -59,6 +61,14 @@ class PositiveForce {
 		return "PositiveForce fixed=" + fixedPoint + " moving=" + movingPoint + " min=" + minimunDistance;
 	}
 
+	RealImpl getMovedVariable() {
+		return movingPoint.getMovedVariable();
+	}
+
+	boolean collectFixedVariables(Set<RealImpl> result) {
+		return AbstractReal.collectVariables(fixedPoint, result);
+	}
+
 	public boolean apply() {
 		if (trace) {
 			System.err.println("apply " + this);
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 class RealDelta extends RealMoveable {
 
 	private final Real delegated;
@@ -59,6 +61,19 @@ class RealDelta extends RealMoveable {
 		delegated.ensureBiggerThan(new RealDelta(other, -diff));
 	}
 
+	@Override
+	boolean collectVariables(Set<RealImpl> result) {
+		return collectVariables(delegated, result);
+	}
+
+	@Override
+	RealImpl getMovedVariable() {
+		if (delegated instanceof RealMoveable) {
+			return ((RealMoveable) delegated).getMovedVariable();
+		}
+		return null;
+	}
+
 	void move(double delta) {
 		((RealMoveable) delegated).move(delta);
 	}
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 class RealImpl extends RealMoveable implements RealOrigin {
 
 	private double currentValue;
@@ -53,6 +55,17 @@ class RealImpl extends RealMoveable implements RealOrigin {
 		return currentValue;
 	}
 
+	@Override
+	boolean collectVariables(Set<RealImpl> result) {
+		result.add(this);
+		return true;
+	}
+
+	@Override
+	RealImpl getMovedVariable() {
+		return this;
+	}
+
 	public Real addAtLeast(double delta) {
 		final RealImpl result = new RealImpl(getName() + ".addAtLeast" + delta, getLine(), this.currentValue + delta);
 		getLine().addForce(new PositiveForce(this, result, delta));
@@ -35,13 +35,17 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import net.sourceforge.plantuml.Log;
+
 class RealLine {
 
 	private final List<PositiveForce> forces = new ArrayList<PositiveForce>();
@@ -75,6 +79,25 @@ class RealLine {
 	static private int CPT;
 
 	public void compile() {
+		final List<PositiveForce> sorted = sortForces();
+		final int cpt = relax(sorted == null ? forces : sorted);
+		CPT += cpt;
+		Log.info("RealLine: " + forces.size() + " forces, " + cpt + " iterations"
+				+ (sorted == null ? " (unsorted)" : ""));
+		min = 0;
+		max = 0;
+		for (AbstractReal real : all) {
+			final double v = real.getCurrentValue();
+			if (v > max) {
+				max = v;
+			}
+			if (v < min) {
+				min = v;
+			}
+		}
+	}
+
+	private int relax(List<PositiveForce> forces) {
 		int cpt = 0;
 		final Map<PositiveForce, Integer> counter = new HashMap<PositiveForce, Integer>();
 		do {
@@ -89,23 +112,7 @@ class RealLine {
 				}
 			}
 			if (done) {
-				// System.err.println("cpt=" + cpt + " size=" + forces.size());
-				CPT += cpt;
-				// System.err.println("CPT=" + CPT);
-				min = 0;
-				max = 0;
-				for (AbstractReal real : all) {
-					final double v = real.getCurrentValue();
-					// System.err.println("RealLine::compile v=" + v);
-					if (v > max) {
-						max = v;
-					}
-					if (v < min) {
-						min = v;
-					}
-				}
-				// System.err.println("RealLine::compile min=" + min + " max=" + max);
-				return;
+				return cpt;
 			}
 			cpt++;
 			if (cpt > 99999) {
@@ -113,7 +120,76 @@ class RealLine {
 				throw new IllegalStateException("Inifinite Loop?");
 			}
 		} while (true);
+	}
+
+	/**
+	 * Sorts the forces so that a force is applied only once all the RealImpl its
+	 * fixed point depends on are settled. When every force moves a single RealImpl,
+	 * relaxation gives the same positions in any order, and in this order it
+	 * converges after one pass.
+	 * 
+	 * @return null if there is a cycle, or if some force cannot be analyzed
+	 */
+	private List<PositiveForce> sortForces() {
+		final Map<RealImpl, Integer> pendingMoves = new HashMap<RealImpl, Integer>();
+		final Map<RealImpl, List<PositiveForce>> readers = new HashMap<RealImpl, List<PositiveForce>>();
+		final List<Set<RealImpl>> dependencies = new ArrayList<Set<RealImpl>>();
+		for (PositiveForce f : forces) {
+			final RealImpl moved = f.getMovedVariable();
+			final Set<RealImpl> deps = new HashSet<RealImpl>();
+			if (moved == null || f.collectFixedVariables(deps) == false) {
+				return null;
+			}
+			dependencies.add(deps);
+			final Integer count = pendingMoves.get(moved);
+			pendingMoves.put(moved, count == null ? 1 : count + 1);
+			for (RealImpl dep : deps) {
+				List<PositiveForce> list = readers.get(dep);
+				if (list == null) {
+					list = new ArrayList<PositiveForce>();
+					readers.put(dep, list);
+				}
+				list.add(f);
+			}
+		}
+
+		final Map<PositiveForce, Integer> pendingDeps = new HashMap<PositiveForce, Integer>();
+		final Deque<PositiveForce> ready = new ArrayDeque<PositiveForce>();
+		for (int i = 0; i < forces.size(); i++) {
+			int count = 0;
+			for (RealImpl dep : dependencies.get(i)) {
+				if (pendingMoves.containsKey(dep)) {
+					count++;
+				}
+			}
+			pendingDeps.put(forces.get(i), count);
+			if (count == 0) {
+				ready.add(forces.get(i));
+			}
+		}
 
+		final List<PositiveForce> result = new ArrayList<PositiveForce>(forces.size());
+		while (ready.isEmpty() == false) {
+			final PositiveForce f = ready.poll();
+			result.add(f);
+			final RealImpl moved = f.getMovedVariable();
+			final int count = pendingMoves.get(moved) - 1;
+			pendingMoves.put(moved, count);
+			if (count > 0 || readers.get(moved) == null) {
+				continue;
+			}
+			for (PositiveForce reader : readers.get(moved)) {
+				final int deps = pendingDeps.get(reader) - 1;
+				pendingDeps.put(reader, deps);
+				if (deps == 0) {
+					ready.add(reader);
+				}
+			}
+		}
+		if (result.size() < forces.size()) {
+			return null;
+		}
+		return result;
 	}
 
 	private void printCounter(Map<PositiveForce, Integer> counter) {
@@ -38,6 +38,7 @@ package net.sourceforge.plantuml.real;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 class RealMax extends AbstractReal implements Real {
 
@@ -80,6 +81,16 @@ class RealMax extends AbstractReal implements Real {
 		return result;
 	}
 
+	@Override
+	boolean collectVariables(Set<RealImpl> result) {
+		for (Real r : all) {
+			if (collectVariables(r, result) == false) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public Real addFixed(double delta) {
 		return new RealDelta(this, delta);
 	}
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 class RealMiddle extends AbstractReal implements Real {
 
 	private final RealMoveable p1;
@@ -57,6 +59,11 @@ class RealMiddle extends AbstractReal implements Real {
 		return (p1.getCurrentValue() + p2.getCurrentValue()) / 2 + delta;
 	}
 
+	@Override
+	boolean collectVariables(Set<RealImpl> result) {
+		return p1.collectVariables(result) && p2.collectVariables(result);
+	}
+
 	public Real addFixed(double diff) {
 		return new RealMiddle(p1, p2, delta + diff);
 	}
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Set;
+
 class RealMiddle2 extends RealMoveable {
 
 	private final RealMoveable p1;
@@ -64,6 +66,17 @@ class RealMiddle2 extends RealMoveable {
 		getLine().addForce(new PositiveForce(other, this, 0));
 	}
 
+	@Override
+	boolean collectVariables(Set<RealImpl> result) {
+		return p1.collectVariables(result) && p2.collectVariables(result);
+	}
+
+	@Override
+	RealImpl getMovedVariable() {
+		// Both points are moved
+		return null;
+	}
+
 	@Override
 	void move(double delta) {
 		p1.move(delta / 2);
@@ -53,6 +53,11 @@ abstract class RealMoveable extends AbstractReal implements Real {
 
 	abstract void move(double delta);
 
+	/**
+	 * @return the only RealImpl changed by move(), or null
+	 */
+	abstract RealImpl getMovedVariable();
+
 	final public void printCreationStackTrace() {
 		creationPoint.printStackTrace();
 	}
@@ -66,6 +66,8 @@ import h.ST_boxf;
 import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.FontParam;
 import net.sourceforge.plantuml.ISkinParam;
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.OptionFlags;
 import net.sourceforge.plantuml.StringUtils;
 import net.sourceforge.plantuml.UmlDiagram;
 import net.sourceforge.plantuml.api.ImageDataSimple;
@@ -106,6 +108,7 @@ import net.sourceforge.plantuml.ugraphic.UTranslate;
 import net.sourceforge.plantuml.ugraphic.color.HColor;
 import smetana.core.CString;
 import smetana.core.JUtils;
+import smetana.core.LayoutBudgetExceededException;
 import smetana.core.Macro;
 import smetana.core.Z;
 import smetana.core.debug.SmetanaDebug;
@@ -405,7 +408,11 @@ public class CucaDiagramFileMakerSmetana implements CucaDiagramFileMaker {
 			printEntityNew(leaf);
 		}
 
-		Z.open();
+		if (diagram.getPragma().useCdt()) {
+			Z.open(OptionFlags.getInstance().createSmetanaBudget(), true);
+		} else {
+			Z.open(OptionFlags.getInstance().createSmetanaBudget());
+		}
 		try {
 			final ST_Agraph_s g = agopen(new CString("g"), Z.z().Agdirected, null);
 
@@ -440,6 +447,7 @@ public class CucaDiagramFileMakerSmetana implements CucaDiagramFileMaker {
 			SmetanaDebug.reset();
 			gvLayoutJobs(gvc, g);
 			SmetanaDebug.printMe();
+			Log.info("Smetana layout " + Z.z().budget);
 
 			// for (Agedge_s e : edges.values()) {
 			// DebugUtils.printDebugEdge(e);
@@ -598,6 +606,16 @@ public class CucaDiagramFileMakerSmetana implements CucaDiagramFileMaker {
 	}
 
 	static private List<String> getFailureText3(Throwable exception) {
+		if (exception instanceof LayoutBudgetExceededException) {
+			Log.error(exception.getMessage());
+			final List<String> strings = new ArrayList<String>();
+			strings.add("Smetana layout has been stopped: the diagram is too complex.");
+			strings.add(" ");
+			strings.add("" + ((LayoutBudgetExceededException) exception).getBudget());
+			strings.add(" ");
+			strings.add("You may increase the limits with -timeout or -smetanamaxiter.");
+			return strings;
+		}
 		exception.printStackTrace();
 		final List<String> strings = new ArrayList<String>();
 		strings.add("An error has occured : " + exception);
@@ -137,8 +137,10 @@ public class SequenceDiagramFileMakerTeoz implements FileMaker {
 		if (this.index != index) {
 			throw new IllegalStateException();
 		}
+		// Tiles keep the positions set by the previous drawing
 		return diagram.createImageBuilder(fileFormatOption)
 				.drawable(new Foo(index))
+				.replayable(false)
 				.write(os);
 	}
 
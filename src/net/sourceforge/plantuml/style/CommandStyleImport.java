@@ -89,9 +89,7 @@ public class CommandStyleImport extends SingleLineCommand2<TitledDiagram> {
 				return CommandExecutionResult.error("Cannot read: " + path);
 			}
 			final StyleBuilder styleBuilder = diagram.getSkinParam().getCurrentStyleBuilder();
-			for (Style modifiedStyle : StyleLoader.getDeclaredStyles(lines, styleBuilder)) {
-				diagram.getSkinParam().muteStyle(modifiedStyle);
-			}
+			diagram.getSkinParam().muteStyle(StyleLoader.getDeclaredStyles(lines, styleBuilder));
 		} catch (IOException e) {
 			return CommandExecutionResult.error("Cannot read: " + path);
 		}
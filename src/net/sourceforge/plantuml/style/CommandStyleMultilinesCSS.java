@@ -70,9 +70,7 @@ public class CommandStyleMultilinesCSS extends CommandMultilines2<TitledDiagram>
 		}
 		try {
 			final StyleBuilder styleBuilder = diagram.getSkinParam().getCurrentStyleBuilder();
-			for (Style modifiedStyle : StyleLoader.getDeclaredStyles(lines.subExtract(1, 1), styleBuilder)) {
-				diagram.getSkinParam().muteStyle(modifiedStyle);
-			}
+			diagram.getSkinParam().muteStyle(StyleLoader.getDeclaredStyles(lines.subExtract(1, 1), styleBuilder));
 			return CommandExecutionResult.ok();
 		} catch (NoStyleAvailableException e) {
 			// e.printStackTrace();
@@ -35,9 +35,14 @@
  */
 package net.sourceforge.plantuml.style;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -47,11 +52,21 @@ import net.sourceforge.plantuml.SkinParam;
 
 public class StyleBuilder implements AutomaticCounter {
 
-	private final Map<StyleSignature, Style> styles = new LinkedHashMap<StyleSignature, Style>();
+	private Map<StyleSignature, Style> styles = new LinkedHashMap<StyleSignature, Style>();
+	// True while styles is shared with the builder this one was copied from
+	private boolean stylesShared;
 	private final Set<StyleSignature> printedForLog;
 	private final SkinParam skinParam;
 	private int counter;
 
+	// Resolved styles, and index of the declared styles by name, both reset when
+	// a style is declared
+	private final Map<StyleSignature, Style> merged = new HashMap<StyleSignature, Style>();
+	private final Map<String, List<Integer>> byName = new HashMap<String, List<Integer>>();
+	private final List<Integer> withoutName = new ArrayList<Integer>();
+	private StyleSignature signatures[];
+	private Style values[];
+
 	private StyleBuilder(SkinParam skinParam, Set<StyleSignature> printedForLog) {
 		this.skinParam = skinParam;
 		this.printedForLog = new LinkedHashSet<StyleSignature>();
@@ -61,6 +76,19 @@ public class StyleBuilder implements AutomaticCounter {
 		this(skinParam, new LinkedHashSet<StyleSignature>());
 	}
 
+	/**
+	 * Creates a builder with the same styles, for another diagram. The styles are
+	 * shared until one of the two builders declares a style.
+	 */
+	StyleBuilder copyFor(SkinParam otherSkinParam) {
+		final StyleBuilder result = new StyleBuilder(otherSkinParam);
+		result.styles = this.styles;
+		result.stylesShared = true;
+		this.stylesShared = true;
+		result.counter = this.counter;
+		return result;
+	}
+
 	public final SkinParam getSkinParam() {
 		return skinParam;
 	}
@@ -79,15 +107,17 @@ public class StyleBuilder implements AutomaticCounter {
 		return result;
 	}
 
-	public StyleBuilder muteStyle(Style modifiedStyle) {
+	public StyleBuilder muteStyle(Collection<Style> modifiedStyles) {
 		final Map<StyleSignature, Style> copy = new LinkedHashMap<StyleSignature, Style>(styles);
-		final StyleSignature signature = modifiedStyle.getSignature();
-		final Style orig = copy.get(signature);
-		if (orig == null) {
-			copy.put(signature, modifiedStyle);
-		} else {
-			final Style newStyle = orig.mergeWith(modifiedStyle);
-			copy.put(signature, newStyle);
+		for (Style modifiedStyle : modifiedStyles) {
+			final StyleSignature signature = modifiedStyle.getSignature();
+			final Style orig = copy.get(signature);
+			if (orig == null) {
+				copy.put(signature, modifiedStyle);
+			} else {
+				final Style newStyle = orig.mergeWith(modifiedStyle);
+				copy.put(signature, newStyle);
+			}
 		}
 		final StyleBuilder result = new StyleBuilder(skinParam, this.printedForLog);
 		result.styles.putAll(copy);
@@ -96,7 +126,13 @@ public class StyleBuilder implements AutomaticCounter {
 	}
 
 	public void put(StyleSignature styleName, Style newStyle) {
+		if (stylesShared) {
+			this.styles = new LinkedHashMap<StyleSignature, Style>(styles);
+			this.stylesShared = false;
+		}
 		this.styles.put(styleName, newStyle);
+		this.merged.clear();
+		this.signatures = null;
 	}
 
 	public int getNextInt() {
@@ -108,20 +144,74 @@ public class StyleBuilder implements AutomaticCounter {
 		if (added) {
 			Log.info("Using style " + signature);
 		}
+		if (merged.containsKey(signature)) {
+			return merged.get(signature);
+		}
+		if (signatures == null) {
+			buildIndex();
+		}
 		Style result = null;
-		for (Entry<StyleSignature, Style> ent : styles.entrySet()) {
-			final StyleSignature key = ent.getKey();
-			if (key.matchAll(signature) == false) {
+		for (int i : getCandidates(signature)) {
+			if (signatures[i].matchAll(signature) == false) {
 				continue;
 			}
 			if (result == null) {
-				result = ent.getValue();
+				result = values[i];
 			} else {
-				result = result.mergeWith(ent.getValue());
+				result = result.mergeWith(values[i]);
 			}
+		}
+		merged.put(signature, result);
+		return result;
+	}
+
+	// A style matches a signature only if all its names are in the signature, so
+	// it is enough to index each style by one of its names.
+	private void buildIndex() {
+		final int size = styles.size();
+		signatures = new StyleSignature[size];
+		values = new Style[size];
+		byName.clear();
+		withoutName.clear();
+		int i = 0;
+		for (Entry<StyleSignature, Style> ent : styles.entrySet()) {
+			signatures[i] = ent.getKey();
+			values[i] = ent.getValue();
+			final String name = getIndexedName(ent.getKey());
+			if (name == null) {
+				withoutName.add(i);
+			} else {
+				List<Integer> list = byName.get(name);
+				if (list == null) {
+					list = new ArrayList<Integer>();
+					byName.put(name, list);
+				}
+				list.add(i);
+			}
+			i++;
+		}
+	}
+
+	private static String getIndexedName(StyleSignature signature) {
+		for (String name : signature.getNames()) {
+			if (name.equals("*") == false) {
+				return name;
+			}
+		}
+		return null;
+	}
 
+	// Positions of the styles that may match, in declaration order
+	private List<Integer> getCandidates(StyleSignature signature) {
+		final List<Integer> result = new ArrayList<Integer>(withoutName);
+		for (String name : signature.getNames()) {
+			final List<Integer> list = byName.get(name);
+			if (list != null) {
+				result.addAll(list);
+			}
 		}
+		Collections.sort(result);
 		return result;
 	}
 
-}
\ No newline at end of file
+}
@@ -42,6 +42,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -64,17 +65,71 @@ public class StyleLoader {
 		this.skinParam = skinParam;
 	}
 
-	private StyleBuilder styleBuilder;
+	// Skins already parsed, by path. They are copied into the builder of each new
+	// diagram instead of being read and parsed again.
+	private static final int CACHE_MAX_SIZE = 16;
+	private static final Map<String, ParsedSkin> cache = new LinkedHashMap<String, ParsedSkin>(16, 0.75f, true);
 
-	public StyleBuilder loadSkin(String filename) throws IOException {
-		this.styleBuilder = new StyleBuilder(skinParam);
+	static class ParsedSkin {
+
+		private final long length;
+		private final long lastModified;
+		private final StyleBuilder styleBuilder;
+
+		ParsedSkin(long length, long lastModified, StyleBuilder styleBuilder) {
+			this.length = length;
+			this.lastModified = lastModified;
+			this.styleBuilder = styleBuilder;
+		}
+
+		boolean isValid(long length, long lastModified) {
+			return this.length == length && this.lastModified == lastModified;
+		}
+	}
 
-		InputStream internalIs = null;
+	public StyleBuilder loadSkin(String filename) throws IOException {
 		SFile localFile = new SFile(filename);
 		Log.info("Trying to load style " + filename);
 		if (localFile.exists() == false) {
 			localFile = FileSystem.getInstance().getFile(filename);
 		}
+		final String key;
+		final long length;
+		final long lastModified;
+		if (localFile.exists()) {
+			key = localFile.getAbsolutePath();
+			length = localFile.length();
+			lastModified = localFile.lastModified();
+		} else {
+			key = "/skin/" + filename;
+			length = 0;
+			lastModified = 0;
+		}
+		ParsedSkin parsed = getCached(key);
+		if (parsed == null || parsed.isValid(length, lastModified) == false) {
+			parsed = new ParsedSkin(length, lastModified, parseSkin(filename, localFile));
+			if (localFile.exists() == false || lastModified != 0) {
+				putCached(key, parsed);
+			}
+		}
+		return parsed.styleBuilder.copyFor(skinParam);
+	}
+
+	private static synchronized ParsedSkin getCached(String key) {
+		return cache.get(key);
+	}
+
+	private static synchronized void putCached(String key, ParsedSkin parsed) {
+		cache.put(key, parsed);
+		final Iterator<ParsedSkin> it = cache.values().iterator();
+		while (cache.size() > CACHE_MAX_SIZE) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private static StyleBuilder parseSkin(String filename, SFile localFile) throws IOException {
+		final InputStream internalIs;
 		if (localFile.exists()) {
 			Log.info("File found : " + localFile.getPrintablePath());
 			internalIs = localFile.openFile();
@@ -91,18 +146,12 @@ public class StyleLoader {
 			throw new NoStyleAvailableException();
 		}
 		final BlocLines lines2 = BlocLines.load(internalIs, new LineLocationImpl(filename, null));
-		loadSkinInternal(lines2);
-		if (this.styleBuilder == null) {
-			Log.error("No .skin file seems to be available");
-			throw new NoStyleAvailableException();
-		}
-		return this.styleBuilder;
-	}
-
-	private void loadSkinInternal(final BlocLines lines) {
-		for (Style newStyle : getDeclaredStyles(lines, styleBuilder)) {
-			this.styleBuilder.put(newStyle.getSignature(), newStyle);
+		// Shared by all diagrams using this skin, so not bound to any SkinParam
+		final StyleBuilder result = new StyleBuilder(null);
+		for (Style newStyle : getDeclaredStyles(lines2, result)) {
+			result.put(newStyle.getSignature(), newStyle);
 		}
+		return result;
 	}
 
 	private static final String NAME_USER = "[\\w()]+?";
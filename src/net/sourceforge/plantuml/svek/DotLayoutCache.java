@@ -0,0 +1,180 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sourceforge.plantuml.Log;
+import net.sourceforge.plantuml.OptionFlags;
+import net.sourceforge.plantuml.SignatureUtils;
+import net.sourceforge.plantuml.security.SFile;
+
+/**
+ * Keeps the svg computed by Graphviz for a given DOT string, so that rendering
+ * the same graph twice does not run the external layout again.
+ * 
+ * Entries live in memory (LRU, bounded by total size) and optionally on disk,
+ * in the directory given by <code>-layoutcachedir</code>.
+ */
+public class DotLayoutCache {
+
+	public static final long DEFAULT_MAX_CHARS = 16L * 1024 * 1024;
+
+	private static final DotLayoutCache singleton = new DotLayoutCache(DEFAULT_MAX_CHARS);
+
+	private final long maxChars;
+
+	private final LinkedHashMap<String, String> entries = new LinkedHashMap<String, String>(16, 0.75f, true);
+
+	private long totalChars;
+
+	DotLayoutCache(long maxChars) {
+		this.maxChars = maxChars;
+	}
+
+	public static DotLayoutCache getInstance() {
+		return singleton;
+	}
+
+	public static String key(String dotString, String graphvizVersion) {
+		return SignatureUtils.getSHA512Hex(graphvizVersion + "\n" + dotString);
+	}
+
+	public String get(String key) {
+		String result = getFromMemory(key);
+		if (result == null) {
+			result = getFromDisk(key);
+			if (result != null) {
+				putInMemory(key, result);
+			}
+		}
+		return result;
+	}
+
+	public void put(String key, String svg) {
+		putInMemory(key, svg);
+		putOnDisk(key, svg);
+	}
+
+	private synchronized String getFromMemory(String key) {
+		return entries.get(key);
+	}
+
+	private synchronized void putInMemory(String key, String svg) {
+		if (svg.length() > maxChars) {
+			return;
+		}
+		final String old = entries.put(key, svg);
+		if (old != null) {
+			totalChars -= old.length();
+		}
+		totalChars += svg.length();
+		final Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+		while (totalChars > maxChars && it.hasNext()) {
+			totalChars -= it.next().getValue().length();
+			it.remove();
+		}
+	}
+
+	private SFile getDiskFile(String key) {
+		final SFile dir = OptionFlags.getInstance().getLayoutCacheDir();
+		if (dir == null) {
+			return null;
+		}
+		return dir.file(key + ".svg");
+	}
+
+	private String getFromDisk(String key) {
+		final SFile file = getDiskFile(key);
+		if (file == null || file.exists() == false) {
+			return null;
+		}
+		final InputStream is = file.openFile();
+		if (is == null) {
+			return null;
+		}
+		try {
+			try {
+				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				final byte[] buffer = new byte[8192];
+				int read;
+				while ((read = is.read(buffer)) != -1) {
+					baos.write(buffer, 0, read);
+				}
+				return new String(baos.toByteArray(), "UTF-8");
+			} finally {
+				is.close();
+			}
+		} catch (IOException e) {
+			Log.error("Cannot read layout cache " + file);
+			return null;
+		}
+	}
+
+	private void putOnDisk(String key, String svg) {
+		final SFile file = getDiskFile(key);
+		if (file == null) {
+			return;
+		}
+		try {
+			file.getParentFile().mkdirs();
+			// Written aside then renamed, so that a concurrent reader never sees a partial file
+			final SFile tmp = file.getParentFile().file(key + "." + Thread.currentThread().getId() + ".tmp");
+			final OutputStream os = tmp.createBufferedOutputStream();
+			try {
+				os.write(svg.getBytes("UTF-8"));
+			} finally {
+				os.close();
+			}
+			if (tmp.renameTo(file) == false) {
+				tmp.delete();
+			}
+		} catch (IOException e) {
+			Log.error("Cannot write layout cache " + file);
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+}
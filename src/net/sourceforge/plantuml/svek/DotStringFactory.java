@@ -301,6 +301,14 @@ public class DotStringFactory implements Moveable {
 		}
 
 		Graphviz graphviz = GraphvizUtils.create(skinParam, dotString, "svg");
+		final String cacheKey = DotLayoutCache.key(dotString, getGraphvizVersionString(graphviz));
+		final String cached = DotLayoutCache.getInstance().get(cacheKey);
+		if (cached != null) {
+			traceSvg(basefile, cached);
+			return cached;
+		}
+		// A DOT string that only works with VizJs in safe mode is not cached
+		boolean cacheable = true;
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 		try {
 			final ProcessState state = graphviz.createFile3(baos);
@@ -310,6 +318,7 @@ public class DotStringFactory implements Moveable {
 			}
 		} catch (GraphvizJsRuntimeException e) {
 			System.err.println("GraphvizJsRuntimeException");
+			cacheable = false;
 			graphvizVersion = GraphvizJs.getGraphvizVersion(true);
 			dotString = createDotString(dotOptions);
 			graphviz = GraphvizUtils.create(skinParam, dotString, "svg");
@@ -322,13 +331,27 @@ public class DotStringFactory implements Moveable {
 		}
 		final byte[] result = baos.toByteArray();
 		final String s = new String(result, "UTF-8");
+		if (s.length() > 0 && cacheable) {
+			DotLayoutCache.getInstance().put(cacheKey, s);
+		}
+
+		traceSvg(basefile, s);
+		return s;
+	}
 
+	private void traceSvg(BaseFile basefile, String s) throws IOException {
 		if (basefile != null) {
 			final SFile f = basefile.getTraceFile("svek.svg");
 			SvekUtils.traceString(f, s);
 		}
+	}
 
-		return s;
+	private static String getGraphvizVersionString(Graphviz graphviz) {
+		final File dotExe = graphviz.getDotExe();
+		if (dotExe == null) {
+			return graphviz.dotVersion();
+		}
+		return GraphvizVersions.getInstance().getVersionString(dotExe);
 	}
 
 	public boolean illegalDotExe() {
@@ -364,7 +387,7 @@ public class DotStringFactory implements Moveable {
 		final Point2DFunction move = new YDelta(fullHeight);
 		final SvgResult svgResult = new SvgResult(svg, move);
 		for (SvekNode node : bibliotekon.allNodes()) {
-			int idx = svg.indexOf("<title>" + node.getUid() + "</title>");
+			int idx = svgResult.indexOfTitle(node.getUid());
 			if (node.getType() == ShapeType.RECTANGLE || node.getType() == ShapeType.RECTANGLE_HTML_FOR_PORTS
 					|| node.getType() == ShapeType.RECTANGLE_WITH_CIRCLE_INSIDE || node.getType() == ShapeType.FOLDER
 					|| node.getType() == ShapeType.DIAMOND) {
@@ -375,8 +398,8 @@ public class DotStringFactory implements Moveable {
 //				corner1.manage(minX - overscanX, minY);
 				node.moveSvek(minX, minY);
 			} else if (node.getType() == ShapeType.ROUND_RECTANGLE) {
-				final int idx2 = svg.indexOf("d=\"", idx + 1);
-				idx = svg.indexOf("points=\"", idx + 1);
+				final int idx2 = svgResult.indexOf(SvgResult.D_EQUALS, idx + 1);
+				idx = svgResult.indexOf(SvgResult.POINTS_EQUALS, idx + 1);
 				final List<Point2D.Double> points;
 				if (idx2 != -1 && (idx == -1 || idx2 < idx)) {
 					// GraphViz 2.30
@@ -384,7 +407,7 @@ public class DotStringFactory implements Moveable {
 				} else {
 					points = svgResult.substring(idx).extractList(SvgResult.POINTS_EQUALS);
 					for (int i = 0; i < 3; i++) {
-						idx = svg.indexOf("points=\"", idx + 1);
+						idx = svgResult.indexOf(SvgResult.POINTS_EQUALS, idx + 1);
 						points.addAll(svgResult.substring(idx).extractList(SvgResult.POINTS_EQUALS));
 					}
 				}
@@ -393,7 +416,7 @@ public class DotStringFactory implements Moveable {
 //				corner1.manage(minX, minY);
 				node.moveSvek(minX, minY);
 			} else if (node.getType() == ShapeType.OCTAGON || node.getType() == ShapeType.HEXAGON) {
-				idx = svg.indexOf("points=\"", idx + 1);
+				idx = svgResult.indexOf(SvgResult.POINTS_EQUALS, idx + 1);
 				final int starting = idx;
 				final List<Point2D.Double> points = svgResult.substring(starting).extractList(SvgResult.POINTS_EQUALS);
 				final double minX = SvekUtils.getMinX(points);
@@ -420,7 +443,7 @@ public class DotStringFactory implements Moveable {
 					continue;
 				}
 			}
-			int idx = getClusterIndex(svg, cluster.getColor());
+			int idx = getClusterIndex(svgResult, cluster.getColor());
 			final int starting = idx;
 			final List<Point2D.Double> points = svgResult.substring(starting).extractList(SvgResult.POINTS_EQUALS);
 			final double minX = SvekUtils.getMinX(points);
@@ -433,7 +456,7 @@ public class DotStringFactory implements Moveable {
 			if (cluster.getTitleAndAttributeWidth() == 0 || cluster.getTitleAndAttributeHeight() == 0) {
 				continue;
 			}
-			idx = getClusterIndex(svg, cluster.getTitleColor());
+			idx = getClusterIndex(svgResult, cluster.getTitleColor());
 			final int starting1 = idx;
 			final List<Point2D.Double> pointsTitle = svgResult.substring(starting1)
 					.extractList(SvgResult.POINTS_EQUALS);
@@ -454,15 +477,13 @@ public class DotStringFactory implements Moveable {
 //		// return new ClusterPosition(0, 0, fullWidth, fullHeight);
 	}
 
-	private int getClusterIndex(final String svg, int colorInt) {
-		final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(colorInt));
-		final String keyTitle1 = "=\"" + colorString + "\"";
-		int idx = svg.indexOf(keyTitle1);
+	private int getClusterIndex(final SvgResult svgResult, int colorInt) {
+		int idx = svgResult.indexOfColor(SvgIndex.ANY_ATTR, colorInt);
 		if (idx == -1) {
-			final String keyTitle2 = "stroke:" + colorString + ";";
-			idx = svg.indexOf(keyTitle2);
+			idx = svgResult.indexOfColor(SvgIndex.STROKE_COLON, colorInt);
 		}
 		if (idx == -1) {
+			final String colorString = StringUtils.goLowerCase(DotStringFactory.sharp000000(colorInt));
 			throw new IllegalStateException("Cannot find color " + colorString);
 		}
 		return idx;
@@ -0,0 +1,209 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the svg generated by Graphviz, built in one pass.
+ * 
+ * It records where titles, <code>points="</code> / <code>d="</code> attributes
+ * and colors appear, so that {@link SvgResult} does not have to scan the whole
+ * svg again for each node and each line. All positions are exactly those that
+ * <code>String.indexOf</code> would return.
+ */
+class SvgIndex {
+
+	// Color patterns: stroke="#rrggbb" ;stroke:#rrggbb; fill="#rrggbb" ="#rrggbb" stroke:#rrggbb;
+	static final int STROKE_ATTR = 0;
+	static final int STROKE_STYLE = 1;
+	static final int FILL_ATTR = 2;
+	static final int ANY_ATTR = 3;
+	static final int STROKE_COLON = 4;
+
+	private static final String PREFIX[] = { "stroke=\"", ";stroke:", "fill=\"", "=\"", "stroke:" };
+	private static final int SUFFIX_LENGTH = 1;
+	private static final int COLOR_LENGTH = 7;
+
+	private static final String TITLE_START = "<title>";
+	private static final String TITLE_END = "</title>";
+
+	private final Map<String, Integer> titles = new HashMap<String, Integer>();
+	private final IntList points = new IntList();
+	private final IntList d = new IntList();
+	private final List<Map<Integer, IntList>> colors;
+
+	SvgIndex(String svg) {
+		this.colors = new ArrayList<Map<Integer, IntList>>(PREFIX.length);
+		for (int i = 0; i < PREFIX.length; i++) {
+			colors.add(new HashMap<Integer, IntList>());
+		}
+		final int length = svg.length();
+		for (int i = 0; i < length; i++) {
+			final char c = svg.charAt(i);
+			if (c == '<' && svg.startsWith(TITLE_START, i)) {
+				final int end = svg.indexOf(TITLE_END, i + TITLE_START.length());
+				if (end != -1) {
+					final String title = svg.substring(i + TITLE_START.length(), end);
+					if (titles.containsKey(title) == false) {
+						titles.put(title, i);
+					}
+				}
+			} else if (c == '"') {
+				if (svg.startsWith(SvgResult.POINTS_EQUALS, i - SvgResult.POINTS_EQUALS.length() + 1)) {
+					points.add(i - SvgResult.POINTS_EQUALS.length() + 1);
+				} else if (svg.startsWith(SvgResult.D_EQUALS, i - SvgResult.D_EQUALS.length() + 1)) {
+					d.add(i - SvgResult.D_EQUALS.length() + 1);
+				}
+			} else if (c == '#' && i + COLOR_LENGTH < length) {
+				final int color = parseLowerCaseHexColor(svg, i + 1);
+				if (color != -1) {
+					indexColor(svg, i, color, svg.charAt(i + COLOR_LENGTH));
+				}
+			}
+		}
+	}
+
+	private void indexColor(String svg, int sharp, int color, char suffix) {
+		if (suffix == '"') {
+			addColor(svg, sharp, color, STROKE_ATTR);
+			addColor(svg, sharp, color, FILL_ATTR);
+			addColor(svg, sharp, color, ANY_ATTR);
+		} else if (suffix == ';') {
+			addColor(svg, sharp, color, STROKE_STYLE);
+			addColor(svg, sharp, color, STROKE_COLON);
+		}
+	}
+
+	private void addColor(String svg, int sharp, int color, int kind) {
+		final int start = sharp - PREFIX[kind].length();
+		if (start >= 0 && svg.startsWith(PREFIX[kind], start)) {
+			IntList list = colors.get(kind).get(color);
+			if (list == null) {
+				list = new IntList();
+				colors.get(kind).put(color, list);
+			}
+			list.add(start);
+		}
+	}
+
+	// Only lower case, since this is what we search for
+	private static int parseLowerCaseHexColor(String svg, int pos) {
+		int result = 0;
+		for (int i = pos; i < pos + COLOR_LENGTH - 1; i++) {
+			final char c = svg.charAt(i);
+			if (c >= '0' && c <= '9') {
+				result = result * 16 + (c - '0');
+			} else if (c >= 'a' && c <= 'f') {
+				result = result * 16 + (c - 'a' + 10);
+			} else {
+				return -1;
+			}
+		}
+		return result;
+	}
+
+	int getTitle(String title) {
+		final Integer result = titles.get(title);
+		if (result == null) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * First position of the color pattern starting at or after <code>from</code>
+	 * and ending before <code>end</code>, or -1.
+	 */
+	int getColor(int kind, int color, int from, int end) {
+		final IntList list = colors.get(kind).get(0xFFFFFF & color);
+		if (list == null) {
+			return -1;
+		}
+		return list.first(from, end - PREFIX[kind].length() - COLOR_LENGTH - SUFFIX_LENGTH);
+	}
+
+	/**
+	 * First position of <code>points="</code> or <code>d="</code> starting at or
+	 * after <code>from</code> and ending before <code>end</code>, or -1. Returns
+	 * -2 for any other searched string.
+	 */
+	int getAttribute(String searched, int from, int end) {
+		if (searched.equals(SvgResult.POINTS_EQUALS)) {
+			return points.first(from, end - searched.length());
+		}
+		if (searched.equals(SvgResult.D_EQUALS)) {
+			return d.first(from, end - searched.length());
+		}
+		return -2;
+	}
+
+	static class IntList {
+
+		private int data[] = new int[16];
+		private int size;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = value;
+		}
+
+		// First value >= from, provided that it is <= max
+		int first(int from, int max) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (data[mid] < from) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			if (low == size || data[low] > max) {
+				return -1;
+			}
+			return data[low];
+		}
+	}
+
+}
@@ -37,23 +37,49 @@ package net.sourceforge.plantuml.svek;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
 
-import net.sourceforge.plantuml.StringUtils;
-
 public class SvgResult {
 
 	public static final String D_EQUALS = "d=\"";
 	public static final String POINTS_EQUALS = "points=\"";
 
-	private final String svg;
+	private static final double POW10[] = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	// Above this, the mantissa may not be exact as a double
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	// substring() does not copy: all SvgResult share the full svg and its index
+	private final String fullSvg;
+	private final int start;
+	private final int end;
 	private final Point2DFunction function;
+	private final SvgIndex index[];
+	private String svg;
 
 	public SvgResult(String svg, Point2DFunction function) {
-		this.svg = svg;
+		this(svg, 0, svg.length(), function, new SvgIndex[1]);
+	}
+
+	private SvgResult(String fullSvg, int start, int end, Point2DFunction function, SvgIndex index[]) {
+		this.fullSvg = fullSvg;
+		this.start = start;
+		this.end = end;
 		this.function = function;
+		this.index = index;
+	}
+
+	private SvgIndex getIndex() {
+		synchronized (index) {
+			if (index[0] == null) {
+				index[0] = new SvgIndex(fullSvg);
+			}
+			return index[0];
+		}
 	}
 
 	public PointListIterator getPointsWithThisColor(int lineColor) {
@@ -69,22 +95,119 @@ public class SvgResult {
 		if (p3 == -1) {
 			return Collections.emptyList();
 		}
-		return this.substring(p2 + searched.length(), p3).getPoints(" MC");
+		final double coord[] = parseCoordinates(start + p2 + searched.length(), start + p3);
+		if (coord == null) {
+			return this.substring(p2 + searched.length(), p3).getPoints(" MC");
+		}
+		final List<Point2D.Double> result = new ArrayList<Point2D.Double>(coord.length / 2);
+		for (int i = 0; i < coord.length; i += 2) {
+			result.add(function.apply(new Point2D.Double(coord[i], coord[i + 1])));
+		}
+		return result;
+	}
+
+	/**
+	 * Parses "x,y x,y" or "Mx,yCx,y x,y" directly from the full svg. Returns null
+	 * for anything unusual, so that the caller falls back to {@link #getPoints}.
+	 */
+	private double[] parseCoordinates(int from, int to) {
+		double result[] = new double[16];
+		int size = 0;
+		int i = from;
+		while (true) {
+			while (i < to && isPointSeparator(fullSvg.charAt(i))) {
+				i++;
+			}
+			if (i == to) {
+				break;
+			}
+			final int comma = parseNumberEnd(i, to);
+			if (comma == -1 || comma == to || fullSvg.charAt(comma) != ',') {
+				return null;
+			}
+			final int next = parseNumberEnd(comma + 1, to);
+			if (next == -1 || (next < to && isPointSeparator(fullSvg.charAt(next)) == false)) {
+				return null;
+			}
+			if (size + 2 > result.length) {
+				result = Arrays.copyOf(result, result.length * 2);
+			}
+			result[size] = parseNumber(i, comma);
+			result[size + 1] = parseNumber(comma + 1, next);
+			if (Double.isNaN(result[size]) || Double.isNaN(result[size + 1])) {
+				return null;
+			}
+			size += 2;
+			i = next;
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	private static boolean isPointSeparator(char c) {
+		return c == ' ' || c == 'M' || c == 'C';
+	}
+
+	// End of a number like -12.34, or -1 if there is no digit
+	private int parseNumberEnd(int i, int to) {
+		if (i < to && fullSvg.charAt(i) == '-') {
+			i++;
+		}
+		int digits = 0;
+		boolean dot = false;
+		while (i < to) {
+			final char c = fullSvg.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c == '.' && dot == false) {
+				dot = true;
+			} else {
+				break;
+			}
+			i++;
+		}
+		if (digits == 0) {
+			return -1;
+		}
+		return i;
+	}
+
+	// Same result as Double.parseDouble() when the mantissa and the power of ten
+	// are both exact doubles, NaN otherwise
+	private double parseNumber(int from, int to) {
+		final boolean negative = fullSvg.charAt(from) == '-';
+		long mantissa = 0;
+		int decimals = -1;
+		for (int i = negative ? from + 1 : from; i < to; i++) {
+			final char c = fullSvg.charAt(i);
+			if (c == '.') {
+				decimals = 0;
+				continue;
+			}
+			mantissa = mantissa * 10 + (c - '0');
+			if (mantissa >= MAX_EXACT_MANTISSA) {
+				return Double.NaN;
+			}
+			if (decimals >= 0) {
+				decimals++;
+			}
+		}
+		if (decimals >= POW10.length) {
+			return Double.NaN;
+		}
+		final double result = decimals <= 0 ? mantissa : mantissa / POW10[decimals];
+		return negative ? -result : result;
 	}
 
 	public int getIndexFromColor(int color) {
-		String s = "stroke=\"" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + "\"";
-		int idx = svg.indexOf(s);
+		int idx = indexOfColor(SvgIndex.STROKE_ATTR, color);
 		if (idx != -1) {
 			return idx;
 		}
-		s = ";stroke:" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + ";";
-		idx = svg.indexOf(s);
+		idx = indexOfColor(SvgIndex.STROKE_STYLE, color);
 		if (idx != -1) {
 			return idx;
 		}
-		s = "fill=\"" + StringUtils.goLowerCase(DotStringFactory.sharp000000(color)) + "\"";
-		idx = svg.indexOf(s);
+		idx = indexOfColor(SvgIndex.FILL_ATTR, color);
 		if (idx != -1) {
 			return idx;
 		}
@@ -93,9 +216,28 @@ public class SvgResult {
 
 	}
 
+	int indexOfColor(int kind, int color) {
+		final int result = getIndex().getColor(kind, color, start, end);
+		if (result == -1) {
+			return -1;
+		}
+		return result - start;
+	}
+
+	/**
+	 * Same as <code>indexOf("&lt;title&gt;" + title + "&lt;/title&gt;", 0)</code>
+	 * on the full svg.
+	 */
+	int indexOfTitle(String title) {
+		if (start != 0) {
+			throw new IllegalStateException();
+		}
+		return getIndex().getTitle(title);
+	}
+
 	public List<Point2D.Double> getPoints(String separator) {
 		try {
-			final StringTokenizer st = new StringTokenizer(svg, separator);
+			final StringTokenizer st = new StringTokenizer(getSvg(), separator);
 			final List<Point2D.Double> result = new ArrayList<Point2D.Double>();
 			while (st.hasMoreTokens()) {
 				result.add(getFirstPoint(st.nextToken()));
@@ -107,7 +249,7 @@ public class SvgResult {
 	}
 
 	public Point2D.Double getNextPoint() {
-		return getFirstPoint(svg);
+		return getFirstPoint(getSvg());
 	}
 
 	private Point2D.Double getFirstPoint(final String tmp) {
@@ -118,18 +260,36 @@ public class SvgResult {
 	}
 
 	public int indexOf(String s, int pos) {
-		return svg.indexOf(s, pos);
+		if (pos < 0) {
+			pos = 0;
+		}
+		final int attribute = getIndex().getAttribute(s, start + pos, end);
+		if (attribute != -2) {
+			return attribute == -1 ? -1 : attribute - start;
+		}
+		if (end != fullSvg.length()) {
+			// Views with an end are short, so this is cheap
+			return getSvg().indexOf(s, pos);
+		}
+		final int result = fullSvg.indexOf(s, start + pos);
+		return result == -1 ? -1 : result - start;
 	}
 
 	public SvgResult substring(int pos) {
-		return new SvgResult(svg.substring(pos), function);
+		return substring(pos, end - start);
 	}
 
 	public SvgResult substring(int start, int end) {
-		return new SvgResult(svg.substring(start, end), function);
+		if (start < 0 || end > this.end - this.start || start > end) {
+			throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end);
+		}
+		return new SvgResult(fullSvg, this.start + start, this.start + end, function, index);
 	}
 
 	public final String getSvg() {
+		if (svg == null) {
+			svg = fullSvg.substring(start, end);
+		}
 		return svg;
 	}
 }
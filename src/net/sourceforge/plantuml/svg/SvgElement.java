@@ -0,0 +1,209 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.svg;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Lightweight XML element, written directly as text by {@link SvgGraphics}.
+ * 
+ * The output is the same as the one of the JDK Transformer from a DOM tree:
+ * namespace declarations first then attributes sorted by name, empty elements
+ * closed with "/>", and the same escaping rules.
+ */
+class SvgElement {
+
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	private static final Comparator<String> ATTRIBUTE_ORDER = new Comparator<String>() {
+		public int compare(String name1, String name2) {
+			final boolean xmlns1 = isNamespace(name1);
+			final boolean xmlns2 = isNamespace(name2);
+			if (xmlns1 != xmlns2) {
+				return xmlns1 ? -1 : 1;
+			}
+			return name1.compareTo(name2);
+		}
+	};
+
+	private final String name;
+	private final Map<String, String> attributes = new TreeMap<String, String>(ATTRIBUTE_ORDER);
+	private List<SvgElement> children;
+	private String text;
+	private boolean cdata;
+
+	SvgElement(String name) {
+		this.name = name;
+	}
+
+	private static boolean isNamespace(String name) {
+		return name.equals("xmlns") || name.startsWith("xmlns:");
+	}
+
+	public void setAttribute(String key, String value) {
+		// A null value is written as an empty attribute, like the DOM serializer did
+		attributes.put(key, value == null ? "" : value);
+	}
+
+	public void appendChild(SvgElement child) {
+		if (children == null) {
+			children = new ArrayList<SvgElement>();
+		}
+		children.add(child);
+	}
+
+	public void setTextContent(String text) {
+		this.text = text;
+		this.cdata = false;
+	}
+
+	public void setCDATA(String text) {
+		this.text = text;
+		this.cdata = true;
+	}
+
+	private boolean isEmpty() {
+		return children == null && (text == null || text.length() == 0);
+	}
+
+	public void write(StringBuilder sb) {
+		writeStart(sb);
+		if (isEmpty()) {
+			sb.setCharAt(sb.length() - 1, '/');
+			sb.append('>');
+			return;
+		}
+		if (text != null && cdata) {
+			sb.append("<![CDATA[").append(text).append("]]>");
+		} else if (text != null) {
+			appendText(sb, text);
+		}
+		if (children != null) {
+			for (SvgElement child : children) {
+				child.write(sb);
+			}
+		}
+		writeEnd(sb);
+	}
+
+	public void writeStart(StringBuilder sb) {
+		sb.append('<').append(name);
+		for (Map.Entry<String, String> ent : attributes.entrySet()) {
+			sb.append(' ').append(ent.getKey()).append("=\"");
+			appendAttribute(sb, ent.getValue());
+			sb.append('"');
+		}
+		sb.append('>');
+	}
+
+	public void writeEnd(StringBuilder sb) {
+		sb.append("</").append(name).append('>');
+	}
+
+	static void appendText(StringBuilder sb, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '&') {
+				sb.append("&amp;");
+			} else if (c == '<') {
+				sb.append("&lt;");
+			} else if (c == '>') {
+				sb.append("&gt;");
+			} else if (c == '\n') {
+				sb.append(LINE_SEPARATOR);
+			} else if (c == '\t') {
+				sb.append(c);
+			} else if (c < 0x20 || (c >= 0x7F && c <= 0x9F)) {
+				appendCharRef(sb, c);
+			} else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+					&& Character.isLowSurrogate(s.charAt(i + 1))) {
+				appendCharRef(sb, s.codePointAt(i));
+				i++;
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+
+	static void appendAttribute(StringBuilder sb, String s) {
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '&') {
+				sb.append("&amp;");
+			} else if (c == '<') {
+				sb.append("&lt;");
+			} else if (c == '>') {
+				sb.append("&gt;");
+			} else if (c == '"') {
+				sb.append("&quot;");
+			} else if (c < 0x20) {
+				appendCharRef(sb, c);
+			} else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+					&& Character.isLowSurrogate(s.charAt(i + 1))) {
+				appendCharRef(sb, s.codePointAt(i));
+				i++;
+			} else {
+				sb.append(c);
+			}
+		}
+	}
+
+	static void appendComment(StringBuilder sb, String comment) {
+		sb.append("<!--");
+		boolean wasDash = false;
+		for (int i = 0; i < comment.length(); i++) {
+			final char c = comment.charAt(i);
+			if (wasDash && c == '-') {
+				sb.append(' ');
+			}
+			sb.append(c);
+			wasDash = c == '-';
+		}
+		if (wasDash) {
+			sb.append(' ');
+		}
+		sb.append("-->");
+	}
+
+	private static void appendCharRef(StringBuilder sb, int codePoint) {
+		sb.append("&#").append(codePoint).append(';');
+	}
+
+}
@@ -38,10 +38,14 @@ package net.sourceforge.plantuml.svg;
 import java.awt.geom.Dimension2D;
 import java.awt.geom.PathIterator;
 import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -50,21 +54,6 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.CDATASection;
-import org.w3c.dom.Comment;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
 import net.sourceforge.plantuml.FileUtils;
 import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.SignatureUtils;
@@ -100,10 +89,15 @@ public class SvgGraphics {
 	private static final String XLINK_HREF1 = "href";
 	private static final String XLINK_HREF2 = "xlink:href";
 
-	final private Document document;
-	final private Element root;
-	final private Element defs;
-	final private Element gRoot;
+	private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// Elements are written as text as soon as they are complete. The text is kept
+	// until createXml() because the root attributes depend on the final size.
+	final private SvgElement root;
+	final private StringBuilder defs = new StringBuilder();
+	final private StringBuilder body = new StringBuilder();
+	final private List<Insert> inserts = new ArrayList<Insert>();
 
 	private String fill = "black";
 	private String stroke = "black";
@@ -141,59 +135,48 @@ public class SvgGraphics {
 
 	public SvgGraphics(boolean svgDimensionStyle, Dimension2D minDim, String backcolor, double scale, String hover,
 			long seed, String preserveAspectRatio, LengthAdjust lengthAdjust) {
-		try {
-			this.lengthAdjust = lengthAdjust;
-			this.svgDimensionStyle = svgDimensionStyle;
-			this.scale = scale;
-			this.document = getDocument();
-			this.backcolor = backcolor;
-			this.preserveAspectRatio = preserveAspectRatio;
-			ensureVisible(minDim.getWidth(), minDim.getHeight());
-
-			this.root = getRootNode();
-
-			// Create a node named defs, which will be the parent
-			// for a pair of linear gradient definitions.
-			defs = simpleElement("defs");
-			gRoot = simpleElement("g");
-			strokeWidth = "" + scale;
-			this.filterUid = "b" + getSeed(seed);
-			this.shadowId = "f" + getSeed(seed);
-			this.gradientId = "g" + getSeed(seed);
-			if (hover != null) {
-				defs.appendChild(getPathHover(hover));
+		this.lengthAdjust = lengthAdjust;
+		this.svgDimensionStyle = svgDimensionStyle;
+		this.scale = scale;
+		this.backcolor = backcolor;
+		this.preserveAspectRatio = preserveAspectRatio;
+		ensureVisible(minDim.getWidth(), minDim.getHeight());
+
+		this.root = getRootNode();
+
+		strokeWidth = "" + scale;
+		this.filterUid = "b" + getSeed(seed);
+		this.shadowId = "f" + getSeed(seed);
+		this.gradientId = "g" + getSeed(seed);
+		if (hover != null) {
+			getPathHover(hover).write(defs);
+		}
+
+		if (INTERACTIVE) {
+			final SvgElement styles = getStylesForInteractiveMode();
+			if (styles != null) {
+				styles.write(defs);
 			}
-
-			if (INTERACTIVE) {
-				final Element styles = getStylesForInteractiveMode();
-				if (styles != null) {
-					defs.appendChild(styles);
-				}
-				final Element script = getScriptForInteractiveMode();
-				if (script != null) {
-					defs.appendChild(script);
-				}
+			final SvgElement script = getScriptForInteractiveMode();
+			if (script != null) {
+				script.write(defs);
 			}
-		} catch (ParserConfigurationException e) {
-			e.printStackTrace();
-			throw new IllegalStateException(e);
 		}
 	}
 
-	private Element getStylesForInteractiveMode() {
-		final Element style = simpleElement("style");
+	private SvgElement getStylesForInteractiveMode() {
+		final SvgElement style = new SvgElement("style");
 		final String text = getData("default.css");
 		if (text == null) {
 			return null;
 		}
-		final CDATASection cdata = document.createCDATASection(text);
 		style.setAttribute("type", "text/css");
-		style.appendChild(cdata);
+		style.setCDATA(text);
 		return style;
 	}
 
-	private Element getScriptForInteractiveMode() {
-		final Element script = document.createElement("script");
+	private SvgElement getScriptForInteractiveMode() {
+		final SvgElement script = new SvgElement("script");
 		final String text = getData("default.js");
 		if (text == null) {
 			return null;
@@ -212,11 +195,10 @@ public class SvgGraphics {
 		}
 	}
 
-	private Element getPathHover(String hover) {
-		final Element style = simpleElement("style");
-		final CDATASection cdata = document.createCDATASection("path:hover { stroke: " + hover + " !important;}");
+	private SvgElement getPathHover(String hover) {
+		final SvgElement style = new SvgElement("style");
 		style.setAttribute("type", "text/css");
-		style.appendChild(cdata);
+		style.setCDATA("path:hover { stroke: " + hover + " !important;}");
 		return style;
 	}
 
@@ -224,40 +206,35 @@ public class SvgGraphics {
 		return Long.toString(Math.abs(seed), 36);
 	}
 
-	private Element pendingBackground;
+	// Text inserted in the body when the document is written
+	static class Insert {
 
-	public void paintBackcolorGradient(ColorMapper mapper, HColorGradient gr) {
-		final String id = createSvgGradient(mapper.toRGB(gr.getColor1()), mapper.toRGB(gr.getColor2()), gr.getPolicy());
-		setFillColor("url(#" + id + ")");
-		setStrokeColor(null);
-		pendingBackground = createRectangleInternal(0, 0, 0, 0);
-		getG().appendChild(pendingBackground);
-	}
+		private final int position;
+		private final SvgElement element;
+		private final String svg;
 
-	// This method returns a reference to a simple XML
-	// element node that has no attributes.
-	private Element simpleElement(String type) {
-		final Element theElement = (Element) document.createElement(type);
-		root.appendChild(theElement);
-		return theElement;
+		Insert(int position, SvgElement element, String svg) {
+			this.position = position;
+			this.element = element;
+			this.svg = svg;
+		}
 	}
 
-	private Document getDocument() throws ParserConfigurationException {
-		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+	private Insert pendingBackground;
 
-		final DocumentBuilder builder = factory.newDocumentBuilder();
-		final Document document = builder.newDocument();
-		document.setXmlStandalone(true);
-		return document;
+	public void paintBackcolorGradient(ColorMapper mapper, HColorGradient gr) {
+		final String id = createSvgGradient(mapper.toRGB(gr.getColor1()), mapper.toRGB(gr.getColor2()), gr.getPolicy());
+		setFillColor("url(#" + id + ")");
+		setStrokeColor(null);
+		openPendingAction();
+		pendingBackground = new Insert(body.length(), createRectangleInternal(0, 0, 0, 0), null);
+		inserts.add(pendingBackground);
 	}
 
-	// This method returns a reference to a root node that
-	// has already been appended to the document.
-	private Element getRootNode() {
-		// Create the root node named svg and append it to
-		// the document.
-		final Element svg = (Element) document.createElement("svg");
-		document.appendChild(svg);
+	// This method returns the root node, whose attributes are completed when the
+	// document is written.
+	private SvgElement getRootNode() {
+		final SvgElement svg = new SvgElement("svg");
 
 		// Set some attributes on the root node that are
 		// required for proper rendering. Note that the
@@ -274,7 +251,7 @@ public class SvgGraphics {
 	public void svgEllipse(double x, double y, double xRadius, double yRadius, double deltaShadow) {
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("ellipse");
+			final SvgElement elt = new SvgElement("ellipse");
 			elt.setAttribute("cx", format(x));
 			elt.setAttribute("cy", format(y));
 			elt.setAttribute("rx", format(xRadius));
@@ -282,7 +259,7 @@ public class SvgGraphics {
 			fillMe(elt);
 			elt.setAttribute("style", getStyle());
 			addFilterShadowId(elt, deltaShadow);
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		ensureVisible(x + xRadius + deltaShadow * 2, y + yRadius + deltaShadow * 2);
 	}
@@ -291,11 +268,11 @@ public class SvgGraphics {
 		if (hidden == false) {
 			final String path = "M" + format(x1) + "," + format(y1) + " A" + format(rx) + "," + format(ry) + " 0 0 0 "
 					+ format(x2) + " " + format(y2);
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", path);
 			fillMe(elt);
 			elt.setAttribute("style", getStyle());
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		ensureVisible(x1, y1);
 		ensureVisible(x2, y2);
@@ -307,7 +284,7 @@ public class SvgGraphics {
 		final List<Object> key = Arrays.asList((Object) color1, color2, policy);
 		String id = gradients.get(key);
 		if (id == null) {
-			final Element elt = (Element) document.createElement("linearGradient");
+			final SvgElement elt = new SvgElement("linearGradient");
 			if (policy == '|') {
 				elt.setAttribute("x1", "0%");
 				elt.setAttribute("y1", "50%");
@@ -333,16 +310,16 @@ public class SvgGraphics {
 			gradients.put(key, id);
 			elt.setAttribute("id", id);
 
-			final Element stop1 = (Element) document.createElement("stop");
+			final SvgElement stop1 = new SvgElement("stop");
 			stop1.setAttribute("stop-color", color1);
 			stop1.setAttribute("offset", "0%");
-			final Element stop2 = (Element) document.createElement("stop");
+			final SvgElement stop2 = new SvgElement("stop");
 			stop2.setAttribute("stop-color", color2);
 			stop2.setAttribute("offset", "100%");
 
 			elt.appendChild(stop1);
 			elt.appendChild(stop2);
-			defs.appendChild(elt);
+			elt.write(defs);
 		}
 		return id;
 	}
@@ -360,13 +337,25 @@ public class SvgGraphics {
 		this.strokeDasharray = strokeDasharray;
 	}
 
-	private final List<Element> pendingAction = new ArrayList<Element>();
+	// Links and groups are written only if they get some content. The opened ones
+	// are always the last nbOpened elements of the list.
+	private final List<SvgElement> pendingAction = new ArrayList<SvgElement>();
+	private int nbOpened;
+	private int pendingStart;
 
-	public final Element getG() {
-		if (pendingAction.size() == 0) {
-			return gRoot;
+	private void openPendingAction() {
+		if (nbOpened == 0 && pendingAction.size() > 0) {
+			pendingStart = body.length();
+		}
+		while (nbOpened < pendingAction.size()) {
+			pendingAction.get(pendingAction.size() - 1 - nbOpened).writeStart(body);
+			nbOpened++;
 		}
-		return pendingAction.get(0);
+	}
+
+	private void appendChild(SvgElement elt) {
+		openPendingAction();
+		elt.write(body);
 	}
 
 	public void svgRectangle(double x, double y, double width, double height, double rx, double ry, double deltaShadow,
@@ -378,7 +367,7 @@ public class SvgGraphics {
 		}
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = createRectangleInternal(x, y, width, height);
+			final SvgElement elt = createRectangleInternal(x, y, width, height);
 			addFilterShadowId(elt, deltaShadow);
 			if (rx > 0 && ry > 0) {
 				elt.setAttribute("rx", format(rx));
@@ -390,13 +379,13 @@ public class SvgGraphics {
 			if (codeLine != null) {
 				elt.setAttribute("codeLine", codeLine);
 			}
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		ensureVisible(x + width + 2 * deltaShadow, y + height + 2 * deltaShadow);
 	}
 
-	private Element createRectangleInternal(double x, double y, double width, double height) {
-		final Element elt = (Element) document.createElement("rect");
+	private SvgElement createRectangleInternal(double x, double y, double width, double height) {
+		final SvgElement elt = new SvgElement("rect");
 		elt.setAttribute("x", format(x));
 		elt.setAttribute("y", format(y));
 		elt.setAttribute("width", format(width));
@@ -409,14 +398,14 @@ public class SvgGraphics {
 	public void svgLine(double x1, double y1, double x2, double y2, double deltaShadow) {
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("line");
+			final SvgElement elt = new SvgElement("line");
 			elt.setAttribute("x1", format(x1));
 			elt.setAttribute("y1", format(y1));
 			elt.setAttribute("x2", format(x2));
 			elt.setAttribute("y2", format(y2));
 			elt.setAttribute("style", getStyle());
 			addFilterShadowId(elt, deltaShadow);
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		ensureVisible(x1 + 2 * deltaShadow, y1 + 2 * deltaShadow);
 		ensureVisible(x2 + 2 * deltaShadow, y2 + 2 * deltaShadow);
@@ -453,7 +442,7 @@ public class SvgGraphics {
 		assert points.length % 2 == 0;
 		manageShadow(deltaShadow);
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("polygon");
+			final SvgElement elt = new SvgElement("polygon");
 			final StringBuilder sb = new StringBuilder();
 			for (double coord : points) {
 				if (sb.length() > 0) {
@@ -465,7 +454,7 @@ public class SvgGraphics {
 			fillMe(elt);
 			elt.setAttribute("style", getStyleSpecial());
 			addFilterShadowId(elt, deltaShadow);
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 
 		for (int i = 0; i < points.length; i += 2) {
@@ -478,7 +467,7 @@ public class SvgGraphics {
 			String fontStyle, String textDecoration, double textLength, Map<String, String> attributes,
 			String textBackColor) {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("text");
+			final SvgElement elt = new SvgElement("text");
 			// required for web-kit based browsers
 			// elt.setAttribute("text-rendering", "geometricPrecision");
 			elt.setAttribute("x", format(x));
@@ -523,18 +512,18 @@ public class SvgGraphics {
 				elt.setAttribute(ent.getKey(), ent.getValue());
 			}
 			elt.setTextContent(text);
-			getG().appendChild(elt);
+			appendChild(elt);
 
 			// http://forum.plantuml.net/9158/hyperlink-without-underline
 			// if (textDecoration != null && textDecoration.contains("underline")) {
 			// final double delta = 2;
-			// final Element elt2 = (Element) document.createElement("line");
+			// final SvgElement elt2 = new SvgElement("line");
 			// elt2.setAttribute("x1", format(x));
 			// elt2.setAttribute("y1", format(y + delta));
 			// elt2.setAttribute("x2", format(x + textLength));
 			// elt2.setAttribute("y2", format(y + delta));
 			// elt2.setAttribute("style", getStyleInternal(fill, "1.0", null));
-			// getG().appendChild(elt2);
+			// appendChild(elt2);
 			// }
 
 		}
@@ -559,7 +548,7 @@ public class SvgGraphics {
 			return id;
 		}
 		id = getIdFilterBackColor(color);
-		final Element filter = (Element) document.createElement("filter");
+		final SvgElement filter = new SvgElement("filter");
 		filter.setAttribute("id", id);
 		filter.setAttribute("x", "0");
 		filter.setAttribute("y", "0");
@@ -567,66 +556,35 @@ public class SvgGraphics {
 		filter.setAttribute("height", "1");
 		addFilter(filter, "feFlood", "flood-color", color, "result", "flood");
 		addFilter(filter, "feComposite", "in", "SourceGraphic", "in2", "flood", "operator", "over");
-		defs.appendChild(filter);
+		filter.write(defs);
 		return id;
 	}
 
-	private Transformer getTransformer() throws TransformerException {
-		// Get a TransformerFactory object.
-		TransformerFactory xformFactory = null;
-//		try {
-//			final Class<?> factoryClass = Class
-//					.forName("com.sun.org.apache.xalan.internal.xsltc.trax.TransformerFactoryImpl");
-//			xformFactory = (TransformerFactory) factoryClass.newInstance();
-//		} catch (Exception e) {
-		xformFactory = TransformerFactory.newInstance();
-//		}
-		Log.info("TransformerFactory=" + xformFactory.getClass());
-
-		// Get an XSL Transformer object.
-		final Transformer transformer = xformFactory.newTransformer();
-		Log.info("Transformer=" + transformer.getClass());
-
-		// // Sets the standalone property in the first line of
-		// // the output file.
-		transformer.setOutputProperty(OutputKeys.STANDALONE, "no");
-		// transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, "SVG 1.1");
-		// transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-
-		return transformer;
-	}
-
-	public void createXml(OutputStream os) throws TransformerException, IOException {
-		if (images.size() == 0) {
-			createXmlInternal(os);
-			return;
+	public void createXml(OutputStream os) throws IOException {
+		if (nbOpened > 0) {
+			// Unclosed links or groups are not part of the document
+			body.setLength(pendingStart);
+			for (int i = inserts.size() - 1; i >= 0; i--) {
+				if (inserts.get(i).position > pendingStart) {
+					inserts.remove(i);
+				}
+			}
 		}
-		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		createXmlInternal(baos);
-		String s = new String(baos.toByteArray());
-		for (Map.Entry<String, String> ent : images.entrySet()) {
-			final String k = "<" + ent.getKey() + "/>";
-			s = s.replace(k, ent.getValue());
+		if (withInlinedSvg == false) {
+			final Writer writer = new BufferedWriter(new OutputStreamWriter(os, UTF8));
+			writer.write(XML_HEADER);
+			createXmlInternal(writer, false);
+			writer.flush();
+			return;
 		}
-		s = removeXmlHeader(s);
-		os.write(s.getBytes());
-	}
-
-	private String removeXmlHeader(String s) {
-		s = s.replaceFirst("^<\\?xml [^<>]+?\\>", "");
-		return s;
+		// Inlined svg images used to be inserted in the text decoded with the default
+		// charset, and without xml header: we keep the same output.
+		final StringBuilder sb = new StringBuilder();
+		createXmlInternal(sb, true);
+		os.write(sb.toString().getBytes());
 	}
 
-	private void createXmlInternal(OutputStream os) throws TransformerException {
-		// // Add lines
-		// for (Line l : lines) {
-		// l.drawNow();
-		// }
-
-		// Get a DOMSource object that represents the
-		// Document object
-		final DOMSource source = new DOMSource(document);
-
+	private void createXmlInternal(Appendable out, boolean defaultCharset) throws IOException {
 		final int maxXscaled = (int) (maxX * scale);
 		final int maxYscaled = (int) (maxY * scale);
 		String style = "width:" + maxXscaled + "px;height:" + maxYscaled + "px;";
@@ -645,16 +603,47 @@ public class SvgGraphics {
 		root.setAttribute("contentStyleType", "text/css");
 
 		if (pendingBackground != null) {
-			pendingBackground.setAttribute("width", format(maxX));
-			pendingBackground.setAttribute("height", format(maxY));
+			pendingBackground.element.setAttribute("width", format(maxX));
+			pendingBackground.element.setAttribute("height", format(maxY));
+		}
 
+		final StringBuilder head = new StringBuilder();
+		root.writeStart(head);
+		if (defs.length() == 0) {
+			head.append("<defs/>");
+		} else {
+			head.append("<defs>").append(defs).append("</defs>");
 		}
+		if (body.length() == 0 && inserts.size() == 0) {
+			head.append("<g/></svg>");
+			append(out, head, 0, head.length(), defaultCharset);
+			return;
+		}
+		head.append("<g>");
+		append(out, head, 0, head.length(), defaultCharset);
+		int done = 0;
+		for (Insert insert : inserts) {
+			append(out, body, done, insert.position, defaultCharset);
+			if (insert.svg != null) {
+				out.append(insert.svg);
+			} else {
+				final StringBuilder tmp = new StringBuilder();
+				insert.element.write(tmp);
+				append(out, tmp, 0, tmp.length(), defaultCharset);
+			}
+			done = insert.position;
+		}
+		append(out, body, done, body.length(), defaultCharset);
+		out.append("</g></svg>");
+	}
 
-		// Get a StreamResult object that points to the
-		// screen. Then transform the DOM sending XML to
-		// the screen.
-		final StreamResult scrResult = new StreamResult(os);
-		getTransformer().transform(source, scrResult);
+	private static void append(Appendable out, CharSequence s, int start, int end, boolean defaultCharset)
+			throws IOException {
+		if (defaultCharset) {
+			out.append(new String(s.subSequence(start, end).toString().getBytes(UTF8)));
+		} else {
+			out.append(s, start, end);
+		}
 	}
 
 	public void svgPath(double x, double y, UPath path, double deltaShadow) {
@@ -695,7 +684,7 @@ public class SvgGraphics {
 
 		}
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", sb.toString());
 			elt.setAttribute("style", getStyle());
 			fillMe(elt);
@@ -708,17 +697,17 @@ public class SvgGraphics {
 				elt.setAttribute("codeLine", codeLine);
 			}
 			addFilterShadowId(elt, deltaShadow);
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 	}
 
-	private void fillMe(Element elt) {
+	private void fillMe(SvgElement elt) {
 		if (fill.equals("#00000000") == false) {
 			elt.setAttribute("fill", fill);
 		}
 	}
 
-	private void addFilterShadowId(final Element elt, double deltaShadow) {
+	private void addFilterShadowId(final SvgElement elt, double deltaShadow) {
 		if (deltaShadow > 0) {
 			elt.setAttribute("filter", "url(#" + shadowId + ")");
 		}
@@ -771,11 +760,11 @@ public class SvgGraphics {
 
 	public void fill(int windingRule) {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("path");
+			final SvgElement elt = new SvgElement("path");
 			elt.setAttribute("d", currentPath.toString());
 			fillMe(elt);
 			// elt elt.setAttribute("style", getStyle());
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		currentPath = null;
 
@@ -810,30 +799,29 @@ public class SvgGraphics {
 
 	public void svgImage(BufferedImage image, double x, double y) throws IOException {
 		if (hidden == false) {
-			final Element elt = (Element) document.createElement("image");
+			final SvgElement elt = new SvgElement("image");
 			elt.setAttribute("width", format(image.getWidth()));
 			elt.setAttribute("height", format(image.getHeight()));
 			elt.setAttribute("x", format(x));
 			elt.setAttribute("y", format(y));
 			final String s = toBase64(image);
 			elt.setAttribute("xlink:href", "data:image/png;base64," + s);
-			getG().appendChild(elt);
+			appendChild(elt);
 		}
 		ensureVisible(x, y);
 		ensureVisible(x + image.getWidth(), y + image.getHeight());
 	}
 
-	private final Map<String, String> images = new HashMap<String, String>();
+	private boolean withInlinedSvg = false;
 
 	public void svgImage(UImageSvg image, double x, double y) {
 		if (hidden == false) {
 			String svg = manageScale(image);
 			final String pos = "<svg x=\"" + format(x) + "\" y=\"" + format(y) + "\">";
 			svg = pos + svg.substring(5);
-			final String key = "imagesvginlined" + image.getMD5Hex() + images.size();
-			final Element elt = (Element) document.createElement(key);
-			getG().appendChild(elt);
-			images.put(key, svg);
+			openPendingAction();
+			inserts.add(new Insert(body.length(), null, svg));
+			withInlinedSvg = true;
 		}
 		ensureVisible(x, y);
 		ensureVisible(x + image.getData("width"), y + image.getData("height"));
@@ -872,7 +860,7 @@ public class SvgGraphics {
 		if (deltaShadow != 0) {
 			if (withShadow == false) {
 				// <filter id="f1" x="0" y="0" width="120%" height="120%">
-				final Element filter = (Element) document.createElement("filter");
+				final SvgElement filter = new SvgElement("filter");
 				filter.setAttribute("id", shadowId);
 				filter.setAttribute("x", "-1");
 				filter.setAttribute("y", "-1");
@@ -884,16 +872,16 @@ public class SvgGraphics {
 				addFilter(filter, "feOffset", "result", "blurOut3", "in", "blurOut2", "dx", "" + (4 * scale), "dy",
 						"" + (4 * scale));
 				addFilter(filter, "feBlend", "in", "SourceGraphic", "in2", "blurOut3", "mode", "normal");
-				defs.appendChild(filter);
+				filter.write(defs);
 
 			}
 			withShadow = true;
 		}
 	}
 
-	private void addFilter(Element filter, String name, String... data) {
+	private void addFilter(SvgElement filter, String name, String... data) {
 		assert data.length % 2 == 0;
-		final Element elt = (Element) document.createElement(name);
+		final SvgElement elt = new SvgElement(name);
 		for (int i = 0; i < data.length; i += 2) {
 			elt.setAttribute(data[i], data[i + 1]);
 		}
@@ -915,8 +903,8 @@ public class SvgGraphics {
 	public void addComment(String comment) {
 		final String signature = getMD5Hex(comment);
 		comment = "MD5=[" + signature + "]\n" + comment;
-		final Comment commentElement = document.createComment(comment);
-		getG().appendChild(commentElement);
+		openPendingAction();
+		SvgElement.appendComment(body, comment);
 	}
 
 	public void openLink(String url, String title, String target) {
@@ -932,7 +920,7 @@ public class SvgGraphics {
 			closeLink();
 		}
 
-		pendingAction.add(0, (Element) document.createElement("a"));
+		pendingAction.add(0, new SvgElement("a"));
 		pendingAction.get(0).setAttribute("target", target);
 		pendingAction.get(0).setAttribute(XLINK_HREF1, url);
 		pendingAction.get(0).setAttribute(XLINK_HREF2, url);
@@ -966,21 +954,21 @@ public class SvgGraphics {
 
 	public void closeLink() {
 		if (pendingAction.size() > 0) {
-			final Element element = pendingAction.get(0);
-			pendingAction.remove(0);
-			if (element.getFirstChild() != null) {
-				// Empty link
-				getG().appendChild(element);
+			final SvgElement element = pendingAction.remove(0);
+			if (nbOpened > pendingAction.size()) {
+				element.writeEnd(body);
+				nbOpened--;
 			}
+			// Otherwise, this is an empty link
 		}
 	}
 
 	public void startGroup(UGroupType type, String ident) {
 		if (type == UGroupType.ID) {
-			pendingAction.add(0, (Element) document.createElement("g"));
+			pendingAction.add(0, new SvgElement("g"));
 			pendingAction.get(0).setAttribute("id", ident);
 		} else if (INTERACTIVE && type == UGroupType.CLASS) {
-			pendingAction.add(0, (Element) document.createElement("g"));
+			pendingAction.add(0, new SvgElement("g"));
 			pendingAction.get(0).setAttribute("class", ident);
 		}
 	}
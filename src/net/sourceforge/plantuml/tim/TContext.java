@@ -35,7 +35,6 @@
 package net.sourceforge.plantuml.tim;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -56,7 +55,6 @@ import net.sourceforge.plantuml.preproc.FileWithSuffix;
 import net.sourceforge.plantuml.preproc.ImportedFiles;
 import net.sourceforge.plantuml.preproc.ReadLine;
 import net.sourceforge.plantuml.preproc.ReadLineList;
-import net.sourceforge.plantuml.preproc.ReadLineReader;
 import net.sourceforge.plantuml.preproc.StartDiagramExtractReader;
 import net.sourceforge.plantuml.preproc.Sub;
 import net.sourceforge.plantuml.preproc.UncommentReadLine;
@@ -124,6 +122,17 @@ public class TContext {
 		return Collections.unmodifiableSet(filesUsedCurrent);
 	}
 
+	// The result does not only depend on the source: files, URLs, date...
+	private boolean externalInput;
+
+	public void markExternalInput() {
+		this.externalInput = true;
+	}
+
+	public boolean hasExternalInput() {
+		return externalInput;
+	}
+
 	private void addStandardFunctions(Defines defines) {
 		functionsSet.addFunction(new Strlen());
 		functionsSet.addFunction(new Substr());
@@ -445,6 +454,7 @@ public class TContext {
 	private void executeImport(TMemory memory, StringLocated s) throws EaterException, EaterExceptionLocated {
 		final EaterImport _import = new EaterImport(s.getTrimmed());
 		_import.analyze(this, memory);
+		markExternalInput();
 
 		try {
 			final SFile file = FileSystem.getInstance()
@@ -475,6 +485,7 @@ public class TContext {
 			final int idx = location.indexOf('!');
 			Sub sub = null;
 			if (idx != -1) {
+				markExternalInput();
 				final String filename = location.substring(0, idx);
 				final String blocname = location.substring(idx + 1);
 				try {
@@ -482,13 +493,12 @@ public class TContext {
 					if (f2.fileOk()) {
 						saveImportedFiles = this.importedFiles;
 						this.importedFiles = this.importedFiles.withCurrentDir(f2.getParentFile());
-						final Reader reader = f2.getReader(charset);
+						final ReadLine reader = f2.getReadLine(charset, location, s.getLocation());
 						if (reader == null) {
 							throw EaterException.located("cannot include " + location);
 						}
 						try {
-							ReadLine readerline = ReadLineReader.create(reader, location, s.getLocation());
-							readerline = new UncommentReadLine(readerline);
+							final ReadLine readerline = new UncommentReadLine(reader);
 							sub = Sub.fromFile(readerline, blocname, this, memory);
 						} finally {
 							reader.close();
@@ -558,6 +568,7 @@ public class TContext {
 		ImportedFiles saveImportedFiles = null;
 		try {
 			if (location.startsWith("http://") || location.startsWith("https://")) {
+				markExternalInput();
 				final SURL url = SURL.create(location);
 				if (url == null) {
 					throw EaterException.located("Cannot open URL");
@@ -566,6 +577,7 @@ public class TContext {
 			} else if (location.startsWith("<") && location.endsWith(">")) {
 				reader2 = PreprocessorUtils.getReaderStdlibInclude(s, location.substring(1, location.length() - 1));
 			} else {
+				markExternalInput();
 				final FileWithSuffix f2 = importedFiles.getFile(location, suf);
 				if (f2.fileOk()) {
 					if (strategy == PreprocessorIncludeStrategy.DEFAULT && filesUsedCurrent.contains(f2)) {
@@ -578,11 +590,10 @@ public class TContext {
 					if (StartDiagramExtractReader.containsStartDiagram(f2, s, charset)) {
 						reader2 = StartDiagramExtractReader.build(f2, s, charset);
 					} else {
-						final Reader reader = f2.getReader(charset);
-						if (reader == null) {
+						reader2 = f2.getReadLine(charset, location, s.getLocation());
+						if (reader2 == null) {
 							throw EaterException.located("Cannot include file");
 						}
-						reader2 = ReadLineReader.create(reader, location, s.getLocation());
 					}
 					saveImportedFiles = this.importedFiles;
 					this.importedFiles = this.importedFiles.withCurrentDir(f2.getParentFile());
@@ -91,4 +91,8 @@ public class TimLoader {
 		return preprocessorError;
 	}
 
+	public final boolean hasExternalInput() {
+		return context.hasExternalInput();
+	}
+
 }
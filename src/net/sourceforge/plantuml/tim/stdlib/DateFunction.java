@@ -60,6 +60,7 @@ public class DateFunction extends SimpleReturnFunction {
 
 	public TValue executeReturnFunction(TContext context, TMemory memory, LineLocation location, List<TValue> values,
 			Map<String, TValue> named) throws EaterException, EaterExceptionLocated {
+		context.markExternalInput();
 		if (values.size() == 0) {
 			return TValue.fromString(new Date().toString());
 		}
@@ -59,6 +59,7 @@ public class Getenv extends SimpleReturnFunction {
 
 	public TValue executeReturnFunction(TContext context, TMemory memory, LineLocation location, List<TValue> values,
 			Map<String, TValue> named) throws EaterException, EaterExceptionLocated {
+		context.markExternalInput();
 		if (OptionFlags.ALLOW_INCLUDE == false) {
 			return TValue.fromString("");
 		}
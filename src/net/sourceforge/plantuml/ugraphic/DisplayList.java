@@ -0,0 +1,161 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.ugraphic;
+
+import java.util.Arrays;
+
+import net.sourceforge.plantuml.Url;
+
+/**
+ * Drawing orders captured by a {@link UGraphicRecorder}.
+ * 
+ * Each {@link UGraphic} derived by the recorder is a node, stored as its parent
+ * node and the {@link UChange} applied to it. Each order references the node
+ * it was sent to. On replay, nodes are rebuilt lazily by applying the same
+ * changes to the target, so every driver sees exactly the stream it would have
+ * received from the drawable itself.
+ */
+public final class DisplayList {
+
+	private static final byte DRAW = 0;
+	private static final byte START_URL = 1;
+	private static final byte CLOSE_URL = 2;
+	private static final byte START_GROUP = 3;
+	private static final byte CLOSE_GROUP = 4;
+
+	private int nbNodes = 1;
+	private int parents[] = new int[64];
+	private UChange changes[] = new UChange[64];
+
+	private int nbOrders;
+	private byte kinds[] = new byte[256];
+	private int nodes[] = new int[256];
+	private Object args[] = new Object[256];
+
+	int addNode(int parent, UChange change) {
+		if (nbNodes == parents.length) {
+			parents = Arrays.copyOf(parents, nbNodes * 2);
+			changes = Arrays.copyOf(changes, nbNodes * 2);
+		}
+		parents[nbNodes] = parent;
+		changes[nbNodes] = change;
+		return nbNodes++;
+	}
+
+	void draw(int node, UShape shape) {
+		add(DRAW, node, shape);
+	}
+
+	void startUrl(int node, Url url) {
+		add(START_URL, node, url);
+	}
+
+	void closeUrl(int node) {
+		add(CLOSE_URL, node, null);
+	}
+
+	void startGroup(int node, UGroupType type, String ident) {
+		add(START_GROUP, node, new Object[] { type, ident });
+	}
+
+	void closeGroup(int node) {
+		add(CLOSE_GROUP, node, null);
+	}
+
+	private void add(byte kind, int node, Object arg) {
+		if (nbOrders == kinds.length) {
+			kinds = Arrays.copyOf(kinds, nbOrders * 2);
+			nodes = Arrays.copyOf(nodes, nbOrders * 2);
+			args = Arrays.copyOf(args, nbOrders * 2);
+		}
+		kinds[nbOrders] = kind;
+		nodes[nbOrders] = node;
+		args[nbOrders] = arg;
+		nbOrders++;
+	}
+
+	public int size() {
+		return nbOrders;
+	}
+
+	public void replay(UGraphic ug) {
+		final UGraphic graphics[] = new UGraphic[nbNodes];
+		graphics[0] = ug;
+		for (int i = 0; i < nbOrders; i++) {
+			final UGraphic target = getGraphic(graphics, nodes[i]);
+			switch (kinds[i]) {
+			case DRAW:
+				target.draw((UShape) args[i]);
+				break;
+			case START_URL:
+				target.startUrl((Url) args[i]);
+				break;
+			case CLOSE_URL:
+				target.closeUrl();
+				break;
+			case START_GROUP:
+				final Object group[] = (Object[]) args[i];
+				target.startGroup((UGroupType) group[0], (String) group[1]);
+				break;
+			case CLOSE_GROUP:
+				target.closeGroup();
+				break;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	private UGraphic getGraphic(UGraphic graphics[], int node) {
+		if (graphics[node] == null) {
+			// Loops like ug = ug.apply(...) give long chains: walk them without recursion
+			int path[] = new int[8];
+			int depth = 0;
+			for (int current = node; graphics[current] == null; current = parents[current]) {
+				if (depth == path.length) {
+					path = Arrays.copyOf(path, depth * 2);
+				}
+				path[depth++] = current;
+			}
+			while (depth-- > 0) {
+				final int current = path[depth];
+				graphics[current] = graphics[parents[current]].apply(changes[current]);
+			}
+		}
+		return graphics[node];
+	}
+
+}
@@ -45,6 +45,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
 
@@ -62,6 +63,7 @@ import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.FileUtils;
 import net.sourceforge.plantuml.ISkinParam;
 import net.sourceforge.plantuml.LineParam;
+import net.sourceforge.plantuml.Log;
 import net.sourceforge.plantuml.Scale;
 import net.sourceforge.plantuml.SvgCharSizeHack;
 import net.sourceforge.plantuml.TitledDiagram;
@@ -77,7 +79,9 @@ import net.sourceforge.plantuml.eps.EpsStrategy;
 import net.sourceforge.plantuml.graphic.StringBounder;
 import net.sourceforge.plantuml.graphic.TextBlock;
 import net.sourceforge.plantuml.graphic.UDrawable;
+import net.sourceforge.plantuml.cucadiagram.dot.GraphvizUtils;
 import net.sourceforge.plantuml.mjpeg.MJPEGGenerator;
+import net.sourceforge.plantuml.png.PngStripWriter;
 import net.sourceforge.plantuml.security.ImageIO;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.skin.rose.Rose;
@@ -109,6 +113,8 @@ import static net.sourceforge.plantuml.SkinParam.DEFAULT_PRESERVE_ASPECT_RATIO;
 
 public class ImageBuilder {
 
+	private static final int PNG_STRIP_PIXELS = 4096 * 4096;
+
 	private Animation animation;
 	private boolean annotations;
 	private HColor backcolor = HColorUtils.WHITE;
@@ -116,6 +122,9 @@ public class ImageBuilder {
 	private Dimension2D dimension;
 	private final FileFormatOption fileFormatOption;
 	private UDrawable udrawable;
+	private DisplayList displayList;
+	private FileFormat displayListFormat;
+	private boolean replayable = true;
 	private ClockwiseTopRightBottomLeft margin = ClockwiseTopRightBottomLeft.none();
 	private String metadata;
 	private long seed = 42;
@@ -189,6 +198,16 @@ public class ImageBuilder {
 		return this;
 	}
 
+	/**
+	 * A drawable whose geometry depends on the previous calls of drawU() is not
+	 * replayable: it is walked again to draw the image, after the walk that
+	 * computes its size.
+	 */
+	public ImageBuilder replayable(boolean replayable) {
+		this.replayable = replayable;
+		return this;
+	}
+
 	public ImageBuilder seed(long seed) {
 		this.seed = seed;
 		return this;
@@ -272,15 +291,15 @@ public class ImageBuilder {
 		}
 		final Scale scale = titledDiagram == null ? null : titledDiagram.getScale();
 		final double scaleFactor = (scale == null ? 1 : scale.getScale(dim.getWidth(), dim.getHeight())) * getDpi() / 96.0;
-		final UGraphic2 ug = createUGraphic(fileFormatOption, dim, animationArg, dx, dy, scaleFactor);
-		UGraphic ug2 = ug;
-		maybeDrawBorder(ug, dim);
-		if (randomPixel) {
-			drawRandomPoint(ug2);
+		if (fileFormatOption.getFileFormat() == FileFormat.PNG && animationArg == null) {
+			final int width = Math.min((int) (dim.getWidth() * scaleFactor), GraphvizUtils.getenvImageLimit());
+			final int height = Math.min((int) (dim.getHeight() * scaleFactor), GraphvizUtils.getenvImageLimit());
+			if ((long) width * height > PNG_STRIP_PIXELS) {
+				return writeImagePngStrips(os, dim, scaleFactor, width, height);
+			}
 		}
-		ug2 = handwritten(ug2.apply(new UTranslate(margin.getLeft(), margin.getTop())));
-		udrawable.drawU(ug2);
-		ug2.flushUg();
+		final UGraphic2 ug = createUGraphic(fileFormatOption, dim, animationArg, dx, dy, scaleFactor);
+		drawAll(ug, dim, fileFormatOption.getFileFormat());
 		ug.writeImageTOBEMOVED(os, metadata, 96);
 		os.flush();
 
@@ -294,6 +313,49 @@ public class ImageBuilder {
 		return createImageData(dim);
 	}
 
+	private void drawAll(UGraphic ug, Dimension2D dim, FileFormat format) {
+		UGraphic ug2 = ug;
+		maybeDrawBorder(ug, dim);
+		if (randomPixel) {
+			drawRandomPoint(ug2);
+		}
+		ug2 = handwritten(ug2.apply(new UTranslate(margin.getLeft(), margin.getTop())));
+		if (displayList != null && displayListFormat == format) {
+			displayList.replay(ug2);
+		} else {
+			udrawable.drawU(ug2);
+		}
+		ug2.flushUg();
+	}
+
+	// Images larger than this are drawn and encoded strip after strip: this only
+	// happens when PLANTUML_LIMIT_SIZE is raised above its default value
+	private ImageData writeImagePngStrips(OutputStream os, Dimension2D dim, double scaleFactor, int width,
+			int height) throws IOException {
+		final Color backColor = getPngBackColor();
+		final int stripHeight = Math.max(1, PNG_STRIP_PIXELS / width);
+		Log.info("Creating image " + width + "x" + height + " by strips of " + stripHeight);
+		final PngStripWriter writer = new PngStripWriter(os, width, height, backColor == null
+				|| backColor.getAlpha() != 255, metadata, 96);
+		final Set<Url> urls = new HashSet<Url>();
+		for (int top = 0; top < height; top += stripHeight) {
+			final EmptyImageBuilder builder = new EmptyImageBuilder(fileFormatOption.getWatermark(), width, height,
+					backColor, top, Math.min(stripHeight, height - top));
+			final UGraphicG2d ug = createUGraphicPNG(builder, scaleFactor, width, height, null, 0, 0);
+			drawAll(ug, dim, FileFormat.PNG);
+			writer.write(builder.getBufferedImage());
+			builder.getGraphics2D().dispose();
+			urls.addAll(ug.getAllUrlsEncountered());
+		}
+		writer.close();
+		os.flush();
+		if (urls.size() > 0) {
+			final CMapData cmap = CMapData.cmapString(urls, scaleFactor);
+			return new ImageDataComplex(dim, cmap, warningOrError, status);
+		}
+		return createImageData(dim);
+	}
+
 	private void maybeDrawBorder(UGraphic ug, Dimension2D dim) {
 		if (skinParam == null) return;
 
@@ -321,10 +383,27 @@ public class ImageBuilder {
 
 	private Dimension2D getFinalDimension() {
 		if (dimension == null) {
-			final LimitFinder limitFinder = new LimitFinder(fileFormatOption.getDefaultStringBounder(getSvgCharSizeHack()), true);
-			udrawable.drawU(limitFinder);
-			dimension = new Dimension2DDouble(limitFinder.getMaxX() + 1 + margin.getLeft() + margin.getRight(),
-					limitFinder.getMaxY() + 1 + margin.getTop() + margin.getBottom());
+			final StringBounder stringBounder = fileFormatOption.getDefaultStringBounder(getSvgCharSizeHack());
+			final FileFormat format = fileFormatOption.getFileFormat();
+			final double maxX;
+			final double maxY;
+			if (replayable && (format == FileFormat.PNG || format == FileFormat.SVG)) {
+				// One traversal for both sizing and drawing: see writeImageInternal()
+				final UGraphicRecorder recorder = new UGraphicRecorder(stringBounder, colorMapper,
+						format == FileFormat.SVG ? "SVG" : null);
+				udrawable.drawU(recorder);
+				displayList = recorder.getDisplayList();
+				displayListFormat = format;
+				maxX = recorder.getMaxX();
+				maxY = recorder.getMaxY();
+			} else {
+				final LimitFinder limitFinder = new LimitFinder(stringBounder, true);
+				udrawable.drawU(limitFinder);
+				maxX = limitFinder.getMaxX();
+				maxY = limitFinder.getMaxY();
+			}
+			dimension = new Dimension2DDouble(maxX + 1 + margin.getLeft() + margin.getRight(),
+					maxY + 1 + margin.getTop() + margin.getBottom());
 		}
 		return dimension;
 	}
@@ -462,28 +541,36 @@ public class ImageBuilder {
 
 	private UGraphic2 createUGraphicPNG(double scaleFactor, final Dimension2D dim,
 			Animation affineTransforms, double dx, double dy, String watermark) {
-		Color backColor = Color.WHITE;  // TODO simplify backcolor some more in a future PR
-		if (this.backcolor instanceof HColorSimple) {
-			backColor = colorMapper.toColor(this.backcolor);
-		} else if (this.backcolor instanceof HColorBackground) {
-			backColor = null;
-		}
-
 		final EmptyImageBuilder builder = new EmptyImageBuilder(watermark, (int) (dim.getWidth() * scaleFactor),
-				(int) (dim.getHeight() * scaleFactor), backColor);
+				(int) (dim.getHeight() * scaleFactor), getPngBackColor());
+		final BufferedImage im = builder.getBufferedImage();
+		return createUGraphicPNG(builder, scaleFactor, im.getWidth(), im.getHeight(), affineTransforms, dx, dy);
+	}
+
+	private UGraphicG2d createUGraphicPNG(EmptyImageBuilder builder, double scaleFactor, int width, int height,
+			Animation affineTransforms, double dx, double dy) {
 		final Graphics2D graphics2D = builder.getGraphics2D();
 
 		final UGraphicG2d ug = new UGraphicG2d(colorMapper, graphics2D, scaleFactor,
 				affineTransforms == null ? null : affineTransforms.getFirst(), dx, dy);
 		ug.setBufferedImage(builder.getBufferedImage());
-		final BufferedImage im = ug.getBufferedImage();
 		if (this.backcolor instanceof HColorGradient) {
-			ug.apply(this.backcolor.bg()).draw(new URectangle(im.getWidth() / scaleFactor, im.getHeight() / scaleFactor));
+			ug.apply(this.backcolor.bg()).draw(new URectangle(width / scaleFactor, height / scaleFactor));
 		}
 
 		return ug;
 	}
 
+	private Color getPngBackColor() {
+		Color backColor = Color.WHITE;  // TODO simplify backcolor some more in a future PR
+		if (this.backcolor instanceof HColorSimple) {
+			backColor = colorMapper.toColor(this.backcolor);
+		} else if (this.backcolor instanceof HColorBackground) {
+			backColor = null;
+		}
+		return backColor;
+	}
+
 	private static HColor calculateBackColor(TitledDiagram diagram) {
 		if (UseStyle.useBetaStyle()) {
 			final Style style = StyleSignature
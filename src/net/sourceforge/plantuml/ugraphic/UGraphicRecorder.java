@@ -0,0 +1,141 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.ugraphic;
+
+import net.sourceforge.plantuml.Url;
+import net.sourceforge.plantuml.graphic.StringBounder;
+import net.sourceforge.plantuml.ugraphic.color.ColorMapper;
+
+/**
+ * A UGraphic that records everything drawn into a {@link DisplayList} and
+ * computes the same limits as a {@link LimitFinder} while doing so.
+ * 
+ * A drawable can then be measured and written with a single traversal: the
+ * list is replayed into the real UGraphic once the image size is known.
+ */
+public class UGraphicRecorder extends AbstractCommonUGraphic {
+
+	private final StringBounder stringBounder;
+	private final String property;
+	private final DisplayList displayList;
+	private int node;
+	private LimitFinder limitFinder;
+
+	/**
+	 * @param property the only property that the target UGraphic matches, or null
+	 */
+	public UGraphicRecorder(StringBounder stringBounder, ColorMapper colorMapper, String property) {
+		super(colorMapper);
+		this.stringBounder = stringBounder;
+		this.property = property;
+		this.displayList = new DisplayList();
+		this.limitFinder = new LimitFinder(stringBounder, true);
+	}
+
+	private UGraphicRecorder(UGraphicRecorder other) {
+		super(other);
+		this.stringBounder = other.stringBounder;
+		this.property = other.property;
+		this.displayList = other.displayList;
+		this.node = other.node;
+		this.limitFinder = other.limitFinder;
+	}
+
+	@Override
+	protected AbstractCommonUGraphic copyUGraphic() {
+		return new UGraphicRecorder(this);
+	}
+
+	@Override
+	public UGraphic apply(UChange change) {
+		final UGraphic limitFinderCopy = limitFinder.apply(change);
+		final UGraphicRecorder copy = (UGraphicRecorder) super.apply(change);
+		copy.node = displayList.addNode(node, change);
+		copy.limitFinder = (LimitFinder) limitFinderCopy;
+		return copy;
+	}
+
+	public StringBounder getStringBounder() {
+		return stringBounder;
+	}
+
+	public void draw(UShape shape) {
+		displayList.draw(node, shape);
+		limitFinder.draw(shape);
+	}
+
+	@Override
+	public void startUrl(Url url) {
+		displayList.startUrl(node, url);
+	}
+
+	@Override
+	public void closeUrl() {
+		displayList.closeUrl(node);
+	}
+
+	@Override
+	public void startGroup(UGroupType type, String ident) {
+		displayList.startGroup(node, type, ident);
+	}
+
+	@Override
+	public void closeGroup() {
+		displayList.closeGroup(node);
+	}
+
+	@Override
+	public boolean matchesProperty(String propertyName) {
+		return propertyName.equalsIgnoreCase(property);
+	}
+
+	public DisplayList getDisplayList() {
+		return displayList;
+	}
+
+	public double getMaxX() {
+		return limitFinder.getMaxX();
+	}
+
+	public double getMaxY() {
+		return limitFinder.getMaxY();
+	}
+
+	public MinMax getMinMax() {
+		return limitFinder.getMinMax();
+	}
+
+}
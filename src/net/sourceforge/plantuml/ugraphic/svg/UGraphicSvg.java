@@ -38,8 +38,6 @@ import java.awt.geom.Dimension2D;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import javax.xml.transform.TransformerException;
-
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.SvgCharSizeHack;
 import net.sourceforge.plantuml.TikzFontDistortion;
@@ -168,14 +166,10 @@ public class UGraphicSvg extends AbstractUGraphic<SvgGraphics> implements ClipCo
 	}
 
 	public void createXml(OutputStream os, String metadata) throws IOException {
-		try {
-			if (metadata != null) {
-				getGraphicObject().addComment(metadata);
-			}
-			getGraphicObject().createXml(os);
-		} catch (TransformerException e) {
-			throw new IOException(e.toString());
+		if (metadata != null) {
+			getGraphicObject().addComment(metadata);
 		}
+		getGraphicObject().createXml(os);
 	}
 
 	@Override
@@ -0,0 +1,253 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package smetana.core;
+
+import static smetana.core.Macro.DT_ATTACH;
+import static smetana.core.Macro.DT_CLEAR;
+import static smetana.core.Macro.DT_DELETE;
+import static smetana.core.Macro.DT_DETACH;
+import static smetana.core.Macro.DT_FIRST;
+import static smetana.core.Macro.DT_FOUND;
+import static smetana.core.Macro.DT_INSERT;
+import static smetana.core.Macro.DT_LAST;
+import static smetana.core.Macro.DT_MATCH;
+import static smetana.core.Macro.DT_NEXT;
+import static smetana.core.Macro.DT_OSET;
+import static smetana.core.Macro.DT_PREV;
+import static smetana.core.Macro.DT_SEARCH;
+
+import h.ST_dt_s;
+import h.ST_dtdisc_s;
+import h.ST_dtlink_s;
+
+/**
+ * Ordered set dictionary stored in a sorted array, used instead of the splay
+ * trees of CDT (Dttree).
+ * 
+ * Objects are located by binary search with the comparison of the discipline,
+ * so walks give exactly the same order as Dttree. The position of the last
+ * object returned is kept, so that walking with dtnext() does not search at
+ * all. The array is kept in <code>dt.data.here</code>: dtextract() and
+ * dtrestore() move it like they move the root of a tree.
+ * 
+ * Dttree is used instead when the Z context is opened with <code>cdt</code>
+ * set: see {@link Z#open(LayoutBudget, boolean)}.
+ */
+public final class ArrayDict {
+
+	public static final CFunction searchf = new CFunctionAbstract("arraydict") {
+		public Object exe(Object... args) {
+			return search((ST_dt_s) args[0], (__ptr__) args[1], (Integer) args[2]);
+		}
+	};
+
+	private ArrayDict() {
+	}
+
+	static final class Items extends ST_dtlink_s {
+
+		private __ptr__ data[] = new __ptr__[4];
+		private int size;
+		// Position of the last object returned
+		private int finger = -1;
+
+		private __ptr__ at(int index) {
+			if (index < 0 || index >= size) {
+				return null;
+			}
+			finger = index;
+			return data[index];
+		}
+
+		private void insert(int index, __ptr__ obj) {
+			if (size == data.length) {
+				final __ptr__ tmp[] = new __ptr__[size * 2];
+				System.arraycopy(data, 0, tmp, 0, size);
+				data = tmp;
+			}
+			System.arraycopy(data, index, data, index + 1, size - index);
+			data[index] = obj;
+			size++;
+			finger = index;
+		}
+
+		private void remove(int index) {
+			System.arraycopy(data, index + 1, data, index, size - index - 1);
+			data[--size] = null;
+			finger = -1;
+		}
+
+		private void clear() {
+			data = new __ptr__[4];
+			size = 0;
+			finger = -1;
+		}
+
+		// Same convention as Arrays.binarySearch()
+		private int indexOf(ST_dt_s dt, Object key) {
+			if (size == 0) {
+				return -1;
+			}
+			// Objects are often inserted in order
+			if (compare(dt, key, data[size - 1]) > 0) {
+				return -(size + 1);
+			}
+			int low = 0;
+			int high = size - 1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				final int cmp = compare(dt, key, data[mid]);
+				if (cmp > 0) {
+					low = mid + 1;
+				} else if (cmp < 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+
+	}
+
+	/**
+	 * Number of objects of a dictionary, for dtsize().
+	 */
+	public static int size(ST_dtlink_s here) {
+		return here == null ? 0 : ((Items) here).size;
+	}
+
+	private static Object search(ST_dt_s dt, __ptr__ obj, int type) {
+		if ((dt.meth.type & DT_OSET) == 0) {
+			throw new UnsupportedOperationException("Only ordered sets are supported");
+		}
+		dt.type &= ~DT_FOUND;
+		Items items = (Items) dt.data.here;
+		if (obj == null) {
+			if (items == null || items.size == 0) {
+				return null;
+			}
+			if ((type & DT_CLEAR) != 0) {
+				items.clear();
+				dt.data.size = 0;
+				return null;
+			}
+			if ((type & DT_LAST) != 0) {
+				return items.at(items.size - 1);
+			}
+			if ((type & DT_FIRST) != 0) {
+				return items.at(0);
+			}
+			return null;
+		}
+
+		final int index;
+		if (items == null) {
+			index = -1;
+		} else if ((type & DT_MATCH) == 0 && items.finger >= 0 && items.data[items.finger] == obj) {
+			index = items.finger;
+		} else {
+			index = items.indexOf(dt, (type & DT_MATCH) != 0 ? obj : key(obj, dt.disc));
+		}
+
+		if (index >= 0) {
+			dt.type |= DT_FOUND;
+			if ((type & DT_NEXT) != 0) {
+				return items.at(index + 1);
+			}
+			if ((type & DT_PREV) != 0) {
+				return items.at(index - 1);
+			}
+			if ((type & (DT_DELETE | DT_DETACH)) != 0) {
+				final __ptr__ result = items.data[index];
+				items.remove(index);
+				if (dt.data.size > 0) {
+					dt.data.size--;
+				}
+				return result;
+			}
+			if ((type & (DT_SEARCH | DT_MATCH | DT_INSERT | DT_ATTACH)) != 0) {
+				return items.at(index);
+			}
+			throw new UnsupportedOperationException("type=" + type);
+		}
+
+		final int insertionPoint = -(index + 1);
+		if ((type & DT_NEXT) != 0) {
+			return items == null ? null : items.at(insertionPoint);
+		}
+		if ((type & DT_PREV) != 0) {
+			return items == null ? null : items.at(insertionPoint - 1);
+		}
+		if ((type & (DT_INSERT | DT_ATTACH)) != 0) {
+			final ST_dtdisc_s disc = dt.disc;
+			if (disc.makef != null && (type & DT_INSERT) != 0) {
+				obj = (__ptr__) disc.makef.exe(dt, obj, disc);
+			}
+			if (obj == null) {
+				throw new UnsupportedOperationException("makef");
+			}
+			if (items == null) {
+				items = new Items();
+				dt.data.here = items;
+			}
+			items.insert(insertionPoint, obj);
+			if (dt.data.size >= 0) {
+				dt.data.size++;
+			}
+			return obj;
+		}
+		// DT_SEARCH, DT_MATCH or DT_DELETE of a missing object
+		return null;
+	}
+
+	private static Object key(__ptr__ obj, ST_dtdisc_s disc) {
+		return obj.getTheField(disc.key);
+	}
+
+	private static int compare(ST_dt_s dt, Object key, __ptr__ obj) {
+		final ST_dtdisc_s disc = dt.disc;
+		final Object k = key(obj, disc);
+		if (disc.comparf == null) {
+			if (disc.size <= 0) {
+				return JUtils.strcmp((CString) key, (CString) k);
+			}
+			throw new UnsupportedOperationException("memcmp(key,k,sz))");
+		}
+		return (Integer) disc.comparf.exe(dt, key, k, disc);
+	}
+
+}
@@ -0,0 +1,167 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2020, Arnaud Roques
+ *
+ * Project Info:  http://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * http://plantuml.com/patreon (only 1$ per month!)
+ * http://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package smetana.core;
+
+import java.util.Locale;
+
+/**
+ * Work allowed to one layout, with the counters of the work actually done.
+ * 
+ * The long loops of the engine (mincross, network simplex and spline routing)
+ * call {@link #tick()} for each of their iterations. Once the wall-clock time
+ * or the number of iterations is exhausted, mincross and network simplex stop
+ * with the best solution found so far. Spline routing has no partial result:
+ * it goes on when only the iterations are exhausted, and fails with a
+ * {@link LayoutBudgetExceededException} when the time is over.
+ */
+public final class LayoutBudget {
+
+	public enum Phase {
+		RANK, MINCROSS, POSITION, SPLINES
+	}
+
+	private final long timeoutMs;
+	private final long deadline;
+	private final long maxIterations;
+
+	private final long iterations[] = new long[Phase.values().length];
+	private final long nanos[] = new long[Phase.values().length];
+	private long totalIterations;
+	private boolean exhausted;
+	private boolean timeout;
+
+	private Phase current;
+	private long phaseStart;
+
+	/**
+	 * @param timeoutMs     wall-clock limit in milliseconds, or 0 for no limit
+	 * @param maxIterations limit of the number of iterations of all phases, or 0
+	 *                      for no limit
+	 */
+	public LayoutBudget(long timeoutMs, long maxIterations) {
+		this.timeoutMs = timeoutMs;
+		this.deadline = System.nanoTime() + timeoutMs * 1000000L;
+		this.maxIterations = maxIterations;
+	}
+
+	public static LayoutBudget unlimited() {
+		return new LayoutBudget(0, 0);
+	}
+
+	public void startPhase(Phase phase) {
+		endPhase();
+		this.current = phase;
+		this.phaseStart = System.nanoTime();
+	}
+
+	public void endPhase() {
+		if (current != null) {
+			nanos[current.ordinal()] += System.nanoTime() - phaseStart;
+			current = null;
+		}
+	}
+
+	/**
+	 * Counts one iteration of the current phase.
+	 * 
+	 * @return <code>true</code> if the budget is exhausted and the caller should
+	 *         stop iterating
+	 */
+	public boolean tick() {
+		totalIterations++;
+		if (current != null) {
+			iterations[current.ordinal()]++;
+		}
+		if (timeout == false && timeoutMs > 0 && System.nanoTime() - deadline > 0) {
+			timeout = true;
+			exhausted = true;
+		}
+		if (maxIterations > 0 && totalIterations > maxIterations) {
+			exhausted = true;
+		}
+		return exhausted;
+	}
+
+	/**
+	 * Counts one iteration of a phase that cannot give a partial result.
+	 */
+	public void tickOrFail() {
+		tick();
+		if (timeout) {
+			endPhase();
+			throw new LayoutBudgetExceededException(this);
+		}
+	}
+
+	public boolean isExhausted() {
+		return exhausted;
+	}
+
+	public long getIterations(Phase phase) {
+		return iterations[phase.ordinal()];
+	}
+
+	public long getTotalIterations() {
+		return totalIterations;
+	}
+
+	public long getTimeMs(Phase phase) {
+		return nanos[phase.ordinal()] / 1000000L;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			sb.append(phase.name().toLowerCase(Locale.US));
+			sb.append('=');
+			sb.append(getIterations(phase));
+			sb.append('/');
+			sb.append(getTimeMs(phase));
+			sb.append("ms");
+		}
+		if (timeout) {
+			sb.append(" (timeout)");
+		} else if (exhausted) {
+			sb.append(" (exhausted)");
+		}
+		return sb.toString();
+	}
+
+}
@@ -98,6 +98,8 @@ public class Z {
 
 	public final Map<Integer, CString> all = new HashMap<Integer, CString>();
 
+	public LayoutBudget budget;
+
 	public final ST_dtmethod_s _Dttree = new ST_dtmethod_s();
 	public final ST_dtmethod_s Dttree = _Dttree;
 
@@ -327,17 +329,35 @@ public class Z {
 
 	
 	
+	// Default dictionary of ordered sets, for the layouts that do not choose it
+	private static final boolean CDT = Boolean.getBoolean("plantuml.smetana.cdt");
+
 	public static Z z() {
 		return instances2.get().peekFirst();
 	}
 
 	public static void open() {
+		open(LayoutBudget.unlimited());
+	}
+
+	public static void open(LayoutBudget budget) {
+		open(budget, CDT);
+	}
+
+	/**
+	 * @param cdt
+	 *            true to keep ordered sets in the splay trees of CDT (Dttree)
+	 *            instead of ArrayDict, to check that layouts are the same
+	 */
+	public static void open(LayoutBudget budget, boolean cdt) {
 		LinkedList<Z> list = instances2.get();
 		if (list == null) {
 			list = new LinkedList<Z>();
 			instances2.set(list);
 		}
-		list.addFirst(new Z());
+		final Z z = new Z(cdt);
+		z.budget = budget;
+		list.addFirst(z);
 	}
 
 	public static void close() {
@@ -367,9 +387,9 @@ public class Z {
 		return result;
 	}
 
-	private Z() {
+	private Z(boolean cdt) {
 
-		_Dttree.searchf = dttree__c.dttree;
+		_Dttree.searchf = cdt ? dttree__c.dttree : ArrayDict.searchf;
 		_Dttree.type = 0000004;
 
 		_Dtobag.searchf = dttree__c.dttree;
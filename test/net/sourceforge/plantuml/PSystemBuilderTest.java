@@ -0,0 +1,83 @@
+package net.sourceforge.plantuml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.activitydiagram3.ActivityDiagram3;
+import net.sourceforge.plantuml.classdiagram.ClassDiagram;
+import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.UmlSource;
+import net.sourceforge.plantuml.descdiagram.DescriptionDiagram;
+import net.sourceforge.plantuml.error.PSystemError;
+import net.sourceforge.plantuml.sequencediagram.SequenceDiagram;
+import net.sourceforge.plantuml.sequencediagram.SequenceDiagramFactory;
+
+class PSystemBuilderTest {
+
+	@Test
+	void test_factory_selection() {
+		assertThat(build("A -> B : hello", "participant C")).isInstanceOf(SequenceDiagram.class);
+		assertThat(build("skinparam shadowing false", "class A", "A --> B")).isInstanceOf(ClassDiagram.class);
+		assertThat(build("start", ":a;", "stop")).isInstanceOf(ActivityDiagram3.class);
+		assertThat(build("A -> B", "component C")).isInstanceOf(DescriptionDiagram.class);
+	}
+
+	@Test
+	void test_error_of_best_factory() {
+		final Diagram diagram = build("participant A", "activate B", "deactivate C", "qqq");
+		assertThat(diagram).isInstanceOf(PSystemError.class);
+		final ErrorUml error = ((PSystemError) diagram).getFirstError();
+		assertThat(error.getError()).isEqualTo("You cannot deactivate here");
+		assertThat(error.getLineLocation().getPosition()).isEqualTo(3);
+	}
+
+	@Test
+	void test_syntax_check() {
+		final UmlSource source = source("A -> B", "class C");
+		assertThat(new SequenceDiagramFactory(null).isSyntaxOk(source, 1000)).isFalse();
+		assertThat(new SequenceDiagramFactory(null).isSyntaxOk(source, 2)).isTrue();
+		assertThat(new ClassDiagramFactory(null).isSyntaxOk(source, 1000)).isTrue();
+	}
+
+	@Test
+	void test_newpage_uses_skin_of_its_factory() {
+		for (String color : new String[] { "red", "blue" }) {
+			final SkinParam skin = SkinParam.create(UmlDiagramType.CLASS);
+			skin.setParam("backgroundcolor", color);
+			final Diagram diagram = new ClassDiagramFactory(skin)
+					.createSystem(source("class A", "newpage", "class B"));
+			assertThat(diagram).isInstanceOf(NewpagedDiagram.class);
+			final ClassDiagram page = (ClassDiagram) ((NewpagedDiagram) diagram).getLastDiagram();
+			assertThat(page.getSkinParam().getValue("backgroundcolor")).isEqualTo(color);
+		}
+	}
+
+	private static Diagram build(String... lines) {
+		return new SourceStringReader(text(lines)).getBlocks().get(0).getDiagram();
+	}
+
+	private static String text(String... lines) {
+		final StringBuilder sb = new StringBuilder("@startuml\n");
+		for (String s : lines) {
+			sb.append(s).append('\n');
+		}
+		return sb.append("@enduml\n").toString();
+	}
+
+	private static UmlSource source(String... lines) {
+		final List<StringLocated> data = new ArrayList<StringLocated>();
+		final LineLocationImpl location = new LineLocationImpl("test", null);
+		data.add(new StringLocated("@startuml", location));
+		for (String s : lines) {
+			data.add(new StringLocated(s, location));
+		}
+		data.add(new StringLocated("@enduml", location));
+		return new UmlSource(data, false);
+	}
+
+}
@@ -0,0 +1,76 @@
+package net.sourceforge.plantuml.activitydiagram3.ftile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.SvgCharSizeHack;
+import net.sourceforge.plantuml.Url;
+import net.sourceforge.plantuml.graphic.UDrawable;
+import net.sourceforge.plantuml.svg.LengthAdjust;
+import net.sourceforge.plantuml.ugraphic.LimitFinder;
+import net.sourceforge.plantuml.ugraphic.UEllipse;
+import net.sourceforge.plantuml.ugraphic.UGraphic;
+import net.sourceforge.plantuml.ugraphic.UGroupType;
+import net.sourceforge.plantuml.ugraphic.URectangle;
+import net.sourceforge.plantuml.ugraphic.UTranslate;
+import net.sourceforge.plantuml.ugraphic.color.ColorMapperIdentity;
+import net.sourceforge.plantuml.ugraphic.color.HColorUtils;
+import net.sourceforge.plantuml.ugraphic.svg.UGraphicSvg;
+
+class UGraphicDeferredTest {
+
+	private static final UDrawable DRAWABLE = new UDrawable() {
+		public void drawU(UGraphic ug) {
+			ug.startGroup(UGroupType.CLASS, "grp");
+			ug = ug.apply(HColorUtils.RED);
+			ug.apply(new UTranslate(10, 20)).draw(new URectangle(30, 40));
+			ug.startUrl(new Url("http://a.org", null));
+			ug.apply(HColorUtils.BLUE.bg()).apply(new UTranslate(5, 5)).draw(new UEllipse(100, 100));
+			ug.closeUrl();
+			ug.closeGroup();
+		}
+	};
+
+	@Test
+	void test_nothing_drawn_before_replay() {
+		final LimitFinder limitFinder = new LimitFinder(FileFormat.PNG.getDefaultStringBounder(), false);
+		final UGraphicDeferred deferred = new UGraphicDeferred(limitFinder.apply(UTranslate.dx(100)));
+		DRAWABLE.drawU(deferred);
+		assertThat(limitFinder.getMaxX()).isNegative();
+		deferred.replay();
+		final LimitFinder direct = new LimitFinder(FileFormat.PNG.getDefaultStringBounder(), false);
+		DRAWABLE.drawU(direct.apply(UTranslate.dx(100)));
+		assertThat(limitFinder.getMaxX()).isEqualTo(direct.getMaxX()).isGreaterThan(100);
+	}
+
+	@Test
+	void test_replay_gives_same_output() throws IOException {
+		final UGraphicSvg direct = createSvg();
+		DRAWABLE.drawU(direct);
+		final UGraphicSvg target = createSvg();
+		final UGraphicDeferred deferred = new UGraphicDeferred(target);
+		DRAWABLE.drawU(deferred);
+		deferred.replay();
+		final String expected = toString(direct);
+		assertThat(expected).contains("http://a.org");
+		assertThat(toString(target)).isEqualTo(expected);
+	}
+
+	private static UGraphicSvg createSvg() {
+		return new UGraphicSvg(true, new Dimension2DDouble(200, 200), new ColorMapperIdentity(), false, 1.0, null,
+				null, 42, "none", SvgCharSizeHack.NO_HACK, LengthAdjust.NONE);
+	}
+
+	private static String toString(UGraphicSvg ug) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ug.createXml(baos, null);
+		return new String(baos.toByteArray(), "UTF-8");
+	}
+
+}
@@ -0,0 +1,80 @@
+package net.sourceforge.plantuml.code;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CompressionZlibTest {
+
+	private static String text(int lines) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < lines; i++) {
+			sb.append("Alice -> Bob" + i + " : hello " + (i * 7919 % 1000) + "\n");
+		}
+		return sb.toString();
+	}
+
+	@Test
+	void test_round_trip_larger_than_buffer() throws IOException {
+		final String data = text(2000);
+		assertThat(data.length()).isGreaterThan(4096);
+		final CompressionZlib zlib = new CompressionZlib(data.length());
+		assertThat(zlib.decompress(zlib.compress(data.getBytes("UTF-8"))).toUFT8String()).isEqualTo(data);
+		// Pooled streams are reset between calls
+		assertThat(zlib.decompress(zlib.compress("@startuml".getBytes("UTF-8"))).toUFT8String())
+				.isEqualTo("@startuml");
+	}
+
+	@Test
+	void test_decompression_limit() {
+		final byte[] compressed = new CompressionZlib().compress(new byte[10000]);
+		try {
+			new CompressionZlib(9999).decompress(compressed);
+			fail("Limit not checked");
+		} catch (NoPlantumlCompressionException e) {
+			// ok
+		}
+	}
+
+	@Test
+	void test_truncated_data() {
+		final byte[] compressed = new CompressionZlib().compress(text(100).getBytes());
+		try {
+			new CompressionZlib().decompress(Arrays.copyOf(compressed, compressed.length / 2));
+			fail("Truncated data not detected");
+		} catch (NoPlantumlCompressionException e) {
+			// ok
+		}
+	}
+
+	@Test
+	void test_decode_with_offset() throws IOException {
+		final URLEncoder[] encoders = { new AsciiEncoder(), new AsciiEncoderBase64(), new AsciiEncoderHex() };
+		for (URLEncoder encoder : encoders) {
+			final String encoded = encoder.encode(new byte[] { 0, 1, 2, (byte) 200, (byte) 255, 42 });
+			assertThat(encoder.decode("~1" + encoded, 2)).isEqualTo(encoder.decode(encoded));
+		}
+		final TranscoderImpl transcoder = TranscoderImpl.utf8(new AsciiEncoder(), new ArobaseStringCompressor(),
+				new CompressionZlib());
+		final String code = transcoder.encode(text(40));
+		assertThat(transcoder.decode("~1" + code, 2)).isEqualTo(transcoder.decode(code));
+	}
+
+	@Test
+	void test_decode_all() throws IOException {
+		final Transcoder transcoder = TranscoderUtil.getDefaultTranscoder();
+		final String code1 = transcoder.encode("Alice -> Bob");
+		final String code2 = transcoder.encode(text(40));
+		final List<String> decoded = TranscoderUtil.decodeAll(transcoder, Arrays.asList(code1, "~1!!!", code2));
+		assertThat(decoded).hasSize(3);
+		assertThat(decoded.get(0)).isEqualTo(transcoder.decode(code1));
+		assertThat(decoded.get(1)).isNull();
+		assertThat(decoded.get(2)).isEqualTo(transcoder.decode(code2));
+	}
+
+}
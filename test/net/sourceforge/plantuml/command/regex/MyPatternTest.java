@@ -0,0 +1,32 @@
+package net.sourceforge.plantuml.command.regex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class MyPatternTest {
+
+	@Test
+	void test_patterns_are_compiled_once() {
+		final String regex = "^a[%s]+b" + System.nanoTime() + "$";
+		final long misses = Matcher2.getPatternCacheMisses();
+		final long hits = Matcher2.getPatternCacheHits();
+		final Pattern2 first = MyPattern.cmpile(regex);
+		assertThat(MyPattern.cmpile(regex)).isSameAs(first);
+		assertThat(MyPattern.cmpileNockeck(regex)).isSameAs(first);
+		assertThat(MyPattern.cmpile(regex, Pattern.CASE_INSENSITIVE)).isNotSameAs(first);
+		assertThat(Matcher2.getPatternCacheMisses() - misses).isEqualTo(2);
+		assertThat(Matcher2.getPatternCacheHits() - hits).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	void test_transform() {
+		assertThat(MyPattern.mtches("a  b", "a[%s]+b")).isTrue();
+		assertThat(MyPattern.mtches("“x”", "[%g]x[%g]")).isTrue();
+		assertThat(MyPattern.mtches("A", "a")).isFalse();
+		assertThat(MyPattern.cmpile("a", Pattern.CASE_INSENSITIVE).matcher("A").find()).isTrue();
+	}
+
+}
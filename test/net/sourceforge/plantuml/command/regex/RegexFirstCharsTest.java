@@ -0,0 +1,78 @@
+package net.sourceforge.plantuml.command.regex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RegexFirstCharsTest {
+
+	private static RegexFirstChars of(String pattern) {
+		return RegexFirstChars.of(MyPattern.cmpile(pattern));
+	}
+
+	@Test
+	void test_literal() {
+		final RegexFirstChars chars = of("^title\\s+x$");
+		assertThat(chars.contains('t')).isTrue();
+		assertThat(chars.contains('T')).isTrue();
+		assertThat(chars.contains('x')).isFalse();
+		assertThat(chars.contains(' ')).isFalse();
+	}
+
+	@Test
+	void test_alternatives_and_classes() {
+		final RegexFirstChars chars = of("(?i)^(?:(note|legend)|[-=]+>|\\d{2,})");
+		assertThat(chars.contains('n')).isTrue();
+		assertThat(chars.contains('L')).isTrue();
+		assertThat(chars.contains('-')).isTrue();
+		assertThat(chars.contains('=')).isTrue();
+		assertThat(chars.contains('7')).isTrue();
+		assertThat(chars.contains('>')).isFalse();
+		assertThat(chars.contains('a')).isFalse();
+	}
+
+	@Test
+	void test_optional_prefix() {
+		final RegexFirstChars chars = of("^(abstract[%s]+)?class\\b");
+		assertThat(chars.contains('a')).isTrue();
+		assertThat(chars.contains('c')).isTrue();
+		assertThat(chars.contains('b')).isFalse();
+	}
+
+	@Test
+	void test_shortcuts() {
+		final RegexFirstChars chars = of("^(?:[%g]a|[%q]b|[%s]+c)");
+		assertThat(chars.contains('"')).isTrue();
+		assertThat(chars.contains('\'')).isTrue();
+		assertThat(chars.contains(' ')).isTrue();
+		assertThat(chars.contains('\u201c')).isTrue();
+		assertThat(chars.contains('%')).isFalse();
+		assertThat(chars.contains('g')).isFalse();
+		assertThat(chars.contains('q')).isFalse();
+	}
+
+	@Test
+	void test_negated_class() {
+		final RegexFirstChars chars = of("^[^\\[]+");
+		assertThat(chars.contains('a')).isTrue();
+		assertThat(chars.contains('é')).isTrue();
+		assertThat(chars.contains('[')).isFalse();
+	}
+
+	@Test
+	void test_unicode_property() {
+		final RegexFirstChars chars = of("^(?i)(\\<\\$([-\\p{L}0-9_/]+)\\>)");
+		assertThat(chars.contains('<')).isTrue();
+		assertThat(chars.contains('$')).isFalse();
+		assertThat(of("^[^\\p{L}]x").contains('a')).isTrue();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "title", "^.*", "^(?=a)b", "^a?", "^(a|)", "^\\1", "^[a&&b]", "^\\Qa\\E" })
+	void test_unknown(String pattern) {
+		assertThat(of(pattern)).isNull();
+	}
+
+}
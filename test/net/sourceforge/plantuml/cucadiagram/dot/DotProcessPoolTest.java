@@ -0,0 +1,107 @@
+package net.sourceforge.plantuml.cucadiagram.dot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DotProcessPoolTest {
+
+	// Answers each graph with an svg holding the pid of the process and the graph number
+	private static final String STUB_DOT = "" +
+			"#!/bin/sh\n" +
+			"n=0\n" +
+			"while IFS= read -r line; do\n" +
+			"  case \"$line\" in\n" +
+			"    *crash*) exit 1 ;;\n" +
+			"    *sleep*) sleep 5 ;;\n" +
+			"    \"}\"*) n=$((n+1)); printf '<svg>%s-%s</svg>\\n' $$ $n ;;\n" +
+			"  esac\n" +
+			"done\n";
+
+	@TempDir
+	File dir;
+
+	private String[] cmd;
+
+	@BeforeEach
+	void createStub() throws IOException {
+		assumeFalse(AbstractGraphviz.isWindows());
+		final File stub = new File(dir, "dot");
+		final OutputStream os = new FileOutputStream(stub);
+		os.write(STUB_DOT.getBytes(UTF_8));
+		os.close();
+		stub.setExecutable(true);
+		cmd = new String[] { stub.getAbsolutePath(), "-Tsvg" };
+	}
+
+	@Test
+	void test_process_is_reused() {
+		final DotProcessPool pool = new DotProcessPool(cmd, 1, 10);
+
+		final String svg1 = render(pool, "digraph {\na\n}");
+		final String svg2 = render(pool, "digraph {\nb\n}");
+
+		assertThat(svg1).endsWith("-1</svg>");
+		assertThat(svg2).endsWith("-2</svg>");
+		assertThat(pid(svg1)).isEqualTo(pid(svg2));
+		pool.shutdown();
+	}
+
+	@Test
+	void test_process_is_recycled_after_max_jobs() {
+		final DotProcessPool pool = new DotProcessPool(cmd, 1, 2);
+
+		final String svg1 = render(pool, "digraph {\na\n}");
+		render(pool, "digraph {\nb\n}");
+		final String svg3 = render(pool, "digraph {\nc\n}");
+
+		assertThat(svg3).endsWith("-1</svg>");
+		assertThat(pid(svg1)).isNotEqualTo(pid(svg3));
+		pool.shutdown();
+	}
+
+	@Test
+	void test_process_is_recycled_after_crash() {
+		final DotProcessPool pool = new DotProcessPool(cmd, 1, 10);
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ProcessState state = pool.run("crash\n}".getBytes(UTF_8), baos, 10000, null);
+		assertThat(state.differs(ProcessState.TERMINATED_OK())).isTrue();
+		assertThat(pool.getNbIdle()).isEqualTo(0);
+
+		assertThat(render(pool, "digraph {\na\n}")).endsWith("-1</svg>");
+		pool.shutdown();
+	}
+
+	@Test
+	void test_timeout() {
+		final DotProcessPool pool = new DotProcessPool(cmd, 1, 10);
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ProcessState state = pool.run("sleep\n}".getBytes(UTF_8), baos, 200, null);
+		assertThat(state).isEqualTo(ProcessState.TIMEOUT());
+		assertThat(pool.getNbIdle()).isEqualTo(0);
+		pool.shutdown();
+	}
+
+	private static String render(DotProcessPool pool, String dot) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final ProcessState state = pool.run(dot.getBytes(UTF_8), baos, 10000, null);
+		assertThat(state).isEqualTo(ProcessState.TERMINATED_OK());
+		return new String(baos.toByteArray(), UTF_8);
+	}
+
+	private static String pid(String svg) {
+		return svg.substring("<svg>".length(), svg.indexOf('-'));
+	}
+}
@@ -0,0 +1,88 @@
+package net.sourceforge.plantuml.cucadiagram.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.cucadiagram.CucaDiagram;
+import net.sourceforge.plantuml.cucadiagram.IGroup;
+import net.sourceforge.plantuml.cucadiagram.ILeaf;
+
+class EntityFactoryTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = { "backToLegacyPackage", "useNewPackage" })
+	void test_children_index_matches_parent_containers(String pragma) {
+		final CucaDiagram diagram = parse("@startuml\n!pragma " + pragma + "\n" //
+				+ "package a {\nclass A1\npackage a.b {\nclass B1\nclass B2\n}\n}\n" //
+				+ "package c {\nclass C1\n}\n" //
+				+ "class Root\n" //
+				+ "@enduml");
+		final EntityFactory factory = diagram.getEntityFactory();
+		final List<IGroup> groups = new ArrayList<IGroup>(factory.groups());
+		groups.add(factory.getRootGroup());
+		for (IGroup group : groups) {
+			assertThat(group.getLeafsDirect()).containsExactlyElementsOf(scanLeafs(factory, group));
+		}
+		for (IGroup group : factory.groups()) {
+			assertThat(group.getChildren()).containsExactlyElementsOf(scanGroups(factory, group));
+		}
+		final IGroup a = findGroup(factory, "a");
+		assertThat(a.getLeafsDirect()).hasSize(1);
+		assertThat(a.getChildren()).hasSize(1);
+		assertThat(a.getChildren().iterator().next().getLeafsDirect()).hasSize(2);
+	}
+
+	@Test
+	void test_index_follows_container_changes() {
+		final CucaDiagram diagram = parse("@startuml\n!pragma backToLegacyPackage\n" //
+				+ "package a {\nclass A1\n}\n@enduml");
+		final EntityFactory factory = diagram.getEntityFactory();
+		final IGroup a = findGroup(factory, "a");
+		assertThat(factory.getRootGroup().getLeafsDirect()).isEmpty();
+		final ILeaf leaf = a.getLeafsDirect().iterator().next();
+		leaf.setContainer(factory.getRootGroup());
+		assertThat(a.getLeafsDirect()).isEmpty();
+		assertThat(factory.getRootGroup().getLeafsDirect()).containsExactly(leaf);
+	}
+
+	private static IGroup findGroup(EntityFactory factory, String name) {
+		for (IGroup group : factory.groups()) {
+			if (group.getCodeGetName().equals(name)) {
+				return group;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	private static List<ILeaf> scanLeafs(EntityFactory factory, IGroup parent) {
+		final List<ILeaf> result = new ArrayList<ILeaf>();
+		for (ILeaf leaf : factory.leafs()) {
+			if (leaf.getParentContainer() == parent) {
+				result.add(leaf);
+			}
+		}
+		return result;
+	}
+
+	private static List<IGroup> scanGroups(EntityFactory factory, IGroup parent) {
+		final List<IGroup> result = new ArrayList<IGroup>();
+		for (IGroup group : factory.groups()) {
+			if (group != parent && group.getParentContainer() == parent) {
+				result.add(group);
+			}
+		}
+		return result;
+	}
+
+	private static CucaDiagram parse(String source) {
+		return (CucaDiagram) new SourceStringReader(source).getBlocks().get(0).getDiagram();
+	}
+
+}
@@ -0,0 +1,62 @@
+package net.sourceforge.plantuml.graphic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.geom.Rectangle2D;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.FileFormat;
+
+class FontMetricsCacheTest {
+
+	private static final String[] TEXTS = { "", " ", "a", "Hello World", "class Foo<T> {}", "x := y * 2.5;",
+			"tab\tand\nnewline", "été à Paris", "日本語" };
+
+	@Test
+	void test_same_dimension_as_font_metrics() {
+		for (Font font : fonts()) {
+			final FontMetrics fm = FileFormat.gg.getFontMetrics(font);
+			for (String text : TEXTS) {
+				final Rectangle2D expected = fm.getStringBounds(text, FileFormat.gg);
+				for (int i = 0; i < 2; i++) {
+					final Dimension2DDouble dim = FontMetricsCache.getDimension(font, text);
+					assertThat(dim.getWidth()).as(font + " " + text).isEqualTo(expected.getWidth());
+					assertThat(dim.getHeight()).as(font + " " + text).isEqualTo(expected.getHeight());
+				}
+			}
+		}
+	}
+
+	@Test
+	void test_same_descent_as_line_metrics() {
+		for (Font font : fonts()) {
+			for (String text : TEXTS) {
+				final double expected = font.getLineMetrics(text, FileFormat.gg.getFontRenderContext()).getDescent();
+				assertThat(FontMetricsCache.getDescent(font, text)).isEqualTo(expected);
+				assertThat(FontMetricsCache.getDescent(font, text)).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	void test_counters() {
+		final Font font = new Font("Serif", Font.PLAIN, 17);
+		final String text = "café " + System.nanoTime();
+		final long hits = FontMetricsCache.getHits();
+		final long misses = FontMetricsCache.getMisses();
+		FontMetricsCache.getDimension(font, text);
+		assertThat(FontMetricsCache.getMisses()).isEqualTo(misses + 1);
+		FontMetricsCache.getDimension(font, text);
+		assertThat(FontMetricsCache.getHits()).isGreaterThan(hits);
+	}
+
+	private static Font[] fonts() {
+		return new Font[] { new Font("SansSerif", Font.PLAIN, 14), new Font("Monospaced", Font.BOLD, 13),
+				new Font("Serif", Font.ITALIC, 11), new Font("SansSerif", Font.PLAIN, 14).deriveFont(13.7f) };
+	}
+
+}
@@ -0,0 +1,129 @@
+package net.sourceforge.plantuml.png;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Adler32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class PngEncoderTest {
+
+	@Test
+	void test_few_colors_give_indexed_png() throws IOException {
+		for (int nbColors : new int[] { 2, 3, 16, 17, 256 }) {
+			final BufferedImage image = new BufferedImage(37, 20, BufferedImage.TYPE_INT_RGB);
+			for (int y = 0; y < image.getHeight(); y++) {
+				for (int x = 0; x < image.getWidth(); x++) {
+					image.setRGB(x, y, ((x + y * 7) % nbColors) * 0x010203);
+				}
+			}
+			final byte[] png = encode(image, 6, 1);
+			assertThat(colorType(png)).isEqualTo(3);
+			assertThat(bitDepth(png)).isEqualTo(nbColors <= 2 ? 1 : nbColors <= 4 ? 2 : nbColors <= 16 ? 4 : 8);
+			assertSamePixels(decode(png), image);
+		}
+	}
+
+	@Test
+	void test_translucent_palette() throws IOException {
+		final BufferedImage image = new BufferedImage(30, 30, BufferedImage.TYPE_INT_ARGB);
+		final Graphics2D g2d = image.createGraphics();
+		g2d.setColor(new Color(255, 0, 0, 100));
+		g2d.fillRect(5, 5, 10, 10);
+		g2d.setColor(Color.BLUE);
+		g2d.fillRect(12, 12, 10, 10);
+		g2d.dispose();
+		final byte[] png = encode(image, 6, 1);
+		assertThat(colorType(png)).isEqualTo(3);
+		assertSamePixels(decode(png), image);
+	}
+
+	@Test
+	void test_many_colors_give_truecolor_png() throws IOException {
+		final BufferedImage rgb = createGradient(BufferedImage.TYPE_INT_RGB, 300, 200);
+		final byte[] png = encode(rgb, 6, 1);
+		assertThat(colorType(png)).isEqualTo(2);
+		assertSamePixels(decode(png), rgb);
+
+		final BufferedImage argb = createGradient(BufferedImage.TYPE_INT_ARGB, 300, 200);
+		final byte[] pngWithAlpha = encode(argb, 1, 1);
+		assertThat(colorType(pngWithAlpha)).isEqualTo(6);
+		assertSamePixels(decode(pngWithAlpha), argb);
+	}
+
+	@Test
+	void test_parallel_deflate_gives_same_pixels() throws IOException {
+		final BufferedImage image = createGradient(BufferedImage.TYPE_INT_RGB, 700, 400);
+		final byte[] png = encode(image, 6, 3);
+		assertSamePixels(decode(png), image);
+		assertThat(png.length).isLessThan(encode(image, 0, 1).length);
+	}
+
+	@Test
+	void test_combine_adler32() {
+		final byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 31 + i / 7);
+		}
+		final Adler32 all = new Adler32();
+		all.update(data);
+		final Adler32 first = new Adler32();
+		first.update(data, 0, 40000);
+		final Adler32 second = new Adler32();
+		second.update(data, 40000, 60000);
+		assertThat(PngEncoder.combineAdler32(first.getValue(), second.getValue(), 60000)).isEqualTo(all.getValue());
+	}
+
+	private static byte[] encode(BufferedImage image, int level, int nbThreads) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new PngEncoder(level, nbThreads).write(image, baos, "@startuml\n@enduml", 96, null);
+		return baos.toByteArray();
+	}
+
+	private static BufferedImage decode(byte[] png) throws IOException {
+		return ImageIO.read(new ByteArrayInputStream(png));
+	}
+
+	// IHDR is the first chunk, just after the signature
+	private static int bitDepth(byte[] png) {
+		return png[24];
+	}
+
+	private static int colorType(byte[] png) {
+		return png[25];
+	}
+
+	private static BufferedImage createGradient(int type, int width, int height) {
+		final BufferedImage image = new BufferedImage(width, height, type);
+		final Graphics2D g2d = image.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g2d.setPaint(new GradientPaint(0, 0, new Color(255, 255, 200, 180), width, height, Color.CYAN));
+		g2d.fillRect(0, 0, width, height);
+		g2d.setColor(Color.BLACK);
+		g2d.drawString("PlantUML", 20, 30);
+		g2d.drawOval(50, 50, width / 2, height / 2);
+		g2d.dispose();
+		return image;
+	}
+
+	private static void assertSamePixels(BufferedImage actual, BufferedImage expected) {
+		assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+		assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertThat(actual.getRGB(x, y)).isEqualTo(expected.getRGB(x, y));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package net.sourceforge.plantuml.png;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Node;
+
+class PngStripWriterTest {
+
+	@Test
+	void test_rgb_strips_give_same_pixels() throws IOException {
+		final BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB);
+		final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(writeByStrips(image, false, null)));
+		assertSamePixels(decoded, image);
+	}
+
+	@Test
+	void test_argb_strips_give_same_pixels() throws IOException {
+		final BufferedImage image = createImage(BufferedImage.TYPE_INT_ARGB);
+		final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(writeByStrips(image, true, null)));
+		assertThat(decoded.getColorModel().hasAlpha()).isTrue();
+		assertSamePixels(decoded, image);
+	}
+
+	@Test
+	void test_metadata_is_readable() throws IOException {
+		final String metadata = "@startuml\nAlice -> Bob : héllo\n@enduml";
+		final byte[] png = writeByStrips(createImage(BufferedImage.TYPE_INT_RGB), false, metadata);
+		final ImageReader reader = ImageIO.getImageReadersByFormatName("png").next();
+		try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(png))) {
+			reader.setInput(iis);
+			final Node root = reader.getImageMetadata(0).getAsTree("javax_imageio_png_1.0");
+			String copyleft = null;
+			String text = null;
+			for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+				final IIOMetadataNode entry = (IIOMetadataNode) child.getFirstChild();
+				if (child.getNodeName().equals("tEXt")) {
+					copyleft = entry.getAttribute("value");
+				} else if (child.getNodeName().equals("iTXt")) {
+					assertThat(entry.getAttribute("keyword")).isEqualTo("plantuml");
+					text = entry.getAttribute("text");
+				}
+			}
+			assertThat(copyleft).isEqualTo("Generated by http://plantuml.com");
+			assertThat(text).isEqualTo(metadata);
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	private static byte[] writeByStrips(BufferedImage image, boolean alpha, String metadata) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final PngStripWriter writer = new PngStripWriter(baos, image.getWidth(), image.getHeight(), alpha, metadata,
+				96);
+		for (int top = 0; top < image.getHeight(); top += 7) {
+			writer.write(image.getSubimage(0, top, image.getWidth(), Math.min(7, image.getHeight() - top)));
+		}
+		writer.close();
+		return baos.toByteArray();
+	}
+
+	private static BufferedImage createImage(int type) {
+		final BufferedImage image = new BufferedImage(61, 50, type);
+		final Graphics2D g2d = image.createGraphics();
+		g2d.setColor(new Color(250, 240, 200, 200));
+		g2d.fillRect(0, 0, 61, 50);
+		g2d.setColor(new Color(20, 80, 160, 128));
+		g2d.fillOval(5, 3, 40, 44);
+		g2d.setColor(Color.RED);
+		g2d.drawLine(0, 49, 60, 0);
+		g2d.dispose();
+		return image;
+	}
+
+	private static void assertSamePixels(BufferedImage actual, BufferedImage expected) {
+		assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+		assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertThat(actual.getRGB(x, y)).isEqualTo(expected.getRGB(x, y));
+			}
+		}
+	}
+
+}
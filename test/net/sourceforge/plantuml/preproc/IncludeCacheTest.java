@@ -0,0 +1,76 @@
+package net.sourceforge.plantuml.preproc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.plantuml.LineLocationImpl;
+import net.sourceforge.plantuml.StringLocated;
+import net.sourceforge.plantuml.security.SFile;
+
+class IncludeCacheTest {
+
+	@TempDir
+	File dir;
+
+	@Test
+	void test_lines_are_shared_until_file_changes() throws IOException {
+		final File file = new File(dir, "style.iuml");
+		write(file, "﻿skinparam a b\nskinparam c d\n");
+		final IncludeCache cache = new IncludeCache(IncludeCache.DEFAULT_MAX_CHARS);
+		final FileWithSuffix f2 = new FileWithSuffix(new SFile(file.getAbsolutePath()), null);
+
+		final List<String> lines = cache.getLines(f2, "UTF-8");
+		assertThat(lines).containsExactly("skinparam a b", "skinparam c d");
+		assertThat(cache.getLines(f2, "UTF-8")).isSameAs(lines);
+		assertThat(cache.getLines(f2, "ISO-8859-1")).isNotSameAs(lines);
+
+		write(file, "skinparam e f\n");
+		assertThat(cache.getLines(f2, "UTF-8")).containsExactly("skinparam e f");
+	}
+
+	@Test
+	void test_eviction() throws IOException {
+		final IncludeCache cache = new IncludeCache(30);
+		for (int i = 0; i < 5; i++) {
+			final File file = new File(dir, "f" + i + ".iuml");
+			write(file, "0123456789\n");
+			cache.getLines(new FileWithSuffix(new SFile(file.getAbsolutePath()), null), null);
+		}
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void test_read_line_locations() throws IOException {
+		final File file = new File(dir, "macros.iuml");
+		write(file, "a\nb\n");
+		final FileWithSuffix f2 = new FileWithSuffix(new SFile(file.getAbsolutePath()), null);
+		final LineLocationImpl parent = new LineLocationImpl("main", null);
+		final ReadLine readLine = f2.getReadLine("UTF-8", "macros", parent);
+		final StringLocated first = readLine.readLine();
+		final StringLocated second = readLine.readLine();
+		assertThat(readLine.readLine()).isNull();
+		assertThat(first.getString()).isEqualTo("a");
+		assertThat(first.getLocation().getPosition()).isEqualTo(0);
+		assertThat(first.getLocation().getParent()).isSameAs(parent);
+		assertThat(second.getString()).isEqualTo("b");
+		assertThat(second.getLocation().getPosition()).isEqualTo(1);
+	}
+
+	private static void write(File file, String content) throws IOException {
+		final long before = file.lastModified();
+		final FileOutputStream fos = new FileOutputStream(file);
+		fos.write(content.getBytes("UTF-8"));
+		fos.close();
+		if (before != 0) {
+			file.setLastModified(before + 2000);
+		}
+	}
+
+}
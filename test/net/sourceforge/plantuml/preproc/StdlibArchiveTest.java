@@ -0,0 +1,86 @@
+package net.sourceforge.plantuml.preproc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StdlibArchiveTest {
+
+	@TempDir
+	File dir;
+
+	@Test
+	void test_round_trip() throws IOException {
+		final byte sprite[] = new byte[] { 0x12, 0x34, 0x56, 0x70, (byte) 0x89, (byte) 0xA0 };
+		final byte other[] = new byte[200 * 100];
+		new Random(42).nextBytes(other);
+		final StdlibArchive.Writer writer = new StdlibArchive.Writer("VERSION=1.0\nSOURCE=test");
+		writer.add("Small", file("' small", "@enddefinelongmacro"));
+		writer.add("dir/Big", file("sprite $big [200x200/16] {", other, "!define BIG"));
+		writer.add("Icon", file("sprite $icon [3x3/16] {", sprite, "!define ICON"));
+		writer.add("Same", file("sprite $same [3x3/16] {", sprite));
+		final File file = new File(dir, "test" + StdlibArchive.EXTENSION);
+		final OutputStream os = new FileOutputStream(file);
+		writer.write(os);
+		os.close();
+
+		final StdlibArchive archive = StdlibArchive.open(file.toURI().toURL());
+		assertThat(archive.getInfo()).isEqualTo("VERSION=1.0\nSOURCE=test");
+		assertThat(archive.getFilenames()).containsExactly("Small", "dir/Big", "Icon", "Same");
+		assertThat(readAll(archive.openFile("small"))).isEqualTo(file("' small", "@enddefinelongmacro"));
+		assertThat(readAll(archive.openFile("DIR/BIG"))).isEqualTo(file("sprite $big [200x200/16] {", other, "!define BIG"));
+		assertThat(readAll(archive.openFile("Icon"))).isEqualTo(file("sprite $icon [3x3/16] {", sprite, "!define ICON"));
+		assertThat(readAll(archive.openFile("Same"))).isEqualTo(file("sprite $same [3x3/16] {", sprite));
+		assertThat(archive.openFile("unknown")).isNull();
+	}
+
+	private static byte[] file(Object... lines) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(baos);
+		for (Object line : lines) {
+			if (line instanceof String) {
+				dos.writeUTF((String) line);
+			} else {
+				dos.write((byte[]) line);
+			}
+		}
+		dos.writeUTF(Stdlib.SEPARATOR);
+		dos.close();
+		return baos.toByteArray();
+	}
+
+	@Test
+	void test_stdlib_include() throws IOException {
+		final InputStream is = Stdlib.getResourceAsStream("c4/C4_Container.puml");
+		assertThat(is).isNotNull();
+		final BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+		try {
+			assertThat(br.readLine()).isNotNull();
+		} finally {
+			br.close();
+		}
+		assertThat(Stdlib.getResourceAsStream("c4/Unknown")).isNull();
+		assertThat(Stdlib.retrieve("awslib").extractAllSprites()).isNotEmpty();
+	}
+
+	private static byte[] readAll(DataInputStream dis) throws IOException {
+		final byte result[] = new byte[dis.available()];
+		dis.readFully(result);
+		assertThat(dis.read()).isEqualTo(-1);
+		return result;
+	}
+
+}
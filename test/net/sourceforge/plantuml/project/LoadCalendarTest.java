@@ -0,0 +1,76 @@
+package net.sourceforge.plantuml.project;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.project.time.Day;
+import net.sourceforge.plantuml.project.time.DayOfWeek;
+
+class LoadCalendarTest {
+
+	private static Day day(int num) {
+		return Day.create(Day.MILLISECONDS_PER_DAY * num);
+	}
+
+	private static long bruteForce(LoadPlanable plan, int from, int to) {
+		long result = 0;
+		for (int i = from; i <= to; i++) {
+			result += plan.getLoadAt(day(i));
+		}
+		return result;
+	}
+
+	@Test
+	void test_same_loads_as_plan() {
+		final Random random = new Random(42);
+		final OpenClose openClose = new OpenClose();
+		openClose.setCalendar(day(18000));
+		openClose.close(DayOfWeek.SATURDAY);
+		openClose.close(DayOfWeek.SUNDAY);
+		final List<Day> specialDays = new ArrayList<Day>();
+		for (int i = 0; i < 30; i++) {
+			final Day d = day(18000 + random.nextInt(200));
+			if (random.nextBoolean()) {
+				openClose.close(d);
+			} else {
+				openClose.open(d);
+			}
+			specialDays.add(d);
+		}
+		final LoadCalendar calendar = LoadCalendar.create(openClose, specialDays);
+
+		for (int i = 0; i < 200; i++) {
+			final int from = 17990 + random.nextInt(220);
+			final int to = from + random.nextInt(60);
+			assertThat(calendar.getLoadAt(from)).isEqualTo(openClose.getLoadAt(day(from)));
+			assertThat(calendar.getLoad(from, to)).isEqualTo(bruteForce(openClose, from, to));
+		}
+	}
+
+	@Test
+	void test_end_and_start() {
+		final OpenClose openClose = new OpenClose();
+		openClose.setCalendar(day(0));
+		openClose.close(DayOfWeek.SATURDAY);
+		openClose.close(DayOfWeek.SUNDAY);
+		// 2020-01-06 is a monday
+		final int monday = Day.create(2020, 1, 6).getAbsoluteDayNum();
+		final Day holiday = day(monday + 2);
+		openClose.close(holiday);
+		final LoadCalendar calendar = LoadCalendar.create(openClose, Collections.singleton(holiday));
+
+		assertThat(calendar.getEnd(monday, 100, 1000)).isEqualTo(monday);
+		assertThat(calendar.getEnd(monday, 500, 1000)).isEqualTo(monday + 7);
+		assertThat(calendar.getStart(monday + 7, 500, 0)).isEqualTo(monday);
+		assertThat(calendar.getEnd(monday + 5, 1, 1000)).isEqualTo(monday + 7);
+		assertThat(calendar.getEnd(monday, 500, 5)).isEqualTo(monday + 5);
+		assertThat(calendar.getStart(monday + 7, 500, monday + 1)).isEqualTo(monday);
+	}
+
+}
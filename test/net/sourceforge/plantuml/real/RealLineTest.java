@@ -0,0 +1,43 @@
+package net.sourceforge.plantuml.real;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RealLineTest {
+
+	@Test
+	void test_chain_declared_backwards() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(0);
+		final Real b = a.addAtLeast(0);
+		final Real c = b.addAtLeast(0);
+		// Constraints are declared from the end of the chain
+		c.ensureBiggerThan(b.addFixed(30));
+		b.ensureBiggerThan(a.addFixed(20));
+		a.ensureBiggerThan(origin.addFixed(10));
+		origin.compileNow();
+
+		assertThat(a.getCurrentValue()).isEqualTo(10);
+		assertThat(b.getCurrentValue()).isEqualTo(30);
+		assertThat(c.getCurrentValue()).isEqualTo(60);
+	}
+
+	@Test
+	void test_max_and_middle() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(5);
+		final Real b = origin.addAtLeast(15);
+		final Real c = origin.addAtLeast(0);
+		c.ensureBiggerThan(RealUtils.max(a, b).addFixed(10));
+		final Real middle = RealUtils.middle(origin, c);
+		final Real d = origin.addAtLeast(0);
+		d.ensureBiggerThan(middle);
+		origin.compileNow();
+
+		assertThat(c.getCurrentValue()).isEqualTo(25);
+		assertThat(middle.getCurrentValue()).isEqualTo(12.5);
+		assertThat(d.getCurrentValue()).isEqualTo(12.5);
+	}
+
+}
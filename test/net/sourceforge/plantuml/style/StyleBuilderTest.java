@@ -0,0 +1,67 @@
+package net.sourceforge.plantuml.style;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.SkinParam;
+import net.sourceforge.plantuml.UmlDiagramType;
+
+class StyleBuilderTest {
+
+	@Test
+	void test_merge_in_declaration_order() {
+		final StyleBuilder builder = new StyleBuilder(SkinParam.create(UmlDiagramType.CLASS));
+		builder.put(sig("root"), style(sig("root"), "1", 1));
+		builder.put(sig("root", "element"), style(sig("root", "element"), "2", 2));
+		builder.put(sig("arrow"), style(sig("arrow"), "3", 3));
+		builder.put(sig("element").addStar(), style(sig("element").addStar(), "4", 4));
+
+		final StyleSignature element = sig("root", "element");
+		assertThat(fontSize(builder.getMergedStyle(element))).isEqualTo("4");
+		assertThat(builder.getMergedStyle(element)).isSameAs(builder.getMergedStyle(sig("element", "root")));
+		assertThat(fontSize(builder.getMergedStyle(sig("root", "arrow")))).isEqualTo("3");
+		assertThat(fontSize(builder.getMergedStyle(element.addStar()))).isEqualTo("4");
+		assertThat(builder.getMergedStyle(sig("root").addStar())).isNull();
+		assertThat(builder.getMergedStyle(sig("other"))).isNull();
+
+		builder.put(sig("element"), style(sig("element"), "5", 5));
+		assertThat(fontSize(builder.getMergedStyle(element))).isEqualTo("5");
+	}
+
+	@Test
+	void test_mute_creates_a_new_builder() {
+		final StyleBuilder builder = new StyleBuilder(SkinParam.create(UmlDiagramType.CLASS));
+		builder.put(sig("root"), style(sig("root"), "1", 1));
+		assertThat(fontSize(builder.getMergedStyle(sig("root")))).isEqualTo("1");
+
+		final StyleBuilder muted = builder.muteStyle(
+				Arrays.asList(style(sig("root"), "2", 2), style(sig("note"), "3", 3), style(sig("root"), "4", 1)));
+		assertThat(fontSize(muted.getMergedStyle(sig("root")))).isEqualTo("2");
+		assertThat(fontSize(muted.getMergedStyle(sig("root", "note")))).isEqualTo("3");
+		assertThat(fontSize(builder.getMergedStyle(sig("root")))).isEqualTo("1");
+		assertThat(builder.getMergedStyle(sig("note"))).isNull();
+	}
+
+	private static StyleSignature sig(String first, String... others) {
+		StyleSignature result = new StyleSignature(first);
+		for (String s : others) {
+			result = result.add(s);
+		}
+		return result;
+	}
+
+	private static Style style(StyleSignature signature, String fontSize, int priority) {
+		final EnumMap<PName, Value> map = new EnumMap<PName, Value>(PName.class);
+		map.put(PName.FontSize, new ValueImpl(fontSize, priority));
+		return new Style(signature, map);
+	}
+
+	private static String fontSize(Style style) {
+		return style.value(PName.FontSize).asString();
+	}
+
+}
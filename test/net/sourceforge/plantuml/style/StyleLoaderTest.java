@@ -0,0 +1,61 @@
+package net.sourceforge.plantuml.style;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.plantuml.SkinParam;
+import net.sourceforge.plantuml.UmlDiagramType;
+
+class StyleLoaderTest {
+
+	@TempDir
+	File dir;
+
+	@Test
+	void test_builders_are_independent() throws IOException {
+		final SkinParam skinParam = SkinParam.create(UmlDiagramType.CLASS);
+		final StyleBuilder first = new StyleLoader(skinParam).loadSkin("plantuml.skin");
+		final StyleBuilder second = new StyleLoader(skinParam).loadSkin("plantuml.skin");
+		final StyleSignature root = StyleSignature.of(SName.root);
+		final String fontSize = first.getMergedStyle(root).value(PName.FontSize).asString();
+		assertThat(second.getMergedStyle(root).value(PName.FontSize).asString()).isEqualTo(fontSize);
+		assertThat(second.getNextInt()).isEqualTo(first.getNextInt());
+
+		final EnumMap<PName, Value> map = new EnumMap<PName, Value>(PName.class);
+		map.put(PName.FontSize, new ValueImpl("99", Integer.MAX_VALUE));
+		first.put(root, new Style(root, map));
+		assertThat(first.getMergedStyle(root).value(PName.FontSize).asString()).isEqualTo("99");
+		assertThat(second.getMergedStyle(root).value(PName.FontSize).asString()).isEqualTo(fontSize);
+		assertThat(new StyleLoader(skinParam).loadSkin("plantuml.skin").getMergedStyle(root).value(PName.FontSize)
+				.asString()).isEqualTo(fontSize);
+	}
+
+	@Test
+	void test_local_skin_is_reloaded_when_changed() throws IOException {
+		final File file = new File(dir, "my.skin");
+		write(file, "root {\n  FontSize 11\n}\n");
+		final SkinParam skinParam = SkinParam.create(UmlDiagramType.CLASS);
+		final StyleSignature root = StyleSignature.of(SName.root);
+		assertThat(new StyleLoader(skinParam).loadSkin(file.getAbsolutePath()).getMergedStyle(root)
+				.value(PName.FontSize).asString()).isEqualTo("11");
+
+		write(file, "root {\n  FontSize 12\n}\n");
+		file.setLastModified(file.lastModified() + 2000);
+		assertThat(new StyleLoader(skinParam).loadSkin(file.getAbsolutePath()).getMergedStyle(root)
+				.value(PName.FontSize).asString()).isEqualTo("12");
+	}
+
+	private static void write(File file, String content) throws IOException {
+		final FileOutputStream fos = new FileOutputStream(file);
+		fos.write(content.getBytes("UTF-8"));
+		fos.close();
+	}
+
+}
@@ -0,0 +1,53 @@
+package net.sourceforge.plantuml.svek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.plantuml.OptionFlags;
+import net.sourceforge.plantuml.security.SFile;
+
+class DotLayoutCacheTest {
+
+	@TempDir
+	File dir;
+
+	@Test
+	void test_key_depends_on_graphviz_version() {
+		assertThat(DotLayoutCache.key("digraph {a}", "2.44")).isEqualTo(DotLayoutCache.key("digraph {a}", "2.44"));
+		assertThat(DotLayoutCache.key("digraph {a}", "2.44")).isNotEqualTo(DotLayoutCache.key("digraph {a}", "2.38"));
+		assertThat(DotLayoutCache.key("digraph {a}", "2.44")).isNotEqualTo(DotLayoutCache.key("digraph {b}", "2.44"));
+	}
+
+	@Test
+	void test_memory_eviction() {
+		final DotLayoutCache cache = new DotLayoutCache(10);
+		cache.put("a", "12345");
+		cache.put("b", "12345");
+		assertThat(cache.get("a")).isEqualTo("12345");
+
+		// "b" is now the least recently used entry
+		cache.put("c", "12345");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("a")).isEqualTo("12345");
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("c")).isEqualTo("12345");
+	}
+
+	@Test
+	void test_disk_tier() {
+		OptionFlags.getInstance().setLayoutCacheDir(SFile.fromFile(dir));
+		try {
+			new DotLayoutCache(1000).put("key", "<svg></svg>");
+
+			final DotLayoutCache other = new DotLayoutCache(1000);
+			assertThat(other.get("key")).isEqualTo("<svg></svg>");
+			assertThat(other.get("unknown")).isNull();
+		} finally {
+			OptionFlags.getInstance().setLayoutCacheDir(null);
+		}
+	}
+}
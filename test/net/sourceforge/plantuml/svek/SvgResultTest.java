@@ -0,0 +1,98 @@
+package net.sourceforge.plantuml.svek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SvgResultTest {
+
+	private static final String SVG = "" +
+			"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" +
+			"<svg width=\"170pt\" height=\"116pt\" viewBox=\"0.00 0.00 170.00 116.00\">\n" +
+			"<g id=\"graph0\" class=\"graph\" transform=\"scale(1 1) rotate(0) translate(4 112)\">\n" +
+			"<title>unix</title>\n" +
+			"<g id=\"clust1\" class=\"cluster\">\n" +
+			"<title>clusterza</title>\n" +
+			"<polygon fill=\"none\" stroke=\"#000010\" points=\"8,-8 8,-100 154,-100 154,-8 8,-8\"/>\n" +
+			"</g>\n" +
+			"<g id=\"node1\" class=\"node\">\n" +
+			"<title>sh0001</title>\n" +
+			"<polygon fill=\"none\" stroke=\"black\" points=\"70.5,-92 16.5,-92 16.5,-56 70.5,-56 70.5,-92\"/>\n" +
+			"</g>\n" +
+			"<g id=\"node2\" class=\"node\">\n" +
+			"<title>sh0002</title>\n" +
+			"<path fill=\"none\" stroke=\"black\" d=\"M134.5,-92C134.5,-92 100.5,-92 100.5,-92 94.5,-92\"/>\n" +
+			"</g>\n" +
+			"<g id=\"edge1\" class=\"edge\">\n" +
+			"<title>sh0001&#45;&gt;sh0002</title>\n" +
+			"<path fill=\"none\" style=\"fill:none;stroke:#000020;\" d=\"M70.52,-74C76.7,-74 83.3,-74 89.73,-74\"/>\n" +
+			"<polygon fill=\"#000020\" stroke=\"#000020\" points=\"89.9,-77.5 99.9,-74 89.9,-70.5 89.9,-77.5\"/>\n" +
+			"<polygon fill=\"#000030\" stroke=\"#AAAAAA\" points=\"1e1,2 3,4\"/>\n" +
+			"</g>\n" +
+			"</g>\n" +
+			"</svg>\n";
+
+	private final SvgResult svgResult = new SvgResult(SVG, new YDelta(0));
+
+	@Test
+	void test_title() {
+		assertThat(svgResult.indexOfTitle("sh0001")).isEqualTo(SVG.indexOf("<title>sh0001</title>"));
+		assertThat(svgResult.indexOfTitle("sh0002")).isEqualTo(SVG.indexOf("<title>sh0002</title>"));
+		assertThat(svgResult.indexOfTitle("sh0003")).isEqualTo(-1);
+	}
+
+	@Test
+	void test_attributes_are_found_like_indexOf() {
+		for (int i = 0; i < SVG.length(); i += 7) {
+			assertThat(svgResult.indexOf(SvgResult.POINTS_EQUALS, i)).isEqualTo(SVG.indexOf("points=\"", i));
+			assertThat(svgResult.indexOf(SvgResult.D_EQUALS, i)).isEqualTo(SVG.indexOf("d=\"", i));
+			assertThat(svgResult.substring(i).indexOf(SvgResult.D_EQUALS, 3))
+					.isEqualTo(SVG.substring(i).indexOf("d=\"", 3));
+		}
+	}
+
+	@Test
+	void test_colors_are_found_like_indexOf() {
+		assertThat(svgResult.getIndexFromColor(0x000020)).isEqualTo(SVG.indexOf("stroke=\"#000020\""));
+		assertThat(svgResult.indexOfColor(SvgIndex.STROKE_STYLE, 0x000020)).isEqualTo(SVG.indexOf(";stroke:#000020;"));
+		assertThat(svgResult.getIndexFromColor(0x000030)).isEqualTo(SVG.indexOf("fill=\"#000030\""));
+		assertThat(svgResult.getIndexFromColor(0xAAAAAA)).isEqualTo(-1);
+		final int end = SVG.indexOf("fill=\"#000020\"");
+		assertThat(svgResult.substring(end).getIndexFromColor(0x000020))
+				.isEqualTo(SVG.substring(end).indexOf("stroke=\"#000020\""));
+		assertThat(svgResult.indexOfColor(SvgIndex.ANY_ATTR, 0x000010)).isEqualTo(SVG.indexOf("=\"#000010\""));
+		assertThat(svgResult.indexOfColor(SvgIndex.STROKE_COLON, 0x000020)).isEqualTo(SVG.indexOf("stroke:#000020;"));
+	}
+
+	@Test
+	void test_extractList_is_the_same_as_legacy_parsing() {
+		for (int i = 0; i < SVG.length(); i += 11) {
+			assertSamePoints(svgResult.substring(i).extractList(SvgResult.POINTS_EQUALS),
+					legacyExtractList(SVG.substring(i), "points=\""));
+			assertSamePoints(svgResult.substring(i).extractList(SvgResult.D_EQUALS),
+					legacyExtractList(SVG.substring(i), "d=\""));
+		}
+	}
+
+	private static void assertSamePoints(List<Point2D.Double> actual, List<Point2D.Double> expected) {
+		assertThat(actual).hasSameSizeAs(expected);
+		for (int i = 0; i < actual.size(); i++) {
+			assertThat(Double.doubleToLongBits(actual.get(i).x)).isEqualTo(Double.doubleToLongBits(expected.get(i).x));
+			assertThat(Double.doubleToLongBits(actual.get(i).y)).isEqualTo(Double.doubleToLongBits(expected.get(i).y));
+		}
+	}
+
+	// What extractList() used to do, on a copy of the svg
+	private static List<Point2D.Double> legacyExtractList(String svg, String searched) {
+		final int p2 = svg.indexOf(searched);
+		if (p2 == -1) {
+			return Collections.emptyList();
+		}
+		final int p3 = svg.indexOf("\"", p2 + searched.length());
+		return new SvgResult(svg.substring(p2 + searched.length(), p3), new YDelta(0)).getPoints(" MC");
+	}
+}
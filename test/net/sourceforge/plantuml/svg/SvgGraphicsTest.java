@@ -0,0 +1,73 @@
+package net.sourceforge.plantuml.svg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+
+class SvgGraphicsTest {
+
+	@Test
+	void test_document() throws IOException {
+		final SvgGraphics svg = new SvgGraphics(true, new Dimension2DDouble(20, 10), 1.0, null, 42, "none",
+				LengthAdjust.SPACING);
+		svg.svgRectangle(1, 2, 3, 4, 0, 0, 0, null, null);
+		assertThat(toString(svg)).isEqualTo("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>"
+				+ "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\""
+				+ " contentScriptType=\"application/ecmascript\" contentStyleType=\"text/css\" height=\"10px\""
+				+ " preserveAspectRatio=\"none\" style=\"width:21px;height:10px;\" version=\"1.1\""
+				+ " viewBox=\"0 0 21 10\" width=\"21px\" zoomAndPan=\"magnify\"><defs/><g>"
+				+ "<rect fill=\"black\" height=\"4\" style=\"stroke:black;stroke-width:1.0;\" width=\"3\" x=\"1\" y=\"2\"/>"
+				+ "</g></svg>");
+	}
+
+	@Test
+	void test_empty_links_are_removed() throws IOException {
+		final SvgGraphics svg = new SvgGraphics(false, new Dimension2DDouble(20, 10), 1.0, null, 42, "none",
+				LengthAdjust.NONE);
+		svg.openLink("http://a.org", null, "_top");
+		svg.closeLink();
+		svg.openLink("http://b.org?x=1&y=2", "title", "_top");
+		svg.svgLine(0, 0, 5, 5, 0);
+		svg.closeLink();
+		final String s = toString(svg);
+		assertThat(s).doesNotContain("a.org");
+		assertThat(s).contains("<g><a href=\"http://b.org?x=1&amp;y=2\" target=\"_top\" title=\"title\"");
+		assertThat(s).endsWith("<line style=\"stroke:black;stroke-width:1.0;\" x1=\"0\" x2=\"5\" y1=\"0\" y2=\"5\"/>"
+				+ "</a></g></svg>");
+	}
+
+	@Test
+	void test_null_link_target() throws IOException {
+		final SvgGraphics svg = new SvgGraphics(false, new Dimension2DDouble(20, 10), 1.0, null, 42, "none",
+				LengthAdjust.NONE);
+		svg.openLink("http://a.org", null, null);
+		svg.svgLine(0, 0, 5, 5, 0);
+		svg.closeLink();
+		assertThat(toString(svg)).contains("<a href=\"http://a.org\" target=\"\" title=\"http://a.org\"");
+	}
+
+	@Test
+	void test_escaping() throws IOException {
+		final SvgGraphics svg = new SvgGraphics(false, new Dimension2DDouble(20, 10), 1.0, null, 42, "none",
+				LengthAdjust.NONE);
+		svg.text("a & <b> \"c\" \u0001\u0085 😀", 0, 0, null, 10, null, null, null, 0,
+				Collections.<String, String>emptyMap(), null);
+		svg.addComment("x --> y-");
+		final String s = toString(svg);
+		assertThat(s).contains(">a &amp; &lt;b&gt; \"c\" &#1;&#133; &#128512;</text>");
+		assertThat(s).contains("<!--MD5=[" + SvgGraphics.getMD5Hex("x --> y-") + "]\nx - -> y- -->");
+	}
+
+	private static String toString(SvgGraphics svg) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		svg.createXml(baos);
+		return new String(baos.toByteArray(), "UTF-8");
+	}
+
+}
@@ -0,0 +1,107 @@
+package net.sourceforge.plantuml.ugraphic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.Dimension2DDouble;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SvgCharSizeHack;
+import net.sourceforge.plantuml.Url;
+import net.sourceforge.plantuml.graphic.StringBounder;
+import net.sourceforge.plantuml.graphic.UDrawable;
+import net.sourceforge.plantuml.svg.LengthAdjust;
+import net.sourceforge.plantuml.ugraphic.color.ColorMapperIdentity;
+import net.sourceforge.plantuml.ugraphic.color.HColorUtils;
+import net.sourceforge.plantuml.ugraphic.svg.UGraphicSvg;
+
+class UGraphicRecorderTest {
+
+	private static final UDrawable DRAWABLE = new UDrawable() {
+		public void drawU(UGraphic ug) {
+			ug.startGroup(UGroupType.CLASS, "grp");
+			ug = ug.apply(HColorUtils.RED).apply(new UStroke(2));
+			ug.apply(new UTranslate(10, 20)).draw(new URectangle(30, 40));
+			final UGraphic clipped = ug.apply(new UClip(0, 0, 150, 150));
+			clipped.startUrl(new Url("http://a.org", null));
+			clipped.apply(HColorUtils.BLUE.bg()).apply(new UTranslate(5, 5)).draw(new UEllipse(100, 100));
+			clipped.closeUrl();
+			ug.draw(new ULine(70, 3));
+			ug.closeGroup();
+		}
+	};
+
+	@Test
+	void test_limits_are_those_of_limit_finder() {
+		final StringBounder stringBounder = FileFormat.SVG.getDefaultStringBounder();
+		final LimitFinder limitFinder = new LimitFinder(stringBounder, true);
+		DRAWABLE.drawU(limitFinder);
+		final UGraphicRecorder recorder = new UGraphicRecorder(stringBounder, new ColorMapperIdentity(), "SVG");
+		DRAWABLE.drawU(recorder);
+		assertThat(recorder.getMaxX()).isEqualTo(limitFinder.getMaxX());
+		assertThat(recorder.getMaxY()).isEqualTo(limitFinder.getMaxY());
+		assertThat(recorder.getDisplayList().size()).isEqualTo(7);
+		assertThat(recorder.matchesProperty("svg")).isTrue();
+		assertThat(recorder.matchesProperty("SPECIALTXT")).isFalse();
+	}
+
+	@Test
+	void test_replay_gives_same_output() throws IOException {
+		final UGraphicSvg direct = createSvg();
+		DRAWABLE.drawU(direct);
+		final UGraphicRecorder recorder = new UGraphicRecorder(FileFormat.SVG.getDefaultStringBounder(),
+				new ColorMapperIdentity(), "SVG");
+		DRAWABLE.drawU(recorder);
+		final UGraphicSvg replayed = createSvg();
+		recorder.getDisplayList().replay(replayed);
+		final String expected = toString(direct);
+		assertThat(expected).contains("http://a.org");
+		assertThat(toString(replayed)).isEqualTo(expected);
+	}
+
+	@Test
+	void test_long_chain_of_translations() {
+		UGraphic ug = new UGraphicRecorder(FileFormat.PNG.getDefaultStringBounder(), new ColorMapperIdentity(), null);
+		final UGraphicRecorder recorder = (UGraphicRecorder) ug;
+		for (int i = 0; i < 100000; i++) {
+			ug = ug.apply(UTranslate.dx(1));
+		}
+		ug.draw(new UPixel());
+		final LimitFinder limitFinder = new LimitFinder(FileFormat.PNG.getDefaultStringBounder(), true);
+		recorder.getDisplayList().replay(limitFinder);
+		assertThat(limitFinder.getMaxX()).isEqualTo(100000);
+	}
+
+	@Test
+	void test_drawables_not_replayable_are_walked_twice() throws IOException {
+		final AtomicInteger walks = new AtomicInteger();
+		final UDrawable counted = new UDrawable() {
+			public void drawU(UGraphic ug) {
+				walks.incrementAndGet();
+				DRAWABLE.drawU(ug);
+			}
+		};
+		final FileFormatOption svg = new FileFormatOption(FileFormat.SVG);
+		ImageBuilder.plainImageBuilder(counted, svg).write(new ByteArrayOutputStream());
+		assertThat(walks.get()).isEqualTo(1);
+		ImageBuilder.plainImageBuilder(counted, svg).replayable(false).write(new ByteArrayOutputStream());
+		assertThat(walks.get()).isEqualTo(3);
+	}
+
+	private static UGraphicSvg createSvg() {
+		return new UGraphicSvg(true, new Dimension2DDouble(200, 200), new ColorMapperIdentity(), false, 1.0, null,
+				null, 42, "none", SvgCharSizeHack.NO_HACK, LengthAdjust.NONE);
+	}
+
+	private static String toString(UGraphicSvg ug) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ug.createXml(baos, null);
+		return new String(baos.toByteArray(), "UTF-8");
+	}
+
+}
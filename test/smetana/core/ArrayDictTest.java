@@ -0,0 +1,109 @@
+package smetana.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static smetana.core.Macro.DT_DETACH;
+import static smetana.core.Macro.DT_FIRST;
+import static smetana.core.Macro.DT_INSERT;
+import static smetana.core.Macro.DT_NEXT;
+import static smetana.core.Macro.DT_OSET;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import gen.lib.cdt.dtopen__c;
+import gen.lib.cdt.dttree__c;
+import h.ST_Agsym_s;
+import h.ST_dt_s;
+import h.ST_dtmethod_s;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+class ArrayDictTest {
+
+	private static final String DIAGRAM = "@startuml\n!pragma layout smetana\n" //
+			+ "package p1 {\nclass A\nclass B\n}\n" //
+			+ "package p2 {\nclass C\npackage p3 {\nclass D\n}\n}\n" //
+			+ "class E\nclass F\n" //
+			+ "A --> B : ab\nB --> C\nC --> A\nD ..> E\nE --|> A\nF --> D\nF --> A\nB --> B\nE --> C : ec\n" //
+			+ "@enduml";
+
+	@Test
+	void test_same_order_as_cdt() {
+		Z.open(LayoutBudget.unlimited(), false);
+		try {
+			final ST_dt_s cdt = dtopen__c.dtopen(Z.z().AgDataDictDisc, method(dttree__c.dttree));
+			final ST_dt_s array = dtopen__c.dtopen(Z.z().AgDataDictDisc, method(ArrayDict.searchf));
+			final Random random = new Random(42);
+			final List<ST_Agsym_s> inserted = new ArrayList<ST_Agsym_s>();
+			for (int i = 0; i < 2000; i++) {
+				if (random.nextInt(4) == 0 && inserted.size() > 0) {
+					// The Java version of Dttree fails on missing objects, and
+					// does not return the detached ones
+					final ST_Agsym_s sym = inserted.remove(random.nextInt(inserted.size()));
+					cdt.searchf.exe(cdt, sym, DT_DETACH);
+					assertThat(array.searchf.exe(array, sym, DT_DETACH)).isSameAs(sym);
+				} else {
+					final ST_Agsym_s sym = (ST_Agsym_s) cdt.searchf.exe(cdt, sym("s" + random.nextInt(500)), DT_INSERT);
+					assertThat(array.searchf.exe(array, sym, DT_INSERT)).isSameAs(sym);
+					if (inserted.contains(sym) == false) {
+						inserted.add(sym);
+					}
+				}
+			}
+			assertThat(walk(cdt)).hasSize(inserted.size());
+			assertThat(walk(array)).isEqualTo(walk(cdt));
+		} finally {
+			Z.close();
+		}
+	}
+
+	@Test
+	void test_same_layout_as_cdt() throws IOException {
+		final String array = render("");
+		final String cdt = render("!pragma cdt true\n");
+		assertThat(array).contains("<svg").doesNotContain("An error has occured");
+		assertThat(array).isEqualTo(cdt);
+	}
+
+	private static ST_dtmethod_s method(CFunction searchf) {
+		final ST_dtmethod_s result = new ST_dtmethod_s();
+		result.searchf = searchf;
+		result.type = DT_OSET;
+		return result;
+	}
+
+	private static ST_Agsym_s sym(String name) {
+		final ST_Agsym_s result = new ST_Agsym_s();
+		result.name = new CString(name);
+		return result;
+	}
+
+	private static List<ST_Agsym_s> walk(ST_dt_s dt) {
+		final List<ST_Agsym_s> result = new ArrayList<ST_Agsym_s>();
+		for (Object o = dt.searchf.exe(dt, null, DT_FIRST); o != null; o = dt.searchf.exe(dt, o, DT_NEXT)) {
+			result.add((ST_Agsym_s) o);
+		}
+		return result;
+	}
+
+	private static String render(String pragma) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final String source = DIAGRAM.replace("@enduml", pragma + "@enduml");
+		new SourceStringReader(source).outputImage(baos, new FileFormatOption(FileFormat.SVG));
+		final String svg = new String(baos.toByteArray(), "UTF-8");
+		// Only the drawing is compared: the source and its MD5 are copied at the
+		// end, and the filter id is computed from the source
+		final Matcher filter = Pattern.compile("<filter [^>]*id=\"(\\w+)\"").matcher(svg);
+		assertThat(filter.find()).isTrue();
+		return svg.substring(0, svg.lastIndexOf("<!--MD5=")).replace(filter.group(1), "filter");
+	}
+
+}
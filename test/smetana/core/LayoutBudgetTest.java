@@ -0,0 +1,54 @@
+package smetana.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import org.junit.jupiter.api.Test;
+
+class LayoutBudgetTest {
+
+	@Test
+	void test_unlimited() {
+		final LayoutBudget budget = LayoutBudget.unlimited();
+		budget.startPhase(LayoutBudget.Phase.MINCROSS);
+		for (int i = 0; i < 100000; i++) {
+			assertThat(budget.tick()).isFalse();
+		}
+		budget.startPhase(LayoutBudget.Phase.SPLINES);
+		budget.tickOrFail();
+		budget.endPhase();
+		assertThat(budget.getIterations(LayoutBudget.Phase.MINCROSS)).isEqualTo(100000);
+		assertThat(budget.getIterations(LayoutBudget.Phase.SPLINES)).isEqualTo(1);
+		assertThat(budget.getTotalIterations()).isEqualTo(100001);
+		assertThat(budget.isExhausted()).isFalse();
+	}
+
+	@Test
+	void test_iterations_do_not_stop_splines() {
+		final LayoutBudget budget = new LayoutBudget(0, 10);
+		budget.startPhase(LayoutBudget.Phase.RANK);
+		for (int i = 0; i < 10; i++) {
+			assertThat(budget.tick()).isFalse();
+		}
+		assertThat(budget.tick()).isTrue();
+		budget.startPhase(LayoutBudget.Phase.SPLINES);
+		budget.tickOrFail();
+		assertThat(budget.isExhausted()).isTrue();
+		assertThat(budget.toString()).contains("rank=11/").endsWith("(exhausted)");
+	}
+
+	@Test
+	void test_timeout() throws InterruptedException {
+		final LayoutBudget budget = new LayoutBudget(1, 0);
+		Thread.sleep(5);
+		budget.startPhase(LayoutBudget.Phase.SPLINES);
+		try {
+			budget.tickOrFail();
+			fail("Timeout not detected");
+		} catch (LayoutBudgetExceededException e) {
+			assertThat(e.getBudget()).isSameAs(budget);
+			assertThat(budget.isExhausted()).isTrue();
+		}
+	}
+
+}